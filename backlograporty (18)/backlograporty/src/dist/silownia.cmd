@@ -0,0 +1,4 @@
+@echo off
+rem Uruchamia aplikacje z okrojonego srodowiska jlink i archiwum CDS (profil Maven "dist").
+cd /d "%~dp0"
+start "" runtime\bin\javaw -XX:SharedArchiveFile=app.jsa -cp "lib/*" com.example.silowniaprojekt.Main %*
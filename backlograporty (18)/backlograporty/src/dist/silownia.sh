@@ -0,0 +1,4 @@
+#!/bin/sh
+# Uruchamia aplikację z okrojonego środowiska jlink i archiwum CDS (profil Maven "dist").
+cd "$(dirname "$0")" || exit 1
+exec runtime/bin/java -XX:SharedArchiveFile=app.jsa -cp "lib/*" com.example.silowniaprojekt.Main "$@"
@@ -0,0 +1,316 @@
+package com.example.silowniaprojekt;
+
+import javafx.application.Platform;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dziennik aktywności użytkowników (tabela {@code activity_logs}) zapisywany w tle.
+ *
+ * Zapis wpisu ({@link #log}) tylko dodaje go do ograniczonej kolejki
+ * ({@link #CAPACITY}) bez blokad i bez połączenia z bazą danych. Wątek
+ * zapisujący wysyła wpisy wsadowo - gdy zbierze się {@link #BATCH_SIZE} wpisów
+ * lub upłynie {@link #FLUSH_INTERVAL} - razem z godzinowym zestawieniem
+ * aktywności ({@link ActivityStats}) i frekwencją ({@link DashboardKpis}),
+ * w jednej transakcji.
+ *
+ * Gdy kolejka jest pełna, wątki w tle czekają na miejsce najwyżej
+ * {@link #OFFER_TIMEOUT}, a wątek JavaFX nie czeka wcale; wpis, dla którego
+ * zabrakło miejsca, jest odrzucany i liczony w {@link #getDroppedCount()}.
+ * Każdy wpis zapisywany jest z czasem akcji, a nie czasem zapisu wsadu.
+ * Wsad, którego nie udało się zapisać (błąd bazy danych), wraca do kolejki
+ * i jest ponawiany po {@link #FLUSH_INTERVAL}; wpisy, które nie mieszczą się
+ * w kolejce, są odrzucane, wypisywane w komunikacie błędu i liczone
+ * w {@link #getFailedCount()}. Przy zamykaniu aplikacji ({@link #shutdown()})
+ * zapisywane są wszystkie oczekujące wpisy. Kolejka jest wspólna dla całej
+ * aplikacji (wzorzec Singleton).
+ */
+public final class ActivityLog {
+
+    /** Opis wpisu zapisywanego przy logowaniu; liczony również jako wizyta w statystyce frekwencji. */
+    public static final String LOGIN = "Logowanie do systemu";
+
+    /**
+     * Maksymalna liczba wpisów oczekujących na zapis.
+     * Można ją zmienić właściwością systemową {@code silownia.activity.capacity}.
+     */
+    public static final int CAPACITY = Integer.getInteger("silownia.activity.capacity", 10_000);
+
+    /**
+     * Maksymalna liczba wpisów zapisywanych jednym wsadem.
+     * Można ją zmienić właściwością systemową {@code silownia.activity.batch}.
+     */
+    public static final int BATCH_SIZE = Integer.getInteger("silownia.activity.batch", 200);
+
+    /**
+     * Maksymalny czas oczekiwania wpisu w kolejce, gdy wsad nie jest pełny.
+     * Można go zmienić właściwością systemową {@code silownia.activity.flush.ms}.
+     */
+    public static final Duration FLUSH_INTERVAL = Duration.ofMillis(Long.getLong("silownia.activity.flush.ms", 1000));
+
+    /**
+     * Maksymalny czas oczekiwania wątku w tle na miejsce w pełnej kolejce.
+     * Można go zmienić właściwością systemową {@code silownia.activity.offer.ms}.
+     */
+    public static final Duration OFFER_TIMEOUT = Duration.ofMillis(Long.getLong("silownia.activity.offer.ms", 50));
+
+    /** Maksymalny czas zapisu oczekujących wpisów przy zamykaniu aplikacji. */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final String INSERT_SQL = "INSERT INTO activity_logs (user_id, action, created_at) VALUES (?, ?, ?)";
+
+    private static final ActivityLog INSTANCE = new ActivityLog();
+
+    /**
+     * Wpis dziennika aktywności oczekujący na zapis.
+     *
+     * @param userId identyfikator użytkownika
+     * @param action opis akcji
+     * @param time czas akcji
+     */
+    private record Entry(int userId, String action, LocalDateTime time) {
+    }
+
+    /** Wynik zapisu wsadu. */
+    private enum Flush {
+        /** Kolejka była pusta. */
+        EMPTY,
+        /** Wsad został zapisany. */
+        WRITTEN,
+        /** Zapis się nie powiódł; wsad wrócił do kolejki. */
+        FAILED
+    }
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+
+    /** Wpisy niezapisane z powodu błędu, zapisywane przed kolejką; używane tylko przez wątek zapisujący. */
+    private final Deque<Entry> retry = new ArrayDeque<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private ActivityLog() {
+        writer = new Thread(this::runWriter, "activity-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Zwraca wspólny dziennik aktywności aplikacji.
+     *
+     * @return dziennik aktywności
+     */
+    public static ActivityLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Dodaje wpis do dziennika aktywności. Wpis zostanie zapisany w tle.
+     *
+     * @param userId identyfikator użytkownika
+     * @param action opis akcji
+     * @return true, jeśli wpis przyjęto do zapisu; false, jeśli został odrzucony
+     */
+    public boolean log(int userId, String action) {
+        Entry entry = new Entry(userId, action, LocalDateTime.now());
+        if (offer(entry)) {
+            return true;
+        }
+        if (running && !Platform.isFxApplicationThread()) {
+            long deadline = System.nanoTime() + OFFER_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(1_000_000);
+                if (offer(entry)) {
+                    return true;
+                }
+            }
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Dodaje wpis do kolejki, jeśli jest w niej miejsce, i budzi wątek
+     * zapisujący, gdy zebrał się pełny wsad.
+     */
+    private boolean offer(Entry entry) {
+        if (!running) {
+            return false;
+        }
+        int size = pending.incrementAndGet();
+        if (size > CAPACITY) {
+            pending.decrementAndGet();
+            return false;
+        }
+        queue.offer(entry);
+        if (size >= BATCH_SIZE) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Pętla wątku zapisującego; po błędzie zapisu czeka {@link #FLUSH_INTERVAL}
+     * przed ponowieniem. Po zatrzymaniu zapisuje wszystkie oczekujące wpisy
+     * (do pierwszego błędu).
+     */
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        Flush last = Flush.EMPTY;
+        while (running) {
+            if (last == Flush.FAILED || pending.get() < BATCH_SIZE) {
+                LockSupport.parkNanos(this, FLUSH_INTERVAL.toNanos());
+            }
+            last = writeBatch(batch);
+        }
+        while (writeBatch(batch) == Flush.WRITTEN) {
+            // zapis pozostałych wpisów przy zamykaniu
+        }
+    }
+
+    /**
+     * Pobiera najwyżej {@link #BATCH_SIZE} wpisów (najpierw ponawiane) i zapisuje
+     * je w jednej transakcji. Po błędzie wsad wraca do kolejki ({@link #requeue}).
+     *
+     * @return wynik zapisu
+     */
+    private Flush writeBatch(List<Entry> batch) {
+        batch.clear();
+        Entry entry;
+        while (batch.size() < BATCH_SIZE && (entry = retry.poll()) != null) {
+            pending.decrementAndGet();
+            batch.add(entry);
+        }
+        while (batch.size() < BATCH_SIZE && (entry = queue.poll()) != null) {
+            pending.decrementAndGet();
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return Flush.EMPTY;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("Brak połączenia z bazą danych");
+            }
+            conn.setAutoCommit(false);
+            List<LocalDateTime> times = new ArrayList<>(batch.size());
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (Entry e : batch) {
+                    stmt.setInt(1, e.userId());
+                    stmt.setString(2, e.action());
+                    stmt.setTimestamp(3, Timestamp.valueOf(e.time()));
+                    stmt.addBatch();
+                    times.add(e.time());
+                }
+                stmt.executeBatch();
+            }
+            ActivityStats.recordEvents(conn, times);
+            for (Entry e : batch) {
+                if (LOGIN.equals(e.action())) {
+                    DashboardKpis.recordVisit(conn, e.userId(), e.time().toLocalDate());
+                }
+            }
+            conn.commit();
+            written.addAndGet(batch.size());
+            return Flush.WRITTEN;
+        } catch (SQLException e) {
+            System.err.println("Błąd zapisu dziennika aktywności (" + batch.size() + " wpisów): " + e.getMessage());
+            requeue(batch);
+            return Flush.FAILED;
+        }
+    }
+
+    /**
+     * Zwraca niezapisany wsad na początek kolejki, o ile mieści się w {@link #CAPACITY}
+     * razem z oczekującymi wpisami; pozostałe (najnowsze) wpisy są odrzucane i wypisywane.
+     */
+    private void requeue(List<Entry> batch) {
+        int size;
+        int kept;
+        do {
+            size = pending.get();
+            kept = Math.max(0, Math.min(batch.size(), CAPACITY - size));
+        } while (kept > 0 && !pending.compareAndSet(size, size + kept));
+        for (int i = kept - 1; i >= 0; i--) {
+            retry.addFirst(batch.get(i));
+        }
+        if (kept < batch.size()) {
+            List<Entry> lost = batch.subList(kept, batch.size());
+            failed.addAndGet(lost.size());
+            System.err.println("Utracono " + lost.size() + " wpisów dziennika aktywności (pełna kolejka): " + lost);
+        }
+    }
+
+    /**
+     * Zwraca liczbę wpisów zapisanych w bazie danych.
+     *
+     * @return liczba zapisanych wpisów
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Zwraca liczbę wpisów odrzuconych z powodu pełnej kolejki.
+     *
+     * @return liczba odrzuconych wpisów
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Zwraca liczbę wpisów utraconych z powodu błędu bazy danych
+     * (niezapisanych i niemieszczących się w kolejce do ponowienia).
+     *
+     * @return liczba niezapisanych wpisów
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Zwraca liczbę wpisów oczekujących na zapis.
+     *
+     * @return liczba wpisów w kolejce
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Zatrzymuje przyjmowanie wpisów i czeka na zapis oczekujących,
+     * najwyżej {@link #SHUTDOWN_TIMEOUT}. Wywoływana przy zamykaniu aplikacji,
+     * przed zamknięciem puli połączeń.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Dziennik aktywności: zapisano " + getWrittenCount() + ", odrzucono " + getDroppedCount()
+                + ", błędy zapisu " + getFailedCount() + ", niezapisane " + getPendingCount());
+    }
+}
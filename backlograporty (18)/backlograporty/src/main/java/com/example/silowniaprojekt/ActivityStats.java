@@ -0,0 +1,170 @@
+package com.example.silowniaprojekt;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Godzinowe zestawienie aktywności użytkowników (tabela {@code hourly_activity}).
+ *
+ * Każdy wpis dziennika {@code activity_logs} zwiększa licznik swojej pełnej
+ * godziny ({@link #recordEvents}), dlatego wykres aktywności nie odczytuje
+ * samego dziennika - kwartał to najwyżej kilka tysięcy wierszy zestawienia,
+ * niezależnie od liczby wpisów.
+ *
+ * Dzienne wartości wykresu przechowuje {@link Series}; kolejne odświeżenia
+ * pobierają tylko godziny od ostatnio odczytanej.
+ */
+public final class ActivityStats {
+
+    /**
+     * Zakres wykresu aktywności.
+     */
+    public enum Range {
+        WEEK("Tydzień", 7),
+        MONTH("Miesiąc", 30),
+        QUARTER("Kwartał", 91);
+
+        private final String label;
+        private final int days;
+
+        Range(String label, int days) {
+            this.label = label;
+            this.days = days;
+        }
+
+        /**
+         * Zwraca pierwszy dzień zakresu kończącego się podanym dniem.
+         *
+         * @param today ostatni dzień zakresu
+         * @return pierwszy dzień zakresu
+         */
+        public LocalDate firstDay(LocalDate today) {
+            return today.minusDays(days - 1);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO hourly_activity (bucket_start, event_count)
+            VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count)
+            """;
+
+    private static final String BUCKETS_SQL = """
+            SELECT bucket_start, event_count
+            FROM hourly_activity
+            WHERE bucket_start >= ?
+            ORDER BY bucket_start
+            """;
+
+    private ActivityStats() {
+    }
+
+    /**
+     * Dolicza wpisy dziennika aktywności do zestawienia - jedną aktualizacją na godzinę.
+     * Należy wywołać na tym samym połączeniu i w tej samej transakcji co zapis
+     * wpisów do {@code activity_logs}.
+     *
+     * @param conn połączenie z bazą danych
+     * @param times czasy wpisów
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordEvents(Connection conn, Collection<LocalDateTime> times) throws SQLException {
+        Map<LocalDateTime, Integer> hourly = new TreeMap<>();
+        for (LocalDateTime time : times) {
+            hourly.merge(time.truncatedTo(ChronoUnit.HOURS), 1, Integer::sum);
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            for (Map.Entry<LocalDateTime, Integer> bucket : hourly.entrySet()) {
+                stmt.setTimestamp(1, Timestamp.valueOf(bucket.getKey()));
+                stmt.setInt(2, bucket.getValue());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Dzienna liczba zdarzeń w zakresie kończącym się dzisiaj, odświeżana przyrostowo.
+     *
+     * Pierwsze odświeżenie pobiera godziny całego zakresu, kolejne - tylko godziny
+     * od ostatnio odczytanej (ją samą ponownie, bo jej licznik mógł wzrosnąć).
+     * Dni sprzed początku zakresu są usuwane, gdy zakres przesuwa się o północy.
+     * Metody są synchronizowane, więc odświeżenie może odbywać się w tle.
+     */
+    public static final class Series {
+
+        private final Range range;
+        private final TreeMap<LocalDate, Integer> daily = new TreeMap<>();
+        private LocalDateTime lastBucket;
+        private int lastBucketCount;
+
+        /**
+         * Tworzy pustą serię dla podanego zakresu.
+         *
+         * @param range zakres wykresu
+         */
+        public Series(Range range) {
+            this.range = range;
+        }
+
+        /**
+         * Zwraca zakres serii.
+         *
+         * @return zakres wykresu
+         */
+        public Range getRange() {
+            return range;
+        }
+
+        /**
+         * Pobiera godziny nowsze niż ostatnio odczytana i zwraca dzienne wartości zakresu.
+         *
+         * @param conn połączenie z bazą danych
+         * @return liczba zdarzeń dla każdego dnia zakresu, od najstarszego (zero dla dni bez zdarzeń)
+         * @throws SQLException w przypadku błędu bazy danych
+         */
+        public synchronized Map<LocalDate, Integer> refresh(Connection conn) throws SQLException {
+            LocalDate today = LocalDate.now();
+            LocalDate firstDay = range.firstDay(today);
+            LocalDateTime since = lastBucket == null || lastBucket.isBefore(firstDay.atStartOfDay())
+                    ? firstDay.atStartOfDay()
+                    : lastBucket;
+
+            try (PreparedStatement stmt = conn.prepareStatement(BUCKETS_SQL)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(since));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        LocalDateTime bucket = rs.getTimestamp("bucket_start").toLocalDateTime();
+                        int count = rs.getInt("event_count");
+                        int delta = bucket.equals(lastBucket) ? count - lastBucketCount : count;
+                        daily.merge(bucket.toLocalDate(), delta, Integer::sum);
+                        lastBucket = bucket;
+                        lastBucketCount = count;
+                    }
+                }
+            }
+
+            daily.headMap(firstDay).clear();
+            Map<LocalDate, Integer> result = new LinkedHashMap<>();
+            for (LocalDate day = firstDay; !day.isAfter(today); day = day.plusDays(1)) {
+                result.put(day, daily.getOrDefault(day, 0));
+            }
+            return result;
+        }
+    }
+}
@@ -19,15 +19,25 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 /**
  * Kontroler panelu administracyjnego dla systemu zarządzania siłownią.
@@ -86,8 +96,10 @@ public class AdminDashboardController {
     @FXML private Button transactionsBtn;
 
     // Komponenty dashboard
-    /** Wykres aktywności klientów */
+    /** Wykres aktywności użytkowników */
     @FXML private LineChart<String, Number> activityChart;
+    /** Wybór zakresu wykresu aktywności (tydzień, miesiąc, kwartał) */
+    @FXML private ComboBox<ActivityStats.Range> activityRangeCombo;
 
     // Tabele danych
     /** Tabela użytkowników */
@@ -120,6 +132,7 @@ public class AdminDashboardController {
     @FXML private TableColumn<Membership, String> membershipClientColumn;
     @FXML private TableColumn<Membership, Double> membershipAmountColumn;
     @FXML private TableColumn<Membership, String> membershipDateColumn;
+    @FXML private TextField membershipSearchField;
 
     /** Tabela transakcji */
     @FXML private TableView<Transaction> transactionsTable;
@@ -128,6 +141,7 @@ public class AdminDashboardController {
     @FXML private TableColumn<Transaction, String> transactionProductColumn;
     @FXML private TableColumn<Transaction, String> transactionDateColumn;
     @FXML private TableColumn<Transaction, Double> transactionAmountColumn;
+    @FXML private TextField transactionSearchField;
 
     // Kontrolki filtrowania raportów
     /** ComboBox do wyboru predefiniowanych okresów */
@@ -148,6 +162,17 @@ public class AdminDashboardController {
     /** ComboBox do filtrowania produktów */
     @FXML private ComboBox<String> productFilterCombo;
 
+    /** CheckBox dołączania szczegółowej listy transakcji do raportu produktów */
+    @FXML private CheckBox productDetailsCheckBox;
+
+    /** Tabela zleconych i ostatnio wygenerowanych raportów */
+    @FXML private TableView<ReportJob> reportJobsTable;
+    @FXML private TableColumn<ReportJob, String> reportJobTitleColumn;
+    @FXML private TableColumn<ReportJob, String> reportJobSubmittedColumn;
+    @FXML private TableColumn<ReportJob, String> reportJobStatusColumn;
+    @FXML private TableColumn<ReportJob, String> reportJobProgressColumn;
+    @FXML private TableColumn<ReportJob, String> reportJobFileColumn;
+
     // Kolekcje danych
     /** Lista obserwowalna użytkowników */
     private ObservableList<User> users = FXCollections.observableArrayList();
@@ -161,28 +186,82 @@ public class AdminDashboardController {
     /** Lista obserwowalna sprzętu */
     private ObservableList<Equipment> equipment = FXCollections.observableArrayList();
 
-    /** Lista obserwowalna karnetów */
-    private ObservableList<Membership> memberships = FXCollections.observableArrayList();
+    /** Płatności za karnety wczytywane stronami w miarę przewijania */
+    private PagedTable<Membership> membershipPages;
+
+    /** Transakcje wczytywane stronami w miarę przewijania */
+    private PagedTable<Transaction> transactionPages;
+
+    /** Zapytania ładujące dane panelu, anulowane przy wylogowaniu */
+    private final QueryScope queries = new QueryScope();
+
+    /** Zapisy wywołane przez administratora; nie są anulowane */
+    private final QueryScope writes = new QueryScope();
+
+    /** Maksymalna liczba zapytań startowych wykonywanych jednocześnie */
+    private static final int BOOTSTRAP_PARALLELISM = 4;
+
+    /**
+     * Czasy wykonania zapytań startowych w milisekundach, według nazwy loadera;
+     * null poza ładowaniem startowym, więc późniejsze odświeżenia sekcji nie są mierzone
+     */
+    private Map<String, Long> bootstrapTimings;
+
+    /**
+     * Wykonawca zapytań panelu ograniczony do {@link #BOOTSTRAP_PARALLELISM} wątków,
+     * zamykany przy wylogowaniu
+     */
+    private final ExecutorService loadExecutor = Executors.newFixedThreadPool(BOOTSTRAP_PARALLELISM,
+            Thread.ofVirtual().name("admin-loader-", 0).factory());
+
+    /** Dane sekcji panelu; nieaktualne sekcje odświeżane są w tle przy ponownym wyświetleniu */
+    private final SectionCache sections = new SectionCache();
+
+    /** Aktualnie wyświetlana sekcja (null do czasu pierwszego wyświetlenia) */
+    private VBox activeSection;
+
+    /** Etykiety dni tygodnia na wykresie aktywności */
+    private static final String[] WEEKDAY_LABELS = {"Pon", "Wt", "Śr", "Czw", "Pt", "Sob", "Nd"};
+
+    /** Format daty na wykresie aktywności dla zakresów dłuższych niż tydzień */
+    private static final DateTimeFormatter DAY_LABEL_FORMAT = DateTimeFormatter.ofPattern("dd.MM");
+
+    /** Dzienne wartości wykresu aktywności dla wybranego zakresu, odświeżane przyrostowo */
+    private ActivityStats.Series activitySeries = new ActivityStats.Series(ActivityStats.Range.WEEK);
 
-    /** Lista obserwowalna transakcji */
-    private ObservableList<Transaction> transactions = FXCollections.observableArrayList();
+    /** Seria danych wyświetlana na wykresie aktywności */
+    private final XYChart.Series<String, Number> activityData = new XYChart.Series<>();
 
     /**
      * Inicjalizuje kontroler po załadowaniu FXML.
-     * Konfiguruje wykresy, tabele, ładuje dane z bazy danych i ustawia domyślny widok.
+     * Konfiguruje wykresy i tabele. Dane z bazy ładowane są dopiero po zalogowaniu
+     * ({@link #setUserData}), bo panel może być zbudowany z wyprzedzeniem
+     * na ekranie logowania ({@link DashboardPreloader}).
      */
     @FXML
     public void initialize() {
         initChart();
         initTables();
-        loadDataFromDatabase();
-        showDashboard();
         initializeDateFilters();
-        initializeProductFilter();
+        registerSections();
+    }
+
+    /**
+     * Rejestruje metody ładujące dane poszczególnych sekcji w {@link #sections}.
+     */
+    private void registerSections() {
+        sections.register(dashboardSection, this::loadActivityChart);
+        sections.register(usersSection, this::loadUsers);
+        sections.register(trainingsSection, this::loadTrainings);
+        sections.register(storeSection, this::loadProducts);
+        sections.register(membershipsSection, this::loadMemberships);
+        sections.register(transactionsSection, this::loadTransactions);
+        sections.register(reportsSection, this::initializeProductFilter);
     }
 
     /**
-     * Ustawia dane zalogowanego użytkownika.
+     * Ustawia dane zalogowanego użytkownika i równolegle ładuje dane panelu z bazy;
+     * domyślny widok pokazywany jest po zakończeniu wszystkich zapytań.
      *
      * @param userId identyfikator użytkownika
      * @param userName nazwa użytkownika
@@ -192,6 +271,7 @@ public class AdminDashboardController {
         this.userId = userId;
         this.userName = userName;
         this.adminEmail = userEmail;
+        loadDataFromDatabase();
     }
 
     /**
@@ -236,16 +316,23 @@ public class AdminDashboardController {
      * Inicjalizuje filtr produktów w sekcji raportów.
      * Ładuje nazwy produktów z bazy danych do ComboBox.
      */
-    private void initializeProductFilter() {
-        if (productFilterCombo != null) {
-            try {
-                List<String> productNames = ReportGenerator.getProductNames();
-                productFilterCombo.getItems().addAll(productNames);
-                productFilterCombo.getSelectionModel().selectFirst();
-            } catch (SQLException e) {
-                showError("Błąd ładowania produktów: " + e.getMessage());
-            }
+    private CompletableFuture<?> initializeProductFilter() {
+        if (productFilterCombo == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return queries.track(null,
+                AsyncQueryExecutor.call(timed("filtr produktów", ReportGenerator::getProductNames), loadExecutor),
+                productNames -> {
+                    // Przy odświeżeniu zachowaj wybrany produkt, jeśli nadal istnieje
+                    String selected = productFilterCombo.getValue();
+                    productFilterCombo.getItems().setAll(productNames);
+                    if (selected != null && productNames.contains(selected)) {
+                        productFilterCombo.setValue(selected);
+                    } else {
+                        productFilterCombo.getSelectionModel().selectFirst();
+                    }
+                },
+                e -> showError("Błąd ładowania produktów: " + e.getMessage()));
     }
 
     /**
@@ -282,7 +369,23 @@ public class AdminDashboardController {
         membershipClientColumn.setCellValueFactory(new PropertyValueFactory<>("clientName"));
         membershipAmountColumn.setCellValueFactory(new PropertyValueFactory<>("amount"));
         membershipDateColumn.setCellValueFactory(new PropertyValueFactory<>("paymentDate"));
-        membershipsTable.setItems(memberships);
+        membershipPages = new PagedTable<>(membershipsTable, queries,
+                "mp.id, mp.amount, mp.payment_date, u.name AS client_name",
+                "membership_payments mp JOIN users u ON mp.client_id = u.id",
+                "mp.id",
+                rs -> new Membership(
+                        rs.getInt("id"),
+                        rs.getString("client_name"),
+                        rs.getDouble("amount"),
+                        rs.getDate("payment_date").toString()),
+                e -> showAlert("Błąd", "Błąd ładowania płatności: " + e.getMessage()))
+                .sortable(membershipClientColumn, "u.name")
+                .sortable(membershipAmountColumn, "mp.amount")
+                .sortable(membershipDateColumn, "mp.payment_date")
+                .sortedBy("mp.payment_date", false)
+                .filterable("u.name")
+                .executedOn(loadExecutor)
+                .bindFilter(membershipSearchField);
 
         // Transakcje
         transactionIdColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
@@ -290,109 +393,243 @@ public class AdminDashboardController {
         transactionProductColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
         transactionDateColumn.setCellValueFactory(new PropertyValueFactory<>("transactionDate"));
         transactionAmountColumn.setCellValueFactory(new PropertyValueFactory<>("amount"));
-        transactionsTable.setItems(transactions);
+        transactionPages = new PagedTable<>(transactionsTable, queries,
+                "t.id, u.name AS client_name, p.name AS product_name, t.transaction_date, t.amount",
+                "transactions t JOIN users u ON t.client_id = u.id JOIN products p ON t.product_id = p.id",
+                "t.id",
+                rs -> new Transaction(
+                        rs.getInt("id"),
+                        rs.getString("client_name"),
+                        rs.getString("product_name"),
+                        rs.getTimestamp("transaction_date").toLocalDateTime().toLocalDate().toString(),
+                        rs.getDouble("amount")),
+                e -> showAlert("Błąd", "Błąd ładowania transakcji: " + e.getMessage()))
+                .sortable(transactionIdColumn, "t.id")
+                .sortable(transactionClientColumn, "u.name")
+                .sortable(transactionProductColumn, "p.name")
+                .sortable(transactionDateColumn, "t.transaction_date")
+                .sortable(transactionAmountColumn, "t.amount")
+                .sortedBy("t.transaction_date", false)
+                .filterable("u.name", "p.name")
+                .executedOn(loadExecutor)
+                .bindFilter(transactionSearchField);
+
+        // Raporty
+        reportJobTitleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
+        reportJobSubmittedColumn.setCellValueFactory(cellData -> new SimpleStringProperty(
+                cellData.getValue().getSubmittedAt().format(DateTimeFormatter.ofPattern("HH:mm:ss"))));
+        reportJobStatusColumn.setCellValueFactory(cellData -> cellData.getValue().statusProperty());
+        reportJobProgressColumn.setCellValueFactory(cellData -> cellData.getValue().messageProperty());
+        reportJobFileColumn.setCellValueFactory(cellData ->
+                new SimpleStringProperty(cellData.getValue().getOutputFile().getAbsolutePath()));
+        reportJobsTable.setItems(ReportJobQueue.getInstance().getJobs());
     }
 
     /**
-     * Inicjalizuje wykres aktywności klientów na dashboard.
-     * Dodaje przykładowe dane przedstawiające aktywność w ciągu tygodnia.
+     * Inicjalizuje wykres aktywności użytkowników na dashboard.
+     * Zmiana zakresu w {@link #activityRangeCombo} ładuje wykres od nowa.
      */
     private void initChart() {
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Aktywność klientów");
-        series.getData().addAll(
-                new XYChart.Data<>("Pon", 65),
-                new XYChart.Data<>("Wt", 59),
-                new XYChart.Data<>("Śr", 80),
-                new XYChart.Data<>("Czw", 81),
-                new XYChart.Data<>("Pt", 56),
-                new XYChart.Data<>("Sob", 55),
-                new XYChart.Data<>("Nd", 40)
-        );
-        activityChart.getData().add(series);
+        activityData.setName("Aktywność użytkowników");
+        activityChart.getData().add(activityData);
+
+        activityRangeCombo.getItems().setAll(ActivityStats.Range.values());
+        activityRangeCombo.setValue(ActivityStats.Range.WEEK);
+        activityRangeCombo.valueProperty().addListener((obs, oldRange, newRange) -> {
+            if (newRange != null && newRange != activitySeries.getRange()) {
+                activitySeries = new ActivityStats.Series(newRange);
+                activityData.getData().clear();
+                sections.load(dashboardSection);
+            }
+        });
+    }
+
+    /**
+     * Odświeża wykres aktywności z godzinowego zestawienia ({@link ActivityStats}).
+     * Pobierane są tylko godziny od ostatnio odczytanej, więc odświeżenie
+     * nie zależy od rozmiaru dziennika aktywności.
+     *
+     * @return przyszłość ładowania
+     */
+    private CompletableFuture<?> loadActivityChart() {
+        ActivityStats.Series series = activitySeries;
+        return queries.track(null, bootstrapQuery("aktywność", series::refresh), daily -> {
+            if (series != activitySeries) {
+                return; // wynik dla poprzednio wybranego zakresu
+            }
+            List<XYChart.Data<String, Number>> points = new ArrayList<>();
+            daily.forEach((day, count) -> points.add(new XYChart.Data<>(activityLabel(series.getRange(), day), count)));
+            activityData.getData().setAll(points);
+        }, e -> showAlert("Błąd", "Błąd ładowania aktywności: " + e.getMessage()));
+    }
+
+    /**
+     * Zwraca etykietę dnia na osi wykresu aktywności: dzień tygodnia
+     * dla zakresu tygodniowego, data dla dłuższych zakresów.
+     */
+    private static String activityLabel(ActivityStats.Range range, LocalDate day) {
+        if (range == ActivityStats.Range.WEEK) {
+            return WEEKDAY_LABELS[day.getDayOfWeek().getValue() - 1];
+        }
+        return day.format(DAY_LABEL_FORMAT);
     }
 
     /**
      * Ładuje wszystkie dane z bazy danych.
-     * Wywołuje metody ładujące dane dla każdej sekcji aplikacji.
+     * Zapytania wszystkich sekcji uruchamiane są jednocześnie na wykonawcy
+     * ograniczonym do {@link #BOOTSTRAP_PARALLELISM} wątków, więc czas startu
+     * panelu wyznacza najwolniejsze zapytanie, a nie ich suma. Ładowanie odbywa
+     * się przez {@link #sections}, więc załadowane sekcje uznawane są za aktualne
+     * i przy ponownym wyświetleniu odświeżane dopiero po upływie okna ważności.
+     * Po zakończeniu wszystkich zapytań (jedyny punkt synchronizacji) pokazywany
+     * jest dashboard i wypisywane są czasy poszczególnych loaderów.
      */
     private void loadDataFromDatabase() {
-        loadUsers();
-        loadTrainings();
-        loadProducts();
+        long start = System.nanoTime();
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        bootstrapTimings = timings;
+        hideAllSections();
+
+        CompletableFuture<?>[] loaders = {
+                sections.load(dashboardSection),
+                sections.load(usersSection),
+                sections.load(trainingsSection),
+                sections.load(storeSection),
+                sections.load(membershipsSection),
+                sections.load(transactionsSection),
+                sections.load(reportsSection)
+        };
         loadEquipment();
-        loadMemberships();
-        loadTransactions();
+
+        // Zapytania uruchomione po tym miejscu (np. odświeżenie sekcji) nie są już mierzone
+        bootstrapTimings = null;
+
+        // Wyniki loaderów publikowane są na wątku JavaFX, więc allOf kończy się również na nim
+        CompletableFuture.allOf(loaders).whenComplete((ignored, error) -> {
+            if (activeSection == null) {
+                showDashboard();
+            }
+            logBootstrapTimings(timings, (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    /**
+     * Opakowuje zadanie startowe pomiarem czasu wykonania. Poza ładowaniem
+     * startowym ({@link #bootstrapTimings} równe null) zwraca zadanie bez zmian.
+     *
+     * @param loader nazwa loadera wypisywana w podsumowaniu
+     * @param task zadanie do wykonania
+     * @return zadanie zapisujące swój czas w {@link #bootstrapTimings}
+     */
+    private <T> Callable<T> timed(String loader, Callable<T> task) {
+        Map<String, Long> timings = bootstrapTimings;
+        if (timings == null) {
+            return task;
+        }
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                timings.put(loader, (System.nanoTime() - start) / 1_000_000);
+            }
+        };
+    }
+
+    /**
+     * Uruchamia zapytanie na wykonawcy panelu z pomiarem czasu.
+     *
+     * @param loader nazwa loadera wypisywana w podsumowaniu
+     * @param query zapytanie do wykonania
+     * @return przyszłość z wynikiem zapytania
+     */
+    private <T> CompletableFuture<T> bootstrapQuery(String loader, AsyncQueryExecutor.Query<T> query) {
+        return AsyncQueryExecutor.call(timed(loader, () -> AsyncQueryExecutor.execute(query)), loadExecutor);
+    }
+
+    /**
+     * Wypisuje czas ładowania panelu i czasy poszczególnych loaderów,
+     * od najwolniejszego.
+     *
+     * @param timings czasy loaderów w milisekundach
+     * @param totalMillis całkowity czas ładowania w milisekundach
+     */
+    private static void logBootstrapTimings(Map<String, Long> timings, long totalMillis) {
+        String details = timings.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .map(entry -> entry.getKey() + "=" + entry.getValue() + " ms")
+                .collect(Collectors.joining(", "));
+        System.out.println("Panel administratora załadowany w " + totalMillis + " ms [" + details + "]");
     }
 
     /**
      * Ładuje użytkowników z bazy danych.
      * Pobiera wszystkich użytkowników i dodaje ich do listy obserwowalnej.
      */
-    private void loadUsers() {
-        users.clear();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users");
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                users.add(new User(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getString("role")
-                ));
+    private CompletableFuture<?> loadUsers() {
+        return queries.track(usersTable, bootstrapQuery("użytkownicy", conn -> {
+            List<User> result = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users");
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    result.add(new User(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getString("email"),
+                            rs.getString("role")
+                    ));
+                }
             }
-        } catch (SQLException e) {
-            showAlert("Błąd", "Błąd ładowania użytkowników: " + e.getMessage());
-        }
+            return result;
+        }), users::setAll, e -> showAlert("Błąd", "Błąd ładowania użytkowników: " + e.getMessage()));
     }
 
     /**
      * Ładuje treningi z bazy danych.
      * Pobiera wszystkie żądania treningów i dodaje je do listy obserwowalnej.
      */
-    private void loadTrainings() {
-        trainings.clear();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM trainingrequests");
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                trainings.add(new Training(
-                        rs.getInt("id"),
-                        rs.getString("training_date"),
-                        rs.getString("notes"),
-                        "Jan Kowalski",
-                        "Anna Nowak"
-                ));
+    private CompletableFuture<?> loadTrainings() {
+        return queries.track(trainingsTable, bootstrapQuery("treningi", conn -> {
+            List<Training> result = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM trainingrequests");
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    result.add(new Training(
+                            rs.getInt("id"),
+                            rs.getString("training_date"),
+                            rs.getString("notes"),
+                            "Jan Kowalski",
+                            "Anna Nowak"
+                    ));
+                }
             }
-        } catch (SQLException e) {
-            showAlert("Błąd", "Błąd ładowania treningów: " + e.getMessage());
-        }
+            return result;
+        }), trainings::setAll, e -> showAlert("Błąd", "Błąd ładowania treningów: " + e.getMessage()));
     }
 
     /**
      * Ładuje produkty z bazy danych.
      * Pobiera wszystkie produkty sklepu i dodaje je do listy obserwowalnej.
      */
-    private void loadProducts() {
-        products.clear();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM products");
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                products.add(new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getDouble("price"),
-                        rs.getInt("stock")
-                ));
+    private CompletableFuture<?> loadProducts() {
+        return queries.track(productsTable, bootstrapQuery("produkty", conn -> {
+            List<Product> result = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM products");
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    result.add(new Product(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getDouble("price"),
+                            rs.getInt("stock")
+                    ));
+                }
             }
-        } catch (SQLException e) {
-            showAlert("Błąd", "Błąd ładowania produktów: " + e.getMessage());
-        }
+            return result;
+        }), products::setAll, e -> showAlert("Błąd", "Błąd ładowania produktów: " + e.getMessage()));
     }
 
     /**
@@ -410,63 +647,20 @@ public class AdminDashboardController {
 
     /**
      * Ładuje karnety z bazy danych.
-     * Pobiera wszystkie płatności za karnety wraz z danymi klientów.
+     * Pobiera pierwszą stronę płatności za karnety wraz z danymi klientów
+     * (od najnowszych); kolejne strony doładowywane są przy przewijaniu tabeli.
      */
-    private void loadMemberships() {
-        memberships.clear();
-        String query = """
-        SELECT mp.*, u.name AS client_name 
-        FROM membership_payments mp
-        JOIN users u ON mp.client_id = u.id
-        """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                memberships.add(new Membership(
-                        rs.getInt("id"),
-                        rs.getString("client_name"),
-                        rs.getDouble("amount"),
-                        rs.getDate("payment_date").toString()
-                ));
-            }
-        } catch (SQLException e) {
-            showAlert("Błąd", "Błąd ładowania płatności: " + e.getMessage());
-        }
+    private CompletableFuture<?> loadMemberships() {
+        return membershipPages.reload();
     }
 
     /**
      * Ładuje transakcje z bazy danych.
-     * Pobiera wszystkie transakcje wraz z danymi klientów i produktów.
+     * Pobiera pierwszą stronę transakcji wraz z danymi klientów i produktów
+     * (od najnowszych); kolejne strony doładowywane są przy przewijaniu tabeli.
      */
-    private void loadTransactions() {
-        transactions.clear();
-        String query = """
-            SELECT t.id, u.name AS client_name, p.name AS product_name, 
-                   t.transaction_date, t.amount 
-            FROM transactions t
-            JOIN users u ON t.client_id = u.id
-            JOIN products p ON t.product_id = p.id
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                transactions.add(new Transaction(
-                        rs.getInt("id"),
-                        rs.getString("client_name"),
-                        rs.getString("product_name"),
-                        rs.getTimestamp("transaction_date").toLocalDateTime().toLocalDate().toString(),
-                        rs.getDouble("amount")
-                ));
-            }
-        } catch (SQLException e) {
-            showAlert("Błąd", "Błąd ładowania transakcji: " + e.getMessage());
-        }
+    private CompletableFuture<?> loadTransactions() {
+        return transactionPages.reload();
     }
 
     // Metody nawigacji
@@ -494,6 +688,7 @@ public class AdminDashboardController {
 
     /**
      * Przełącza widok na określoną sekcję i aktywuje odpowiedni przycisk.
+     * Nieaktualne dane sekcji są odświeżane w tle.
      *
      * @param section sekcja do pokazania
      * @param button przycisk do oznaczenia jako aktywny
@@ -501,7 +696,9 @@ public class AdminDashboardController {
     private void toggleSection(VBox section, Button button) {
         hideAllSections();
         section.setVisible(true);
+        activeSection = section;
         setActiveButton(button);
+        sections.show(section);
     }
 
     /**
@@ -554,8 +751,8 @@ public class AdminDashboardController {
 
             if (file != null) {
                 String userEmail = getCurrentUserEmail();
-                ReportGenerator.generateFinancialReport(period, file, userEmail);
-                showAlert("Sukces", "Raport finansowy został wygenerowany!");
+                submitReport("Raport finansowy", file, (output, progress) ->
+                        ReportGenerator.generateFinancialReport(period, output, userEmail, progress));
             }
         } catch (Exception e) {
             showError("Błąd generowania raportu: " + e.getMessage());
@@ -565,7 +762,8 @@ public class AdminDashboardController {
 
     /**
      * Generuje raport produktów w formacie PDF.
-     * Uwzględnia filtr produktu jeśli został wybrany.
+     * Uwzględnia filtr produktu jeśli został wybrany, a szczegółową listę
+     * transakcji dołącza tylko po zaznaczeniu odpowiedniej opcji.
      */
     @FXML
     private void generateProductsReport() {
@@ -573,6 +771,7 @@ public class AdminDashboardController {
             String period = getPeriodString();
             String selectedProduct = productFilterCombo != null ?
                     productFilterCombo.getSelectionModel().getSelectedItem() : "Wszystkie";
+            boolean includeDetails = productDetailsCheckBox != null && productDetailsCheckBox.isSelected();
 
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Zapisz Raport Produktów");
@@ -587,8 +786,9 @@ public class AdminDashboardController {
 
             if (file != null) {
                 String userEmail = getCurrentUserEmail();
-                ReportGenerator.generateProductsReport(period, file, userEmail, selectedProduct);
-                showAlert("Sukces", "Raport produktów został wygenerowany!");
+                submitReport("Raport produktów", file, (output, progress) ->
+                        ReportGenerator.generateProductsReport(period, output, userEmail, selectedProduct,
+                                includeDetails, progress));
             }
         } catch (Exception e) {
             showError("Błąd generowania raportu: " + e.getMessage());
@@ -614,8 +814,8 @@ public class AdminDashboardController {
 
             if (file != null) {
                 String userEmail = getCurrentUserEmail();
-                ReportGenerator.generateMembershipReport(period, file, userEmail);
-                showAlert("Sukces", "Raport karnetów został wygenerowany!");
+                submitReport("Raport karnetów", file, (output, progress) ->
+                        ReportGenerator.generateMembershipReport(period, output, userEmail, progress));
             }
         } catch (Exception e) {
             showError("Błąd generowania raportu: " + e.getMessage());
@@ -641,8 +841,8 @@ public class AdminDashboardController {
 
             if (file != null) {
                 String userEmail = getCurrentUserEmail();
-                ReportGenerator.generateTransactionsReport(period, file, userEmail);
-                showAlert("Sukces", "Raport transakcji został wygenerowany!");
+                submitReport("Raport transakcji", file, (output, progress) ->
+                        ReportGenerator.generateTransactionsReport(period, output, userEmail, progress));
             }
         } catch (Exception e) {
             showError("Błąd generowania raportu: " + e.getMessage());
@@ -650,6 +850,48 @@ public class AdminDashboardController {
         }
     }
 
+    /**
+     * Dodaje raport do wspólnej kolejki raportów ({@link ReportJobQueue}).
+     * Metoda wraca od razu - raport generowany jest w tle, jego postęp widoczny
+     * jest w tabeli ostatnich raportów, a po zakończeniu wyświetlany jest
+     * komunikat o sukcesie lub błędzie.
+     *
+     * @param title nazwa raportu
+     * @param file plik docelowy raportu
+     * @param generator generowanie raportu
+     */
+    private void submitReport(String title, File file, ReportJob.Generator generator) {
+        ReportJob job = ReportJobQueue.getInstance().submit(title, file, generator);
+        job.setOnSucceeded(event -> {
+            ActivityLog.getInstance().log(userId, "Wygenerowanie raportu: " + title);
+            showAlert("Sukces", title + " został wygenerowany!");
+        });
+        job.setOnFailed(event -> {
+            Throwable error = job.getException();
+            showError("Błąd generowania raportu: " + error.getMessage());
+            error.printStackTrace();
+        });
+    }
+
+    /**
+     * Anuluje raport zaznaczony w tabeli ostatnich raportów.
+     * Raport oczekujący w kolejce nie zostanie uruchomiony, a generowany
+     * raport zostanie przerwany, a jego niedokończony plik usunięty.
+     */
+    @FXML
+    private void cancelReportJob() {
+        ReportJob job = reportJobsTable.getSelectionModel().getSelectedItem();
+        if (job == null) {
+            showError("Wybierz raport do anulowania");
+            return;
+        }
+        if (job.isDone()) {
+            showError("Raport został już zakończony");
+            return;
+        }
+        job.cancel();
+    }
+
     /**
      * Pobiera string reprezentujący wybrany okres czasowy dla raportów.
      *
@@ -716,11 +958,22 @@ public class AdminDashboardController {
         alert.showAndWait();
     }
 
+    /**
+     * Przerywa ładowanie danych panelu i zamyka jego wykonawcę zapytań.
+     * Wywoływana przy wylogowaniu oraz przy porzuceniu panelu przygotowanego
+     * z wyprzedzeniem ({@link DashboardPreloader#dispose}).
+     */
+    void dispose() {
+        queries.cancelAll();
+        loadExecutor.shutdownNow();
+    }
+
     /**
      * Wylogowuje użytkownika i powraca do ekranu logowania.
      */
     @FXML
     private void logout() {
+        dispose();
         try {
             Stage stage = (Stage) dashboardBtn.getScene().getWindow();
             Parent root = FXMLLoader.load(getClass().getResource("login.fxml"));
@@ -781,32 +1034,42 @@ public class AdminDashboardController {
         Optional<User> result = dialog.showAndWait();
 
         result.ifPresent(user -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                if (conn != null) {
-                    String query = "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, ?)";
-                    PreparedStatement stmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
-                    stmt.setString(1, user.getName());
-                    stmt.setString(2, user.getEmail());
-                    stmt.setString(3, passwordField.getText());
-                    stmt.setString(4, user.getRole());
-
-                    int affectedRows = stmt.executeUpdate();
-
-                    if (affectedRows > 0) {
-                        ResultSet rs = stmt.getGeneratedKeys();
-                        if (rs.next()) {
-                            user.setId(rs.getInt(1));
-                        }
-                        users.add(user);
-                        showAlert("Sukces", "Użytkownik został dodany.");
-                    }
+            String password = passwordField.getText();
+            writes.submit(null, conn -> {
+                String query = "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, ?)";
+                PreparedStatement stmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
+                stmt.setString(1, user.getName());
+                stmt.setString(2, user.getEmail());
+                stmt.setString(3, PasswordHasher.hash(password));
+                stmt.setString(4, user.getRole());
+
+                // Użytkownik i znacznik zmiany dla katalogu użytkowników zapisywane razem
+                conn.setAutoCommit(false);
+                if (stmt.executeUpdate() == 0) {
+                    return false;
+                }
+                ResultSet rs = stmt.getGeneratedKeys();
+                if (rs.next()) {
+                    // Użytkownik nie jest jeszcze wyświetlany w tabeli
+                    user.setId(rs.getInt(1));
+                    UserDirectory.recordChange(conn, user.getId());
+                }
+                conn.commit();
+                return true;
+            }, added -> {
+                if (!added) {
+                    return;
                 }
-            } catch (SQLException e) {
+                UserDirectory.getInstance().refresh();
+                users.add(user);
+                ActivityLog.getInstance().log(userId, "Dodanie użytkownika: " + user.getEmail());
+                showAlert("Sukces", "Użytkownik został dodany.");
+            }, e -> {
                 System.err.println("Błąd podczas dodawania użytkownika: " + e.getMessage());
                 user.setId(users.size() + 1);
                 users.add(user);
                 showAlert("Uwaga", "Użytkownik został dodany lokalnie, ale wystąpił problem z bazą danych.");
-            }
+            });
         });
     }
 
@@ -862,26 +1125,32 @@ public class AdminDashboardController {
 
         Optional<User> result = dialog.showAndWait();
 
-        result.ifPresent(editedUser -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE users SET name = ?, email = ?, role = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, editedUser.getName());
-                stmt.setString(2, editedUser.getEmail());
-                stmt.setString(3, editedUser.getRole());
-                stmt.setInt(4, editedUser.getId());
-
-                if (stmt.executeUpdate() > 0) {
-                    selectedUser.setName(editedUser.getName());
-                    selectedUser.setEmail(editedUser.getEmail());
-                    selectedUser.setRole(editedUser.getRole());
-                    usersTable.refresh();
-                    showAlert("Sukces", "Dane użytkownika zostały zaktualizowane");
-                }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się zaktualizować użytkownika: " + e.getMessage());
+        result.ifPresent(editedUser -> writes.submit(null, conn -> {
+            String query = "UPDATE users SET name = ?, email = ?, role = ? WHERE id = ?";
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, editedUser.getName());
+            stmt.setString(2, editedUser.getEmail());
+            stmt.setString(3, editedUser.getRole());
+            stmt.setInt(4, editedUser.getId());
+
+            conn.setAutoCommit(false);
+            if (stmt.executeUpdate() == 0) {
+                return false;
             }
-        });
+            UserDirectory.recordChange(conn, editedUser.getId());
+            conn.commit();
+            return true;
+        }, updated -> {
+            if (updated) {
+                UserDirectory.getInstance().refresh();
+                selectedUser.setName(editedUser.getName());
+                selectedUser.setEmail(editedUser.getEmail());
+                selectedUser.setRole(editedUser.getRole());
+                usersTable.refresh();
+                ActivityLog.getInstance().log(userId, "Edycja użytkownika: " + editedUser.getEmail());
+                showAlert("Sukces", "Dane użytkownika zostały zaktualizowane");
+            }
+        }, e -> showAlert("Błąd", "Nie udało się zaktualizować użytkownika: " + e.getMessage())));
     }
 
     /**
@@ -902,18 +1171,27 @@ public class AdminDashboardController {
 
         Optional<ButtonType> result = confirmation.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try (Connection conn = DatabaseConnection.getConnection()) {
+            int selectedId = selectedUser.getId();
+            writes.submit(null, conn -> {
                 String query = "DELETE FROM users WHERE id = ?";
                 PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setInt(1, selectedUser.getId());
+                stmt.setInt(1, selectedId);
 
-                if (stmt.executeUpdate() > 0) {
+                conn.setAutoCommit(false);
+                if (stmt.executeUpdate() == 0) {
+                    return false;
+                }
+                UserDirectory.recordChange(conn, selectedId);
+                conn.commit();
+                return true;
+            }, deleted -> {
+                if (deleted) {
+                    UserDirectory.getInstance().refresh();
                     users.remove(selectedUser);
+                    ActivityLog.getInstance().log(userId, "Usunięcie użytkownika: " + selectedUser.getEmail());
                     showAlert("Sukces", "Użytkownik został usunięty");
                 }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się usunąć użytkownika: " + e.getMessage());
-            }
+            }, e -> showAlert("Błąd", "Nie udało się usunąć użytkownika: " + e.getMessage()));
         }
     }
 
@@ -967,33 +1245,33 @@ public class AdminDashboardController {
 
         Optional<Product> result = dialog.showAndWait();
 
-        result.ifPresent(product -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                if (conn != null) {
-                    String query = "INSERT INTO products (name, price, stock) VALUES (?, ?, ?)";
-                    PreparedStatement stmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
-                    stmt.setString(1, product.getName());
-                    stmt.setDouble(2, product.getPrice());
-                    stmt.setInt(3, product.getStock());
-
-                    int affectedRows = stmt.executeUpdate();
-
-                    if (affectedRows > 0) {
-                        ResultSet rs = stmt.getGeneratedKeys();
-                        if (rs.next()) {
-                            product.setId(rs.getInt(1));
-                        }
-                        products.add(product);
-                        showAlert("Sukces", "Produkt został dodany.");
-                    }
-                }
-            } catch (SQLException e) {
-                System.err.println("Błąd podczas dodawania produktu: " + e.getMessage());
-                product.setId(products.size() + 1);
+        result.ifPresent(product -> writes.submit(null, conn -> {
+            String query = "INSERT INTO products (name, price, stock) VALUES (?, ?, ?)";
+            PreparedStatement stmt = conn.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, product.getName());
+            stmt.setDouble(2, product.getPrice());
+            stmt.setInt(3, product.getStock());
+
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (rs.next()) {
+                // Produkt nie jest jeszcze wyświetlany w tabeli
+                product.setId(rs.getInt(1));
+            }
+            return true;
+        }, added -> {
+            if (added) {
                 products.add(product);
-                showAlert("Uwaga", "Produkt został dodany lokalnie, ale wystąpił problem z bazą danych.");
+                showAlert("Sukces", "Produkt został dodany.");
             }
-        });
+        }, e -> {
+            System.err.println("Błąd podczas dodawania produktu: " + e.getMessage());
+            product.setId(products.size() + 1);
+            products.add(product);
+            showAlert("Uwaga", "Produkt został dodany lokalnie, ale wystąpił problem z bazą danych.");
+        }));
     }
 
     /**
@@ -1062,24 +1340,22 @@ public class AdminDashboardController {
 
         Optional<String> result = dialog.showAndWait();
 
-        result.ifPresent(newPassword -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE users SET password = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-
-                String hashedPassword = BCrypt.hashpw(newPassword, BCrypt.gensalt());
-                stmt.setString(1, hashedPassword);
-                stmt.setInt(2, selectedUser.getId());
-
-                if (stmt.executeUpdate() > 0) {
-                    showAlert("Sukces", "Hasło zostało zmienione");
-                } else {
-                    showAlert("Błąd", "Nie udało się zmienić hasła");
-                }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Błąd bazy danych: " + e.getMessage());
+        int selectedId = selectedUser.getId();
+        result.ifPresent(newPassword -> writes.submit(null, conn -> {
+            String query = "UPDATE users SET password = ? WHERE id = ?";
+            PreparedStatement stmt = conn.prepareStatement(query);
+
+            String hashedPassword = PasswordHasher.hash(newPassword);
+            stmt.setString(1, hashedPassword);
+            stmt.setInt(2, selectedId);
+            return stmt.executeUpdate() > 0;
+        }, changed -> {
+            if (changed) {
+                showAlert("Sukces", "Hasło zostało zmienione");
+            } else {
+                showAlert("Błąd", "Nie udało się zmienić hasła");
             }
-        });
+        }, e -> showAlert("Błąd", "Błąd bazy danych: " + e.getMessage())));
     }
 
     /**
@@ -1121,22 +1397,20 @@ public class AdminDashboardController {
 
         Optional<LocalDate> result = dialog.showAndWait();
 
-        result.ifPresent(newDate -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE trainingrequests SET training_date = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, newDate.toString());
-                stmt.setInt(2, selectedTraining.getId());
-
-                if (stmt.executeUpdate() > 0) {
-                    selectedTraining.setTrainingDate(newDate.toString());
-                    trainingsTable.refresh();
-                    showAlert("Sukces", "Data treningu została zmieniona");
-                }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się zaktualizować daty: " + e.getMessage());
+        int trainingId = selectedTraining.getId();
+        result.ifPresent(newDate -> writes.submit(null, conn -> {
+            String query = "UPDATE trainingrequests SET training_date = ? WHERE id = ?";
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, newDate.toString());
+            stmt.setInt(2, trainingId);
+            return stmt.executeUpdate() > 0;
+        }, updated -> {
+            if (updated) {
+                selectedTraining.setTrainingDate(newDate.toString());
+                trainingsTable.refresh();
+                showAlert("Sukces", "Data treningu została zmieniona");
             }
-        });
+        }, e -> showAlert("Błąd", "Nie udało się zaktualizować daty: " + e.getMessage())));
     }
 
     /**
@@ -1178,27 +1452,26 @@ public class AdminDashboardController {
 
         Optional<String> result = dialog.showAndWait();
 
-        result.ifPresent(newNotes -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE trainingrequests SET notes = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, newNotes);
-                stmt.setInt(2, selectedTraining.getId());
-
-                if (stmt.executeUpdate() > 0) {
-                    selectedTraining.setNotes(newNotes);
-                    trainingsTable.refresh();
-                    showAlert("Sukces", "Notatki zostały zaktualizowane");
-                }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się zaktualizować notatek: " + e.getMessage());
+        int trainingId = selectedTraining.getId();
+        result.ifPresent(newNotes -> writes.submit(null, conn -> {
+            String query = "UPDATE trainingrequests SET notes = ? WHERE id = ?";
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, newNotes);
+            stmt.setInt(2, trainingId);
+            return stmt.executeUpdate() > 0;
+        }, updated -> {
+            if (updated) {
+                selectedTraining.setNotes(newNotes);
+                trainingsTable.refresh();
+                showAlert("Sukces", "Notatki zostały zaktualizowane");
             }
-        });
+        }, e -> showAlert("Błąd", "Nie udało się zaktualizować notatek: " + e.getMessage())));
     }
 
     /**
      * Otwiera dialog zmiany trenera dla wybranego treningu.
-     * Ładuje listę dostępnych trenerów z bazy danych.
+     * Lista dostępnych trenerów pochodzi z katalogu użytkowników
+     * (odświeżanego przyrostowo przy otwarciu dialogu).
      */
     @FXML
     private void changeTrainingTrainer() {
@@ -1208,27 +1481,24 @@ public class AdminDashboardController {
             return;
         }
 
-        Dialog<String> dialog = new Dialog<>();
+        Dialog<UserDirectory.Entry> dialog = new Dialog<>();
         dialog.setTitle("Zmiana trenera");
         dialog.setHeaderText("Zmiana trenera dla: " + selectedTraining.getClientName());
 
         ButtonType saveButton = new ButtonType("Zapisz", ButtonBar.ButtonData.OK_DONE);
         dialog.getDialogPane().getButtonTypes().addAll(saveButton, ButtonType.CANCEL);
 
-        ComboBox<String> trainerComboBox = new ComboBox<>();
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT name FROM users WHERE role = 'trainer'");
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                trainerComboBox.getItems().add(rs.getString("name"));
+        UserDirectory directory = UserDirectory.getInstance();
+        ComboBox<UserDirectory.Entry> trainerComboBox = new ComboBox<>(directory.entries(UserDirectory.TRAINER));
+        selectTrainer(trainerComboBox, selectedTraining.getTrainerName());
+        // Lista uzupełni się po odświeżeniu katalogu (przy pierwszym użyciu - po wczytaniu)
+        directory.refresh().whenComplete((ignored, error) -> {
+            if (error != null) {
+                showAlert("Błąd", "Błąd ładowania trenerów: " + error.getMessage());
+            } else if (trainerComboBox.getValue() == null) {
+                selectTrainer(trainerComboBox, selectedTraining.getTrainerName());
             }
-        } catch (SQLException e) {
-            showAlert("Błąd", "Błąd ładowania trenerów: " + e.getMessage());
-        }
-
-        trainerComboBox.setValue(selectedTraining.getTrainerName());
+        });
 
         GridPane grid = new GridPane();
         grid.setHgap(10);
@@ -1245,35 +1515,30 @@ public class AdminDashboardController {
             return null;
         });
 
-        Optional<String> result = dialog.showAndWait();
-
-        result.ifPresent(newTrainer -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "SELECT id FROM users WHERE name = ? AND role = 'trainer'";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, newTrainer);
-                ResultSet rs = stmt.executeQuery();
-
-                if (rs.next()) {
-                    int trainerId = rs.getInt("id");
-
-                    String updateQuery = "UPDATE trainingrequests SET trainer_id = ? WHERE id = ?";
-                    PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
-                    updateStmt.setInt(1, trainerId);
-                    updateStmt.setInt(2, selectedTraining.getId());
-
-                    if (updateStmt.executeUpdate() > 0) {
-                        selectedTraining.setTrainerName(newTrainer);
-                        trainingsTable.refresh();
-                        showAlert("Sukces", "Trener został zmieniony");
-                    }
-                } else {
-                    showAlert("Błąd", "Nie znaleziono trenera o podanej nazwie");
-                }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się zmienić trenera: " + e.getMessage());
+        Optional<UserDirectory.Entry> result = dialog.showAndWait();
+
+        int trainingId = selectedTraining.getId();
+        result.ifPresent(newTrainer -> writes.submit(null, conn -> {
+            String updateQuery = "UPDATE trainingrequests SET trainer_id = ? WHERE id = ?";
+            PreparedStatement updateStmt = conn.prepareStatement(updateQuery);
+            updateStmt.setInt(1, newTrainer.id());
+            updateStmt.setInt(2, trainingId);
+            return updateStmt.executeUpdate() > 0;
+        }, updated -> {
+            if (updated) {
+                selectedTraining.setTrainerName(newTrainer.name());
+                trainingsTable.refresh();
+                showAlert("Sukces", "Trener został zmieniony");
             }
-        });
+        }, e -> showAlert("Błąd", "Nie udało się zmienić trenera: " + e.getMessage())));
+    }
+
+    /** Zaznacza na liście trenera o podanej nazwie (np. obecnego trenera treningu). */
+    private static void selectTrainer(ComboBox<UserDirectory.Entry> comboBox, String trainerName) {
+        comboBox.getItems().stream()
+                .filter(entry -> entry.name().equals(trainerName))
+                .findFirst()
+                .ifPresent(comboBox::setValue);
     }
 
     /**
@@ -1320,22 +1585,15 @@ public class AdminDashboardController {
 
         Optional<Double> result = dialog.showAndWait();
 
-        result.ifPresent(newAmount -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE membership_payments SET amount = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setDouble(1, newAmount);
-                stmt.setInt(2, selectedMembership.getId());
-
-                if (stmt.executeUpdate() > 0) {
-                    selectedMembership.setAmount(newAmount);
-                    membershipsTable.refresh();
-                    showAlert("Sukces", "Kwota karnetu została zmieniona");
-                }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się zmienić kwoty: " + e.getMessage());
+        int membershipId = selectedMembership.getId();
+        result.ifPresent(newAmount -> writes.submit(null,
+                conn -> updateMembershipPayment(conn, membershipId, BigDecimal.valueOf(newAmount), null), updated -> {
+            if (updated) {
+                selectedMembership.setAmount(newAmount);
+                membershipsTable.refresh();
+                showAlert("Sukces", "Kwota karnetu została zmieniona");
             }
-        });
+        }, e -> showAlert("Błąd", "Nie udało się zmienić kwoty: " + e.getMessage())));
     }
 
     /**
@@ -1377,22 +1635,59 @@ public class AdminDashboardController {
 
         Optional<LocalDate> result = dialog.showAndWait();
 
-        result.ifPresent(newDate -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE membership_payments SET payment_date = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setDate(1, java.sql.Date.valueOf(newDate));
-                stmt.setInt(2, selectedMembership.getId());
+        int membershipId = selectedMembership.getId();
+        result.ifPresent(newDate -> writes.submit(null,
+                conn -> updateMembershipPayment(conn, membershipId, null, newDate.atStartOfDay()), updated -> {
+            if (updated) {
+                selectedMembership.setPaymentDate(newDate.toString());
+                membershipsTable.refresh();
+                showAlert("Sukces", "Data karnetu została zmieniona");
+            }
+        }, e -> showAlert("Błąd", "Nie udało się zmienić daty: " + e.getMessage())));
+    }
 
-                if (stmt.executeUpdate() > 0) {
-                    selectedMembership.setPaymentDate(newDate.toString());
-                    membershipsTable.refresh();
-                    showAlert("Sukces", "Data karnetu została zmieniona");
+    /**
+     * Zmienia kwotę lub datę płatności za karnet i przenosi ją w zestawieniu
+     * przychodów ({@link RevenueRollup}) w jednej transakcji: dotychczasowa kwota
+     * odejmowana jest od dotychczasowego dnia, a nowa doliczana do nowego.
+     *
+     * @param conn połączenie z bazą danych
+     * @param membershipId identyfikator płatności
+     * @param newAmount nowa kwota lub null, jeśli bez zmian
+     * @param newDate nowa data lub null, jeśli bez zmian
+     * @return true, jeśli płatność została zmieniona; false, jeśli nie istnieje
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    private static boolean updateMembershipPayment(Connection conn, int membershipId, BigDecimal newAmount,
+                                                   LocalDateTime newDate) throws SQLException {
+        conn.setAutoCommit(false);
+        LocalDateTime oldDate;
+        BigDecimal oldAmount;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT payment_date, amount FROM membership_payments WHERE id = ? FOR UPDATE")) {
+            stmt.setInt(1, membershipId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
                 }
-            } catch (SQLException e) {
-                showAlert("Błąd", "Nie udało się zmienić daty: " + e.getMessage());
+                oldDate = rs.getTimestamp("payment_date").toLocalDateTime();
+                oldAmount = rs.getBigDecimal("amount");
             }
-        });
+        }
+        LocalDateTime date = newDate != null ? newDate : oldDate;
+        BigDecimal amount = newAmount != null ? newAmount : oldAmount;
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE membership_payments SET amount = ?, payment_date = ? WHERE id = ?")) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setTimestamp(2, Timestamp.valueOf(date));
+            stmt.setInt(3, membershipId);
+            stmt.executeUpdate();
+        }
+        RevenueRollup.removeMembershipPayment(conn, oldDate, oldAmount);
+        RevenueRollup.recordMembershipPayment(conn, date, amount);
+        conn.commit();
+        return true;
     }
 
     /**
@@ -0,0 +1,135 @@
+package com.example.silowniaprojekt;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchroniczny wykonawca zapytań do bazy danych.
+ *
+ * Każde zapytanie uruchamiane jest na osobnym wątku wirtualnym, dzięki czemu
+ * operacje JDBC nie blokują wątku aplikacji JavaFX. Wynik zwracany jest jako
+ * {@link CompletableFuture}; anulowanie przyszłości przerywa wątek wykonujący
+ * zapytanie (np. oczekujący na wolne połączenie w puli).
+ *
+ * Publikowaniem wyników w interfejsie użytkownika zajmuje się {@link QueryScope}.
+ */
+public final class AsyncQueryExecutor {
+
+    /**
+     * Zapytanie wykonywane na połączeniu wydanym z puli.
+     * Połączenie jest zamykane (zwracane do puli) po zakończeniu zapytania.
+     *
+     * @param <T> typ wyniku zapytania
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        /**
+         * Wykonuje zapytanie.
+         *
+         * @param conn połączenie z bazą danych
+         * @return wynik zapytania
+         * @throws SQLException w przypadku błędu bazy danych
+         */
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /** Wykonawca oparty na wątkach wirtualnych - jeden wątek na zapytanie. */
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncQueryExecutor() {
+    }
+
+    /**
+     * Uruchamia zapytanie w tle na połączeniu pobranym z {@link DatabaseConnection}.
+     *
+     * @param query zapytanie do wykonania
+     * @param <T> typ wyniku zapytania
+     * @return przyszłość z wynikiem zapytania lub wyjątkiem {@link SQLException}
+     */
+    public static <T> CompletableFuture<T> supply(Query<T> query) {
+        return supply(query, EXECUTOR);
+    }
+
+    /**
+     * Uruchamia zapytanie w tle na wskazanym wykonawcy, np. o ograniczonej
+     * liczbie wątków, gdy wiele zapytań startuje jednocześnie.
+     *
+     * @param query zapytanie do wykonania
+     * @param executor wykonawca, na którym zostanie uruchomione zapytanie
+     * @param <T> typ wyniku zapytania
+     * @return przyszłość z wynikiem zapytania lub wyjątkiem {@link SQLException}
+     */
+    public static <T> CompletableFuture<T> supply(Query<T> query, ExecutorService executor) {
+        return call(() -> execute(query), executor);
+    }
+
+    /**
+     * Wykonuje zapytanie synchronicznie w bieżącym wątku na połączeniu z puli.
+     * Przeznaczona do użycia wewnątrz operacji już uruchomionych w tle.
+     *
+     * @param query zapytanie do wykonania
+     * @param <T> typ wyniku zapytania
+     * @return wynik zapytania
+     * @throws SQLException gdy nie udało się uzyskać połączenia lub zapytanie się nie powiodło
+     */
+    public static <T> T execute(Query<T> query) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("Brak połączenia z bazą danych");
+            }
+            return query.execute(conn);
+        }
+    }
+
+    /**
+     * Uruchamia dowolną operację w tle (np. kilka zapytań lub generowanie pliku).
+     *
+     * @param task operacja do wykonania
+     * @param <T> typ wyniku operacji
+     * @return przyszłość z wynikiem operacji
+     */
+    public static <T> CompletableFuture<T> call(Callable<T> task) {
+        return call(task, EXECUTOR);
+    }
+
+    /**
+     * Uruchamia dowolną operację w tle na wskazanym wykonawcy.
+     *
+     * @param task operacja do wykonania
+     * @param executor wykonawca, na którym zostanie uruchomiona operacja
+     * @param <T> typ wyniku operacji
+     * @return przyszłość z wynikiem operacji
+     */
+    public static <T> CompletableFuture<T> call(Callable<T> task, ExecutorService executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Zatrzymuje wykonawcę, przerywając trwające zapytania.
+     * Wywoływana przy zamykaniu aplikacji.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.silowniaprojekt;
+
+import com.example.silowniaprojekt.ClientDashboardController.ClientActivity;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historia aktywności finansowych klienta (zakupy, płatności za karnety
+ * i za treningi) pobierana stronami.
+ *
+ * Każda strona to jedno zapytanie {@code UNION ALL} po trzech tabelach
+ * płatności, posortowane od najnowszych. Kolejna strona zaczyna się za ostatnią
+ * aktywnością poprzedniej ({@link Cursor}, paginacja kluczem), więc koszt
+ * pobrania strony nie zależy od długości historii - każda gałąź zapytania
+ * odczytuje z indeksu {@code (client_id, data)} najwyżej jedną stronę wierszy.
+ */
+public final class ClientActivityFeed {
+
+    /** Liczba aktywności na stronie. */
+    public static final int PAGE_SIZE = 50;
+
+    /**
+     * Rodzaj aktywności. Kolejność wyznacza porządek aktywności z tą samą datą.
+     */
+    private enum Kind {
+        TRAINING_PAYMENT("Płatność za Trening"),
+        MEMBERSHIP_PAYMENT("Płatność za karnet"),
+        PURCHASE("Transakcja");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Pozycja ostatniej pobranej aktywności; kolejna strona zawiera aktywności
+     * starsze niż ta pozycja w porządku (data, rodzaj, id) malejąco.
+     *
+     * @param date data aktywności
+     * @param kind numer rodzaju aktywności
+     * @param id identyfikator wiersza w tabeli rodzaju
+     */
+    public record Cursor(Timestamp date, int kind, int id) {
+    }
+
+    /**
+     * Strona historii aktywności.
+     *
+     * @param activities aktywności od najnowszej
+     * @param next pozycja, od której zaczyna się kolejna strona
+     * @param hasMore true, jeśli mogą istnieć starsze aktywności
+     */
+    public record Page(List<ClientActivity> activities, Cursor next, boolean hasMore) {
+    }
+
+    private static final String PURCHASES_SQL = """
+            SELECT %d AS kind, t.id, t.transaction_date AS activity_date, t.amount, p.name AS details
+            FROM transactions t
+            JOIN products p ON t.product_id = p.id
+            WHERE t.client_id = ? %s
+            ORDER BY t.transaction_date DESC, t.id DESC
+            LIMIT ?
+            """;
+
+    private static final String MEMBERSHIP_PAYMENTS_SQL = """
+            SELECT %d AS kind, mp.id, mp.payment_date AS activity_date, mp.amount, NULL AS details
+            FROM membership_payments mp
+            WHERE mp.client_id = ? %s
+            ORDER BY mp.payment_date DESC, mp.id DESC
+            LIMIT ?
+            """;
+
+    private static final String TRAINING_PAYMENTS_SQL = """
+            SELECT %d AS kind, trp.id, trp.payment_date AS activity_date, trp.amount, r.notes AS details
+            FROM training_request_payments trp
+            JOIN trainingrequests tr ON trp.training_request_id = tr.id
+            JOIN reports r ON tr.report = r.id
+            WHERE r.client_id = ? %s
+            ORDER BY trp.payment_date DESC, trp.id DESC
+            LIMIT ?
+            """;
+
+    private ClientActivityFeed() {
+    }
+
+    /**
+     * Pobiera stronę historii aktywności klienta.
+     *
+     * @param conn połączenie z bazą danych
+     * @param clientId identyfikator klienta
+     * @param after pozycja ostatniej pobranej aktywności lub null dla pierwszej strony
+     * @param limit maksymalna liczba aktywności na stronie
+     * @return strona aktywności
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static Page fetch(Connection conn, int clientId, Cursor after, int limit) throws SQLException {
+        String sql = "SELECT kind, id, activity_date, amount, details FROM (\n"
+                + "(" + branch(PURCHASES_SQL, Kind.PURCHASE, "t.transaction_date", "t.id", after) + ")\n"
+                + "UNION ALL\n"
+                + "(" + branch(MEMBERSHIP_PAYMENTS_SQL, Kind.MEMBERSHIP_PAYMENT, "mp.payment_date", "mp.id", after) + ")\n"
+                + "UNION ALL\n"
+                + "(" + branch(TRAINING_PAYMENTS_SQL, Kind.TRAINING_PAYMENT, "trp.payment_date", "trp.id", after) + ")\n"
+                + ") feed\n"
+                + "ORDER BY activity_date DESC, kind DESC, id DESC\n"
+                + "LIMIT ?";
+
+        List<ClientActivity> activities = new ArrayList<>();
+        Cursor last = after;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Kind kind : new Kind[]{Kind.PURCHASE, Kind.MEMBERSHIP_PAYMENT, Kind.TRAINING_PAYMENT}) {
+                stmt.setInt(index++, clientId);
+                index = bindKeyset(stmt, index, kind, after);
+                stmt.setInt(index++, limit);
+            }
+            stmt.setInt(index, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Kind kind = Kind.values()[rs.getInt("kind")];
+                    Timestamp date = rs.getTimestamp("activity_date");
+                    activities.add(new ClientActivity(kind.label, describe(kind, rs.getString("details")),
+                            rs.getBigDecimal("amount"), date, "Zakończona"));
+                    last = new Cursor(date, kind.ordinal(), rs.getInt("id"));
+                }
+            }
+        }
+        return new Page(activities, last, activities.size() == limit);
+    }
+
+    /**
+     * Wstawia warunek klucza do zapytania gałęzi. Rodzaj gałęzi jest stały,
+     * więc porównanie (data, rodzaj, id) sprowadza się do warunku na dacie
+     * i ewentualnie id, który może korzystać z indeksu {@code (client_id, data)}.
+     */
+    private static String branch(String template, Kind kind, String dateColumn, String idColumn, Cursor after) {
+        String keyset;
+        if (after == null) {
+            keyset = "";
+        } else if (kind.ordinal() < after.kind()) {
+            keyset = "AND " + dateColumn + " <= ?";
+        } else if (kind.ordinal() > after.kind()) {
+            keyset = "AND " + dateColumn + " < ?";
+        } else {
+            keyset = "AND (" + dateColumn + " < ? OR (" + dateColumn + " = ? AND " + idColumn + " < ?))";
+        }
+        return template.formatted(kind.ordinal(), keyset);
+    }
+
+    /** Ustawia parametry warunku klucza wstawionego przez {@link #branch}. */
+    private static int bindKeyset(PreparedStatement stmt, int index, Kind kind, Cursor after) throws SQLException {
+        if (after == null) {
+            return index;
+        }
+        stmt.setTimestamp(index++, after.date());
+        if (kind.ordinal() == after.kind()) {
+            stmt.setTimestamp(index++, after.date());
+            stmt.setInt(index++, after.id());
+        }
+        return index;
+    }
+
+    private static String describe(Kind kind, String details) {
+        return switch (kind) {
+            case PURCHASE -> "Zakup: " + details;
+            case MEMBERSHIP_PAYMENT -> "Opłata za karnet";
+            case TRAINING_PAYMENT -> details != null && !details.isEmpty()
+                    ? "Płatność za trening indywidualny (" + details + ")"
+                    : "Płatność za trening indywidualny";
+        };
+    }
+}
@@ -24,7 +24,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.time.format.DateTimeFormatter; // Dodane dla formatowania daty/czasu
 
 /**
@@ -49,6 +52,7 @@ public class ClientDashboardController {
 
     // Panel sklepu
     @FXML private Label cartCounterLabel;
+    @FXML private Button cartButton;
 
     // Panel harmonogramu (TERAZ ZAPLANOWANE TRENINGI KLIENTA)
     @FXML private TableView<ClientScheduledTraining> scheduleTable; // Zmieniono typ
@@ -95,9 +99,29 @@ public class ClientDashboardController {
     private ObservableList<Status> statusesList = FXCollections.observableArrayList();
     private ObservableList<ClientScheduledTraining> clientScheduledTrainingsData = FXCollections.observableArrayList(); // NOWA LISTA
 
+    // Zapytania w tle: dane panelu (zadania, trenerzy, słowniki)
+    // oraz dane aktywnej sekcji (anulowane przy przejściu do innej sekcji)
+    private final QueryScope queries = new QueryScope();
+    private final QueryScope sectionQueries = new QueryScope();
+
+    // Zapisy wywołane przez klienta (nie są anulowane przy przejściu do innej sekcji)
+    private final QueryScope writes = new QueryScope();
+
+    // Dane sekcji ładowane przy pierwszym wyświetleniu sekcji i odświeżane w tle
+    // po upływie okna ważności
+    private final SectionCache sections = new SectionCache();
+
+    // Stronicowanie aktywności klienta: pozycja ostatniej wczytanej aktywności
+    // i numer wczytania listy (odrzuca strony doładowane do poprzedniej listy)
+    private ClientActivityFeed.Cursor activitiesCursor;
+    private boolean activitiesHasMore;
+    private boolean activitiesLoadingMore;
+    private int activitiesGeneration;
+
     // Panel zapisu na trening
     @FXML private ComboBox<Trainer> trainerComboBox;
     @FXML private TextArea trainingNotesTextArea;
+    @FXML private Button requestTrainingButton;
 
     // Table for client's training requests (NEW)
     @FXML private TableView<ClientTrainingRequest> clientTrainingRequestsTable;
@@ -111,8 +135,10 @@ public class ClientDashboardController {
     private String userName;
     private String userEmail;
 
-    // Koszyk
-    private int cartItemCount = 0;
+    // Koszyk: produkty sklepu zapisywane przy złożeniu zamówienia, karnety tylko zliczane
+    private final ShoppingCart cart = new ShoppingCart();
+    private int membershipCartCount = 0;
+    private boolean checkoutPending = false;
 
 
     /**
@@ -128,15 +154,34 @@ public class ClientDashboardController {
         initializeSchedule(); // TUTAJ ZMIANA: inicjalizacja dla zaplanowanych treningów
         initializeClientActivities();
         initializeClientTrainingsRequest();
+        registerSections();
 
         // Ustawienie sekcji startowej jako aktywnej
         showHome();
     }
+
+    /**
+     * Rejestruje metody ładujące dane poszczególnych sekcji.
+     * Dane sekcji nie są ładowane w {@link #setUserData}, lecz przy pierwszym
+     * wyświetleniu sekcji; metody ładujące odczytują identyfikator klienta
+     * w chwili wywołania.
+     */
+    private void registerSections() {
+        sections.register(profileSection, () -> CompletableFuture.allOf(
+                loadPrioritiesAndStatuses(),
+                loadClientTasks()));
+        sections.register(clientTrainingsRequestSection, () -> CompletableFuture.allOf(
+                loadTrainers(),
+                loadClientTrainingRequests()));
+        sections.register(scheduleSection, this::loadClientScheduledTrainings);
+        sections.register(clientTransactionsSection, this::loadClientActivities);
+    }
     
     /**
-     * Ustawia dane użytkownika w kontrolerze i ładuje dane powiązane z użytkownikiem.
+     * Ustawia dane użytkownika w kontrolerze.
      * Ta metoda powinna być wywołana po inicjalizacji kontrolera, aby ustawić
-     * identyfikator, nazwę i email zalogowanego klienta.
+     * identyfikator, nazwę i email zalogowanego klienta. Dane powiązane
+     * z użytkownikiem ładowane są przy pierwszym wyświetleniu danej sekcji.
      * 
      * @param userId identyfikator użytkownika w bazie danych
      * @param userName nazwa użytkownika (imię i nazwisko)
@@ -146,55 +191,38 @@ public class ClientDashboardController {
         this.userId = userId;
         this.userName = userName;
         this.userEmail = userEmail;
+    }
 
-        loadPrioritiesAndStatuses();
-        loadClientActivities(); // Załaduj aktywności klienta przy ustawieniu danych użytkownika
-        loadTrainers();
-        loadClientTasks();
-        // loadClientScheduledTrainings(); // Możesz załadować tutaj, ale lepiej w showSchedule()
+    /**
+     * Przerywa ładowanie danych panelu. Wywoływana przy porzuceniu panelu
+     * przygotowanego z wyprzedzeniem ({@link DashboardPreloader#dispose}).
+     */
+    void dispose() {
+        queries.cancelAll();
+        sectionQueries.cancelAll();
     }
 
     // --- INITIALIZATION METHODS ---
 
     /**
-     * Ładuje listę priorytetów i statusów z bazy danych.
+     * Ładuje listę priorytetów i statusów.
      * Te listy są używane do kategoryzacji i filtrowania zadań klienta
      * oraz do wyświetlania w interfejsie użytkownika.
-     * Metoda pobiera dane z tabel 'priorities' i 'statuses' w bazie danych.
+     * Dane pochodzą ze wspólnych danych słownikowych ({@link ReferenceData}),
+     * wczytywanych z tabel 'priorities' i 'statuses' raz dla całej aplikacji.
      */
-    private void loadPrioritiesAndStatuses() {
-        prioritiesList.clear();
-        statusesList.clear();
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sqlPriorities = "SELECT priority_id AS id, priority_name AS name FROM priorities ORDER BY priority_id";
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlPriorities);
-                 ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    prioritiesList.add(new Priority(rs.getInt("id"), rs.getString("name")));
-                }
-            }
-
-            String sqlStatuses = "SELECT status_id AS id, status_name AS name FROM statuses ORDER BY status_id";
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlStatuses);
-                 ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    statusesList.add(new Status(rs.getInt("id"), rs.getString("name")));
-                }
-            }
-        } catch (SQLException e) {
+    private CompletableFuture<?> loadPrioritiesAndStatuses() {
+        return queries.track(null, ReferenceData.load(), data -> {
+            prioritiesList.setAll(data.priorities().entries().stream()
+                    .map(p -> new Priority(p.id(), p.name()))
+                    .toList());
+            statusesList.setAll(data.statuses().entries().stream()
+                    .map(s -> new Status(s.id(), s.name()))
+                    .toList());
+        }, e -> {
             showError("Błąd ładowania priorytetów/statusów: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        });
     }
 
     /**
@@ -203,33 +231,32 @@ public class ClientDashboardController {
      * wraz z ich szczegółami, takimi jak priorytet, status, data treningu i opis.
      * Zadania są sortowane od najnowszych do najstarszych według daty treningu.
      */
-    private void loadClientTasks() {
+    private CompletableFuture<?> loadClientTasks() {
         if (userId == 0) {
             System.err.println("Błąd: userId nie ustawione w ClientDashboardController dla loadClientTasks.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
     
-        clientTasksObservableList.clear();
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT tt.task_id, tr.id AS training_request_id, tr.training_date, tt.task_description, " +
-                    "p.priority_id, p.priority_name, s.status_id, s.status_name, " +
-                    "t.id AS trainer_id, t.name AS trainer_name " +
-                    "FROM trainer_tasks tt " +
-                    "JOIN trainingrequests tr ON tt.training_request_id = tr.id " +
-                    "JOIN reports r ON tr.report = r.id " +
-                    "JOIN users c ON r.client_id = c.id " +
-                    "JOIN users t ON r.trainer_id = t.id " +
-                    "JOIN priorities p ON tt.priority_id = p.priority_id " +
-                    "JOIN statuses s ON tt.status_id = s.status_id " +
-                    "WHERE c.id = ? ORDER BY tr.training_date DESC, tt.assigned_date DESC";
-    
+        String sql = "SELECT tt.task_id, tr.id AS training_request_id, tr.training_date, tt.task_description, " +
+                "p.priority_id, p.priority_name, s.status_id, s.status_name, " +
+                "t.id AS trainer_id, t.name AS trainer_name " +
+                "FROM trainer_tasks tt " +
+                "JOIN trainingrequests tr ON tt.training_request_id = tr.id " +
+                "JOIN reports r ON tr.report = r.id " +
+                "JOIN users c ON r.client_id = c.id " +
+                "JOIN users t ON r.trainer_id = t.id " +
+                "JOIN priorities p ON tt.priority_id = p.priority_id " +
+                "JOIN statuses s ON tt.status_id = s.status_id " +
+                "WHERE c.id = ? ORDER BY tr.training_date DESC, tt.assigned_date DESC";
+
+        int userId = this.userId;
+        return queries.load(clientTasksTable, conn -> {
+            List<ClientTask> result = new ArrayList<>();
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, userId);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
-                        clientTasksObservableList.add(new ClientTask(
+                        result.add(new ClientTask(
                                 rs.getInt("task_id"),
                                 rs.getInt("training_request_id"),
                                 rs.getDate("training_date").toLocalDate(),
@@ -244,19 +271,12 @@ public class ClientDashboardController {
                     }
                 }
             }
-            System.out.println("Loaded " + clientTasksObservableList.size() + " tasks for client ID: " + userId);
-        } catch (SQLException e) {
+            System.out.println("Loaded " + result.size() + " tasks for client ID: " + userId);
+            return result;
+        }, clientTasksObservableList::setAll, e -> {
             showError("Błąd ładowania zadań klienta: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        });
     }
     
     /**
@@ -362,12 +382,23 @@ public class ClientDashboardController {
         activityStatusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
     
         clientActivitiesTable.setItems(clientActivitiesData);
+
+        // Wyświetlenie ostatniego wiersza tabeli doładowuje kolejną stronę aktywności
+        clientActivitiesTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(ClientActivity item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && getIndex() == clientActivitiesData.size() - 1) {
+                    loadMoreClientActivities();
+                }
+            }
+        });
     }
     
     /**
      * Inicjalizuje sekcję zapytań o treningi z trenerem.
-     * Konfiguruje kolumny tabeli zapytań o treningi, ładuje listę dostępnych trenerów
-     * i przypisuje źródło danych do tabeli.
+     * Konfiguruje kolumny tabeli zapytań o treningi i przypisuje źródło danych do tabeli.
+     * Trenerzy i zapytania ładowani są przy wyświetleniu sekcji.
      */
     private void initializeClientTrainingsRequest() {
         trainerNameColumn.setCellValueFactory(new PropertyValueFactory<>("trainerName"));
@@ -377,8 +408,34 @@ public class ClientDashboardController {
 
         clientTrainingRequestsTable.setItems(clientTrainingRequestsData);
 
-        loadTrainers();
-        loadClientTrainingRequests();
+        // Trenerzy do wyboru: lista powiązana z katalogiem użytkowników
+        UserDirectory.getInstance().bind(UserDirectory.TRAINER, trainerList, Trainer::new);
+        trainerComboBox.setItems(trainerList);
+        trainerComboBox.setCellFactory(lv -> new ListCell<Trainer>() {
+            @Override
+            protected void updateItem(Trainer trainer, boolean empty) {
+                super.updateItem(trainer, empty);
+                if (empty || trainer == null) {
+                    setText(null);
+                } else {
+                    // Wyświetlaj tylko imię
+                    setText(trainer.getName());
+                }
+            }
+        });
+        trainerComboBox.setConverter(new StringConverter<Trainer>() {
+            @Override
+            public String toString(Trainer trainer) {
+                if (trainer == null) return null;
+                // Zwróć tylko imię
+                return trainer.getName();
+            }
+
+            @Override
+            public Trainer fromString(String string) {
+                return null; // Nie jest używane do konwersji String na Trainer
+            }
+        });
     }
 
     /**
@@ -387,8 +444,7 @@ public class ClientDashboardController {
      * (oczekujący lub zaplanowany) oraz danymi trenera, do którego skierowano zapytanie.
      * Wyniki są sortowane od najnowszych do najstarszych.
      */
-    private void loadClientTrainingRequests() {
-        clientTrainingRequestsData.clear();
+    private CompletableFuture<?> loadClientTrainingRequests() {
         String sql = "SELECT " +
                 "r.notes AS request_notes, " +
                 "tr.training_date, " +
@@ -399,26 +455,29 @@ public class ClientDashboardController {
                 "WHERE r.client_id = ? " +
                 "ORDER BY tr.training_date DESC, r.id DESC";
     
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                String status = (rs.getDate("training_date") != null) ? "Zaplanowany" : "Oczekujący";
-    
-                clientTrainingRequestsData.add(new ClientTrainingRequest(
-                        rs.getString("trainer_name"),
-                        rs.getString("request_notes"),
-                        rs.getDate("training_date"),
-                        status
-                ));
+        int userId = this.userId;
+        return sectionQueries.load(clientTrainingRequestsTable, conn -> {
+            List<ClientTrainingRequest> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    String status = (rs.getDate("training_date") != null) ? "Zaplanowany" : "Oczekujący";
+
+                    result.add(new ClientTrainingRequest(
+                            rs.getString("trainer_name"),
+                            rs.getString("request_notes"),
+                            rs.getDate("training_date"),
+                            status
+                    ));
+                }
             }
-        }
-        catch (SQLException e) {
+            return result;
+        }, clientTrainingRequestsData::setAll, e -> {
             System.err.println("Błąd ładowania prośb o trening klienta: " + e.getMessage());
             e.printStackTrace();
             showError("Błąd ładowania Twoich treningów: " + e.getMessage());
-        }
+        });
     }
     
     /**
@@ -427,13 +486,12 @@ public class ClientDashboardController {
      * (posiadają datę i czas treningu). Wyniki są sortowane od najnowszych do najstarszych.
      * Używa się ich do wyświetlania w sekcji harmonogramu treningów klienta.
      */
-    private void loadClientScheduledTrainings() {
+    private CompletableFuture<?> loadClientScheduledTrainings() {
         if (userId == 0) {
             System.err.println("Błąd: userId nie ustawione w ClientDashboardController dla loadClientScheduledTrainings.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        clientScheduledTrainingsData.clear();
         String sql = "SELECT " +
                 "tr.training_date, " +
                 "u.name AS trainer_name, " +
@@ -444,173 +502,108 @@ public class ClientDashboardController {
                 "WHERE r.client_id = ? AND tr.training_date IS NOT NULL " + // Tylko zaplanowane treningi
                 "ORDER BY tr.training_date DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Timestamp trainingTimestamp = rs.getTimestamp("training_date");
-                LocalDateTime trainingDateTime = (trainingTimestamp != null) ? trainingTimestamp.toLocalDateTime() : null;
-
-                clientScheduledTrainingsData.add(new ClientScheduledTraining(
-                        rs.getString("trainer_name"),
-                        trainingDateTime,
-                        rs.getString("request_notes")// Używamy domyślnego statusu
-                ));
+        int userId = this.userId;
+        return sectionQueries.load(scheduleTable, conn -> {
+            List<ClientScheduledTraining> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    Timestamp trainingTimestamp = rs.getTimestamp("training_date");
+                    LocalDateTime trainingDateTime = (trainingTimestamp != null) ? trainingTimestamp.toLocalDateTime() : null;
+
+                    result.add(new ClientScheduledTraining(
+                            rs.getString("trainer_name"),
+                            trainingDateTime,
+                            rs.getString("request_notes")// Używamy domyślnego statusu
+                    ));
+                }
             }
-            System.out.println("Loaded " + clientScheduledTrainingsData.size() + " scheduled trainings for client ID: " + userId);
-        } catch (SQLException e) {
+            System.out.println("Loaded " + result.size() + " scheduled trainings for client ID: " + userId);
+            return result;
+        }, clientScheduledTrainingsData::setAll, e -> {
             System.err.println("Błąd ładowania zaplanowanych treningów klienta: " + e.getMessage());
             e.printStackTrace();
             showError("Błąd ładowania zaplanowanych treningów: " + e.getMessage());
-        }
+        });
     }
 
 
     // --- DATA LOADING METHODS ---
 
     /**
-     * Ładuje wszystkie aktywności finansowe klienta z bazy danych.
+     * Ładuje pierwszą stronę aktywności finansowych klienta z bazy danych.
      * Obejmuje to:
      * 1. Transakcje zakupowe produktów ze sklepu
      * 2. Płatności za karnety członkowskie
      * 3. Płatności za treningi indywidualne
-     * 
-     * Wyniki są sortowane chronologicznie od najnowszych do najstarszych
-     * i wyświetlane w tabeli aktywności klienta.
+     *
+     * Aktywności pobierane są jednym zapytaniem, od najnowszych do najstarszych,
+     * po {@link ClientActivityFeed#PAGE_SIZE} na stronę. Kolejne strony doładowywane
+     * są po przewinięciu tabeli do końca ({@link #loadMoreClientActivities()}).
      */
-    private void loadClientActivities() {
-        clientActivitiesData.clear();
-    
-        // Load Transactions for this user
-        String transactionSql = "SELECT t.transaction_date, t.amount, p.name AS product_name " +
-                "FROM transactions t " +
-                "JOIN products p ON t.product_id = p.id " +
-                "WHERE t.client_id = ? " +
-                "ORDER BY t.transaction_date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(transactionSql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                clientActivitiesData.add(new ClientActivity(
-                        "Transakcja",
-                        "Zakup: " + rs.getString("product_name"),
-                        rs.getBigDecimal("amount"),
-                        rs.getTimestamp("transaction_date"),
-                        "Zakończona"
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("Błąd ładowania transakcji klienta: " + e.getMessage());
-            e.printStackTrace();
-        }
-    
-        // Load Membership Payments for this user
-        String membershipSql = "SELECT amount, payment_date FROM membership_payments WHERE client_id = ? ORDER BY payment_date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(membershipSql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                clientActivitiesData.add(new ClientActivity(
-                        "Płatność za karnet",
-                        "Opłata za karnet",
-                        rs.getBigDecimal("amount"),
-                        rs.getTimestamp("payment_date"),
-                        "Zakończona"
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("Błąd ładowania płatności za karnety klienta: " + e.getMessage());
-            e.printStackTrace();
-        }
-    
-        // --- DODANY FRAGMENT DLA PŁATNOŚCI ZA TRENINGI INDYWIDUALNE ---
-        String trainingPaymentSql = "SELECT trp.amount, trp.payment_date, r.notes " +
-                "FROM training_request_payments trp " +
-                "JOIN trainingrequests tr ON trp.training_request_id = tr.id " +
-                "JOIN reports r ON tr.report = r.id " + // Dołączamy do reports, aby uzyskać client_id
-                "WHERE r.client_id = ? " + // Używamy client_id z tabeli reports
-                "ORDER BY trp.payment_date DESC";
-    
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(trainingPaymentSql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                String description = "Płatność za trening indywidualny";
-                String notes = rs.getString("notes");
-                if (notes != null && !notes.isEmpty()) {
-                    description += " (" + notes + ")";
-                }
-    
-                clientActivitiesData.add(new ClientActivity(
-                        "Płatność za Trening",
-                        description,
-                        rs.getBigDecimal("amount"),
-                        rs.getTimestamp("payment_date"),
-                        "Zakończona"
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("Błąd ładowania płatności za treningi klienta: " + e.getMessage());
-            e.printStackTrace();
+    private CompletableFuture<?> loadClientActivities() {
+        int userId = this.userId;
+        int generation = ++activitiesGeneration;
+        activitiesLoadingMore = false;
+        return sectionQueries.load(clientActivitiesTable,
+                conn -> ClientActivityFeed.fetch(conn, userId, null, ClientActivityFeed.PAGE_SIZE),
+                page -> {
+                    if (generation != activitiesGeneration) {
+                        return;
+                    }
+                    clientActivitiesData.setAll(page.activities());
+                    activitiesCursor = page.next();
+                    activitiesHasMore = page.hasMore();
+                }, e -> {
+                    System.err.println("Błąd ładowania aktywności klienta: " + e.getMessage());
+                    e.printStackTrace();
+                });
+    }
+
+    /**
+     * Doładowuje kolejną stronę aktywności klienta, zaczynając za ostatnią
+     * wyświetloną aktywnością. Nie robi nic, gdy strona jest już ładowana
+     * lub wszystkie aktywności zostały wczytane.
+     */
+    private void loadMoreClientActivities() {
+        if (activitiesLoadingMore || !activitiesHasMore || activitiesCursor == null) {
+            return;
         }
-        // --- KONIEC DODANEGO FRAGMENTU ---
+        activitiesLoadingMore = true;
+        int userId = this.userId;
+        int generation = activitiesGeneration;
+        ClientActivityFeed.Cursor after = activitiesCursor;
+        sectionQueries.load(null,
+                conn -> ClientActivityFeed.fetch(conn, userId, after, ClientActivityFeed.PAGE_SIZE),
+                page -> {
+                    if (generation != activitiesGeneration) {
+                        return; // lista została w międzyczasie wczytana od nowa
+                    }
+                    clientActivitiesData.addAll(page.activities());
+                    activitiesCursor = page.next();
+                    activitiesHasMore = page.hasMore();
+                }, e -> {
+                    System.err.println("Błąd doładowania aktywności klienta: " + e.getMessage());
+                    e.printStackTrace();
+                }).whenComplete((page, error) -> {
+                    if (generation == activitiesGeneration) {
+                        activitiesLoadingMore = false;
+                    }
+                });
     }
     
     /**
-     * Ładuje listę dostępnych trenerów z bazy danych.
-     * Pobiera wszystkich użytkowników z rolą 'trainer' i dodaje ich do listy
-     * rozwijalnej (ComboBox) używanej do wyboru trenera przy składaniu 
-     * zapytania o trening personalny.
-     * Konfiguruje również sposób wyświetlania trenerów w liście i konwersję
-     * między obiektem Trainer a tekstem.
+     * Odświeża listę dostępnych trenerów używaną do wyboru trenera przy
+     * składaniu zapytania o trening personalny. Lista powiązana jest
+     * z katalogiem użytkowników, który pobiera z bazy danych tylko
+     * użytkowników zmienionych od ostatniego odświeżenia.
      */
-    private void loadTrainers() {
-        trainerList.clear();
-        // Zmieniono zapytanie SQL - usunięto 'surname'
-        String sql = "SELECT id, name FROM users WHERE role = 'trainer'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                trainerList.add(new Trainer(
-                        rs.getInt("id"),
-                        rs.getString("name") // Teraz przekazujemy tylko 'name'
-                ));
-            }
-            trainerComboBox.setItems(trainerList);
-            trainerComboBox.setCellFactory(lv -> new ListCell<Trainer>() {
-                @Override
-                protected void updateItem(Trainer trainer, boolean empty) {
-                    super.updateItem(trainer, empty);
-                    if (empty || trainer == null) {
-                        setText(null);
-                    } else {
-                        // Wyświetlaj tylko imię
-                        setText(trainer.getName());
-                    }
-                }
-            });
-            trainerComboBox.setConverter(new StringConverter<Trainer>() {
-                @Override
-                public String toString(Trainer trainer) {
-                    if (trainer == null) return null;
-                    // Zwróć tylko imię
-                    return trainer.getName();
-                }
-
-                @Override
-                public Trainer fromString(String string) {
-                    return null; // Nie jest używane do konwersji String na Trainer
-                }
-            });
-        } catch (SQLException e) {
+    private CompletableFuture<?> loadTrainers() {
+        return queries.track(null, UserDirectory.getInstance().refresh(), ignored -> { }, e -> {
             showError("Błąd ładowania trenerów: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
     // --- SECTION TOGGLE METHODS ---
@@ -635,6 +628,7 @@ public class ClientDashboardController {
         hideAllSections();
         profileSection.setVisible(true);
         profileSection.setManaged(true);
+        sections.show(profileSection);
     }
     
     /**
@@ -651,14 +645,14 @@ public class ClientDashboardController {
     /**
      * Wyświetla sekcję "Zapisz się na Trening", gdzie klient może złożyć zapytanie
      * o trening personalny do wybranego trenera.
-     * Odświeża listę istniejących zapytań o treningi przy każdym otwarciu.
+     * Ładuje listę trenerów i istniejących zapytań o treningi, jeśli jest nieaktualna.
      */
     @FXML
     public void showTrainings() { // To jest sekcja "Zapisz się na Trening"
         hideAllSections();
         clientTrainingsRequestSection.setVisible(true);
         clientTrainingsRequestSection.setManaged(true);
-        loadClientTrainingRequests();
+        sections.show(clientTrainingsRequestSection);
     }
     
     /**
@@ -674,15 +668,15 @@ public class ClientDashboardController {
     
     /**
      * Wyświetla sekcję harmonogramu treningów klienta.
-     * Odświeża listę zaplanowanych treningów przy każdym otwarciu sekcji,
-     * aby zapewnić aktualne dane.
+     * Ładuje listę zaplanowanych treningów przy pierwszym otwarciu sekcji
+     * i odświeża ją w tle, gdy dane są nieaktualne.
      */
     @FXML
     public void showSchedule() { // TUTAJ ZMIANA: Wywołanie ładowania zaplanowanych treningów
         hideAllSections();
         scheduleSection.setVisible(true);
         scheduleSection.setManaged(true);
-        loadClientScheduledTrainings(); // Ładuj dane przy otwarciu sekcji
+        sections.show(scheduleSection); // Ładuj dane przy otwarciu sekcji
     }
 
     @FXML
@@ -698,15 +692,15 @@ public class ClientDashboardController {
     }
     /**
      * Wyświetla sekcję aktywności i transakcji klienta.
-     * Odświeża listę aktywności przy każdym otwarciu sekcji,
-     * aby zapewnić aktualne dane o transakcjach i płatnościach.
+     * Ładuje listę aktywności przy pierwszym otwarciu sekcji i odświeża ją
+     * w tle, gdy dane o transakcjach i płatnościach są nieaktualne.
      */
     @FXML
     public void showClientActivities() {
         hideAllSections();
         clientTransactionsSection.setVisible(true);
         clientTransactionsSection.setManaged(true);
-        loadClientActivities(); // Załaduj aktywności klienta przy otwarciu sekcji
+        sections.show(clientTransactionsSection); // Załaduj aktywności klienta przy otwarciu sekcji
     }
     
     /**
@@ -715,6 +709,7 @@ public class ClientDashboardController {
      * sekcja jest widoczna w danym momencie.
      */
     private void hideAllSections() {
+        sectionQueries.cancelAll();
         homeSection.setVisible(false);
         profileSection.setVisible(false);
         membershipSection.setVisible(false);
@@ -784,15 +779,99 @@ public class ClientDashboardController {
     
     /**
      * Wyświetla zawartość koszyka klienta.
-     * Pokazuje liczbę produktów w koszyku lub informację, że koszyk jest pusty.
+     * Produkty wyceniane są w tle według cen w katalogu ({@link ProductSales#quote}),
+     * z którymi zostanie złożone zamówienie; koszyk pokazywany jest po wycenie.
+     * Jeśli w koszyku są produkty, pozwala złożyć zamówienie ({@link #checkout}).
      */
     @FXML
     public void showCart() {
-        if (cartItemCount == 0) {
+        if (cart.isEmpty() && membershipCartCount == 0) {
             showAlert("Koszyk", "Twój koszyk jest pusty.");
-        } else {
-            showAlert("Koszyk", "Masz " + cartItemCount + " produkt(ów) w koszyku.");
+            return;
+        }
+        if (cart.isEmpty()) {
+            showAlert("Koszyk", "Karnety: " + membershipCartCount);
+            return;
         }
+        List<ShoppingCart.Item> items = cart.items();
+        queries.submit(cartButton, () -> ProductSales.quote(items), this::confirmOrder, e -> {
+            showError("Błąd wyceny koszyka: " + e.getMessage());
+            e.printStackTrace();
+        });
+    }
+
+    /**
+     * Pokazuje wycenione produkty koszyka i po potwierdzeniu składa zamówienie.
+     *
+     * @param quoted pozycje koszyka w cenach z katalogu
+     */
+    private void confirmOrder(List<ShoppingCart.Item> quoted) {
+        StringBuilder content = new StringBuilder();
+        BigDecimal total = BigDecimal.ZERO;
+        for (ShoppingCart.Item item : quoted) {
+            content.append(item.productName()).append(" x").append(item.quantity())
+                    .append(" - ").append(item.total()).append(" zł\n");
+            total = total.add(item.total());
+        }
+        if (membershipCartCount > 0) {
+            content.append("Karnety: ").append(membershipCartCount).append("\n");
+        }
+        content.append("\nRazem: ").append(total).append(" zł\nCzy chcesz złożyć zamówienie?");
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Koszyk");
+        alert.setHeaderText(null);
+        alert.setContentText(content.toString());
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            checkout(quoted);
+        }
+    }
+
+    /**
+     * Składa zamówienie na produkty z koszyka.
+     * Zamówienie zapisywane jest w tle jedną transakcją ({@link ProductSales#checkout});
+     * zamówione pozycje usuwane są z koszyka dopiero po jego zapisaniu. Jeśli któregoś
+     * produktu brakuje w magazynie lub jego cena zmieniła się od wyceny, nic nie jest
+     * zapisywane, a koszyk pozostaje bez zmian.
+     *
+     * @param ordered pozycje koszyka w cenach z katalogu, zatwierdzone przez klienta
+     */
+    private void checkout(List<ShoppingCart.Item> ordered) {
+        if (checkoutPending) {
+            showAlert("Koszyk", "Zamówienie jest w trakcie składania.");
+            return;
+        }
+        int itemCount = ordered.stream().mapToInt(ShoppingCart.Item::quantity).sum();
+        int clientId = userId;
+        checkoutPending = true;
+        writes.submit(null, () -> ProductSales.checkout(clientId, ordered, LocalDateTime.now()), placed -> {
+            checkoutPending = false;
+            if (!placed) {
+                showError("Niektórych produktów z koszyka brakuje w magazynie. Zamówienie nie zostało złożone.");
+                return;
+            }
+            ActivityLog.getInstance().log(clientId, "Zakup w sklepie: " + itemCount + " produkt(ów)");
+            cart.removeAll(ordered);
+            updateCartCounter();
+            sections.invalidate(clientTransactionsSection); // Nowe zakupy w historii aktywności
+            showAlert("Sukces", "Zamówienie zostało złożone (" + itemCount + " produkt(ów)).");
+        }, e -> {
+            checkoutPending = false;
+            showError("Błąd składania zamówienia: " + e.getMessage());
+            e.printStackTrace();
+        });
+    }
+
+    /**
+     * Aktualizuje etykietę licznika koszyka (produkty i karnety).
+     */
+    private void updateCartCounter() {
+        if (cartCounterLabel == null) {
+            return; // Etykieta licznika nie występuje w każdym układzie panelu
+        }
+        int count = cart.itemCount() + membershipCartCount;
+        cartCounterLabel.setText(count == 0 ? "" : "(" + count + ")");
     }
     
     /**
@@ -851,15 +930,15 @@ public class ClientDashboardController {
     
     /**
      * Dodaje produkt do koszyka klienta.
-     * Zwiększa licznik produktów w koszyku, aktualizuje etykietę licznika
+     * Dodaje sztukę produktu do koszyka, aktualizuje etykietę licznika
      * i wyświetla komunikat potwierdzający dodanie produktu.
      * 
      * @param productName nazwa produktu dodawanego do koszyka
      * @param price cena produktu
      */
     private void addToCart(String productName, double price) {
-        cartItemCount++;
-        cartCounterLabel.setText("(" + cartItemCount + ")");
+        cart.add(productName, BigDecimal.valueOf(price));
+        updateCartCounter();
         showAlert("Koszyk", "Dodano do koszyka: " + productName + " - " + price + " zł");
     }
 
@@ -885,24 +964,27 @@ public class ClientDashboardController {
         // Zmienione zapytanie SQL, aby wstawić tylko client_id i trainer_id do reports
         // W trainingrequests entry będzie tworzone przez trenera
         String sql = "INSERT INTO reports (client_id, trainer_id, notes) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, selectedTrainer.getId());
-            pstmt.setString(3, notes.isEmpty() ? null : notes);
-            int affectedRows = pstmt.executeUpdate();
-    
-            if (affectedRows > 0) {
+        int clientId = userId;
+        int trainerId = selectedTrainer.getId();
+        writes.submit(requestTrainingButton, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, clientId);
+                pstmt.setInt(2, trainerId);
+                pstmt.setString(3, notes.isEmpty() ? null : notes);
+                return pstmt.executeUpdate() > 0;
+            }
+        }, sent -> {
+            if (sent) {
                 showAlert("Sukces", "Twoja prośba o trening została wysłana. Trener skontaktuje się wkrótce.");
                 clearTrainingRequestForm();
                 loadClientTrainingRequests(); // Odśwież tabelę z prośbami klienta
             } else {
                 showError("Nie udało się wysłać prośby o trening.");
             }
-        } catch (SQLException e) {
+        }, e -> {
             showError("Błąd wysyłania prośby o trening: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
     
     /**
@@ -932,8 +1014,8 @@ public class ClientDashboardController {
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             // Tutaj logika dodawania do koszyka/płatności w zależności od tego, co jest kupowane
-            cartItemCount++;
-            cartCounterLabel.setText("(" + cartItemCount + ")");
+            membershipCartCount++;
+            updateCartCounter();
             showAlert("Koszyk", "Dodano do koszyka: " + title);
         }
     }
@@ -0,0 +1,423 @@
+package com.example.silowniaprojekt;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ograniczona pula połączeń JDBC wykorzystywana przez {@link DatabaseConnection}.
+ *
+ * Zamiast otwierać nowe gniazdo MySQL przy każdym wywołaniu, pula przechowuje
+ * bezczynne połączenia i wydaje je ponownie. Połączenie zwracane do kodu
+ * aplikacji jest pośrednikiem - wywołanie {@code close()} oddaje je do puli
+ * zamiast fizycznie zamykać, dzięki czemu istniejące bloki try-with-resources
+ * w kontrolerach działają bez zmian. Tak jak przy fizycznym zamknięciu,
+ * oddanie połączenia zamyka otwarte przez nie zapytania (i ich wyniki),
+ * a obiekty JDBC uzyskane przez pośrednika przestają działać.
+ *
+ * Pula:
+ * - ogranicza liczbę jednocześnie wydanych połączeń (semafor),
+ * - sprawdza poprawność połączenia przed wydaniem ({@link Connection#isValid(int)}),
+ * - usuwa połączenia bezczynne dłużej niż {@code idleTimeoutMillis},
+ * - wymienia połączenia starsze niż {@code maxLifetimeMillis},
+ * - zamyka wszystkie połączenia przy {@link #shutdown()}.
+ */
+public final class ConnectionPool {
+
+    /** Czas (w sekundach) na sprawdzenie poprawności połączenia przed wydaniem. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** Odstęp między przebiegami wątku porządkującego pulę. */
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 30_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+
+    /** Ogranicza liczbę połączeń wydanych jednocześnie. */
+    private final Semaphore permits;
+
+    /** Bezczynne połączenia; ostatnio zwrócone na początku (LIFO). */
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+
+    /**
+     * Tworzy nową pulę połączeń.
+     *
+     * @param url adres JDBC bazy danych
+     * @param user nazwa użytkownika bazy danych
+     * @param password hasło użytkownika bazy danych
+     * @param maxSize maksymalna liczba połączeń (wydanych i bezczynnych łącznie)
+     * @param borrowTimeoutMillis maksymalny czas oczekiwania na wolne połączenie
+     * @param idleTimeoutMillis czas bezczynności, po którym połączenie jest zamykane
+     * @param maxLifetimeMillis maksymalny czas życia fizycznego połączenia
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Rozmiar puli musi być dodatni");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::evictIdle,
+                HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wydaje połączenie z puli, w razie potrzeby otwierając nowe.
+     *
+     * Przed wydaniem bezczynne połączenie jest sprawdzane; połączenia
+     * nieważne, zbyt długo bezczynne lub przekraczające maksymalny czas życia
+     * są zamykane i pomijane.
+     *
+     * @return połączenie, którego zamknięcie zwraca je do puli
+     * @throws SQLException gdy pula jest zamknięta, upłynął czas oczekiwania
+     *         lub nie udało się otworzyć nowego połączenia
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pula połączeń została zamknięta");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Przekroczono czas oczekiwania na wolne połączenie ("
+                        + maxSize + " w użyciu)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Przerwano oczekiwanie na połączenie", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = pollIdle()) != null) {
+                long now = System.currentTimeMillis();
+                if (entry.isExpired(now) || entry.isIdleTooLong(now) || !isValid(entry.physical)) {
+                    closeQuietly(entry.physical);
+                    continue;
+                }
+                return entry.lease();
+            }
+            Connection physical = DriverManager.getConnection(url, user, password);
+            System.out.println("Połączenie z bazą danych zostało nawiązane.");
+            return new PooledEntry(physical).lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Zamyka pulę: zatrzymuje wątek porządkujący i zamyka bezczynne połączenia.
+     * Połączenia aktualnie wydane zostaną fizycznie zamknięte przy ich zwrocie.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledEntry entry : idle) {
+                closeQuietly(entry.physical);
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * Zwraca liczbę bezczynnych połączeń przechowywanych w puli.
+     *
+     * @return liczba bezczynnych połączeń
+     */
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    /**
+     * Zwraca liczbę połączeń aktualnie wydanych kodowi aplikacji.
+     *
+     * @return liczba wydanych połączeń
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    private PooledEntry pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    /**
+     * Przyjmuje połączenie oddane przez pośrednika. Przywraca domyślny stan
+     * połączenia (autocommit, brak otwartej transakcji) i odkłada je do puli
+     * albo zamyka, jeśli pula jest zamknięta lub połączenie jest zbyt stare.
+     */
+    private void release(PooledEntry entry) {
+        try {
+            boolean reusable = !closed && !entry.isExpired(System.currentTimeMillis());
+            if (reusable) {
+                try {
+                    if (!entry.physical.getAutoCommit()) {
+                        entry.physical.rollback();
+                        entry.physical.setAutoCommit(true);
+                    }
+                    entry.physical.clearWarnings();
+                } catch (SQLException e) {
+                    reusable = false;
+                }
+            }
+            if (reusable) {
+                entry.lastReturned = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addFirst(entry);
+                }
+            } else {
+                closeQuietly(entry.physical);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Usuwa z puli połączenia zbyt długo bezczynne lub przekraczające czas życia. */
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        synchronized (idle) {
+            Iterator<PooledEntry> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledEntry entry = it.next();
+                if (entry.isExpired(now) || entry.isIdleTooLong(now)) {
+                    it.remove();
+                    closeQuietly(entry.physical);
+                }
+            }
+        }
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Błąd podczas zamykania połączenia: " + e.getMessage());
+        }
+    }
+
+    /** Fizyczne połączenie przechowywane w puli wraz z jego znacznikami czasu. */
+    private final class PooledEntry {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        long lastReturned = createdAt;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt >= maxLifetimeMillis;
+        }
+
+        boolean isIdleTooLong(long now) {
+            return now - lastReturned >= idleTimeoutMillis;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * Pośrednik wydanego połączenia. Przechwytuje {@code close()} i {@code isClosed()},
+     * a pozostałe wywołania przekazuje do fizycznego połączenia, dopóki nie zostało
+     * ono oddane do puli. Zapytania, wyniki i metadane zwracane przez połączenie
+     * również są pośrednikami ({@link JdbcHandler}); otwarte zapytania zamykane są
+     * przy oddaniu połączenia.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private volatile boolean returned;
+
+        /** Fizyczne zapytania otwarte przez to połączenie i jeszcze niezamknięte. */
+        private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+        LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        closeStatements();
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + (returned ? ", zwrócone" : "") + "]";
+                default:
+                    break;
+            }
+            checkNotReturned();
+            try {
+                return wrap(method.invoke(entry.physical, args), method.getReturnType(), (Connection) proxy, null);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        void checkNotReturned() throws SQLException {
+            if (returned) {
+                throw new SQLException("Połączenie zostało już zwrócone do puli");
+            }
+        }
+
+        /**
+         * Opakowuje zapytanie, wynik lub metadane zwrócone przez obiekt JDBC tego
+         * połączenia w pośrednika; pozostałe wartości zwraca bez zmian.
+         *
+         * @param result wartość zwrócona przez fizyczny obiekt
+         * @param type zadeklarowany typ wartości
+         * @param lease pośrednik połączenia
+         * @param statement pośrednik zapytania, które zwróciło wynik (lub null)
+         */
+        Object wrap(Object result, Class<?> type, Connection lease, Object statement) {
+            if (result == null) {
+                return null;
+            }
+            if (Statement.class.isAssignableFrom(type)) {
+                statements.add((Statement) result);
+            } else if (type != ResultSet.class && type != DatabaseMetaData.class) {
+                return result;
+            }
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new JdbcHandler(this, result, lease, statement));
+        }
+
+        /** Zamyka zapytania pozostawione otwarte (wraz z ich wynikami). */
+        private void closeStatements() {
+            List<Statement> open = new ArrayList<>(statements);
+            statements.clear();
+            for (Statement statement : open) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.err.println("Błąd podczas zamykania zapytania: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Pośrednik zapytania, wyniku lub metadanych wydanego połączenia. Zwraca
+     * pośrednika połączenia (a nie połączenie fizyczne) i odrzuca wywołania
+     * po oddaniu połączenia do puli.
+     */
+    private static final class JdbcHandler implements InvocationHandler {
+        private final LeaseHandler owner;
+        private final Object target;
+        private final Connection lease;
+
+        /** Pośrednik zapytania, które zwróciło ten wynik (null dla zapytań i metadanych). */
+        private final Object statement;
+
+        JdbcHandler(LeaseHandler owner, Object target, Connection lease, Object statement) {
+            this.owner = owner;
+            this.target = target;
+            this.lease = lease;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (target instanceof Statement s) {
+                        owner.statements.remove(s);
+                    }
+                    break;
+                case "isClosed":
+                    if (owner.returned) {
+                        return true;
+                    }
+                    break;
+                case "getConnection":
+                    owner.checkNotReturned();
+                    return lease;
+                case "getStatement":
+                    owner.checkNotReturned();
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + target;
+                default:
+                    owner.checkNotReturned();
+                    break;
+            }
+            try {
+                Object result = method.invoke(target, args);
+                return owner.wrap(result, method.getReturnType(), lease, target instanceof Statement ? proxy : statement);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.silowniaprojekt;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Miesięczne wskaźniki panelu pracownika: przychód, nowi klienci i frekwencja,
+ * każdy z porównaniem do tego samego okresu poprzedniego miesiąca.
+ *
+ * Wskaźniki liczone są wyłącznie zapytaniami zakresowymi po indeksach lub
+ * zestawieniach dziennych - przychód z {@link RevenueRollup}, nowi klienci
+ * z indeksu {@code users (role, created_at)}, frekwencja z tabeli
+ * {@code daily_user_activity} (jeden wiersz na użytkownika i dzień z logowaniem).
+ *
+ * Wynik jest przechowywany w pamięci przez {@link #TTL}. Odczyt
+ * ({@link #get()}) zwraca od razu zapamiętane wskaźniki, a po upływie TTL
+ * przelicza je w tle; jednoczesne żądania współdzielą jedno przeliczenie.
+ */
+public final class DashboardKpis {
+
+    /**
+     * Czas ważności zapamiętanych wskaźników.
+     * Można go zmienić właściwością systemową {@code silownia.kpi.ttl.seconds}.
+     */
+    public static final Duration TTL = Duration.ofSeconds(Long.getLong("silownia.kpi.ttl.seconds", 60));
+
+    /**
+     * Wartość wskaźnika w bieżącym okresie i w tym samym okresie poprzedniego miesiąca.
+     *
+     * @param current wartość w bieżącym miesiącu (do dziś)
+     * @param previous wartość w poprzednim miesiącu (do tego samego dnia)
+     */
+    public record Kpi(double current, double previous) {
+
+        /**
+         * Formatuje zmianę względem poprzedniego miesiąca, np. "▲ 15% (m/m)".
+         *
+         * @return opis zmiany procentowej
+         */
+        public String formatChange() {
+            if (previous == 0) {
+                return current == 0 ? "▬ 0% (m/m)" : "▲ brak danych z poprz. miesiąca";
+            }
+            long change = Math.round((current - previous) * 100 / previous);
+            String arrow = change > 0 ? "▲" : change < 0 ? "▼" : "▬";
+            return arrow + " " + Math.abs(change) + "% (m/m)";
+        }
+    }
+
+    /**
+     * Komplet wskaźników wyliczonych w jednym momencie.
+     *
+     * @param revenue przychód w złotych
+     * @param newClients liczba nowych klientów
+     * @param attendance odsetek klientów, którzy odwiedzili siłownię
+     * @param computedAt czas wyliczenia (System.nanoTime)
+     */
+    public record Snapshot(Kpi revenue, Kpi newClients, Kpi attendance, long computedAt) {
+
+        /**
+         * Sprawdza, czy wskaźniki są starsze niż {@link #TTL}.
+         *
+         * @return true, gdy wskaźniki należy przeliczyć
+         */
+        public boolean isStale() {
+            return System.nanoTime() - computedAt > TTL.toNanos();
+        }
+    }
+
+    private static volatile Snapshot cached;
+    private static CompletableFuture<Snapshot> inFlight;
+
+    private DashboardKpis() {
+    }
+
+    /**
+     * Zwraca ostatnio wyliczone wskaźniki bez odwoływania się do bazy danych.
+     *
+     * @return zapamiętane wskaźniki lub null, jeśli jeszcze nie zostały wyliczone
+     */
+    public static Snapshot cached() {
+        return cached;
+    }
+
+    /**
+     * Zwraca aktualne wskaźniki - zapamiętane, jeśli nie są starsze niż
+     * {@link #TTL}, w przeciwnym razie przeliczone w tle.
+     *
+     * @return przyszłość ze wskaźnikami
+     */
+    public static CompletableFuture<Snapshot> get() {
+        Snapshot snapshot = cached;
+        if (snapshot != null && !snapshot.isStale()) {
+            return CompletableFuture.completedFuture(snapshot);
+        }
+        return refresh();
+    }
+
+    /**
+     * Przelicza wskaźniki w tle. Jeśli przeliczenie już trwa, zwraca jego wynik.
+     * Anulowanie zwróconej przyszłości nie przerywa przeliczenia dla pozostałych odbiorców.
+     *
+     * @return przyszłość ze wskaźnikami
+     */
+    public static synchronized CompletableFuture<Snapshot> refresh() {
+        if (inFlight == null || inFlight.isDone()) {
+            inFlight = AsyncQueryExecutor.supply(DashboardKpis::compute).thenApply(snapshot -> {
+                cached = snapshot;
+                return snapshot;
+            });
+        }
+        return inFlight.copy();
+    }
+
+    /**
+     * Zapisuje wizytę (logowanie) użytkownika w dziennym zestawieniu frekwencji.
+     * Kolejne logowania tego samego dnia nie zmieniają zestawienia.
+     *
+     * @param conn połączenie z bazą danych
+     * @param userId identyfikator użytkownika
+     * @param date dzień wizyty
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordVisit(Connection conn, int userId, LocalDate date) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT IGNORE INTO daily_user_activity (activity_date, user_id) VALUES (?, ?)")) {
+            stmt.setDate(1, Date.valueOf(date));
+            stmt.setInt(2, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Wylicza wskaźniki dla bieżącego miesiąca (od pierwszego dnia do dziś)
+     * i tego samego okresu poprzedniego miesiąca.
+     *
+     * @param conn połączenie z bazą danych
+     * @return wyliczone wskaźniki
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    static Snapshot compute(Connection conn) throws SQLException {
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        LocalDate previousStart = monthStart.minusMonths(1);
+        LocalDate previousEnd = today.minusMonths(1);
+
+        Kpi revenue = new Kpi(
+                revenue(conn, monthStart, today).doubleValue(),
+                revenue(conn, previousStart, previousEnd).doubleValue());
+        Kpi newClients = new Kpi(
+                newClients(conn, monthStart, today),
+                newClients(conn, previousStart, previousEnd));
+        Kpi attendance = new Kpi(
+                attendance(conn, monthStart, today),
+                attendance(conn, previousStart, previousEnd));
+        return new Snapshot(revenue, newClients, attendance, System.nanoTime());
+    }
+
+    private static BigDecimal revenue(Connection conn, LocalDate startDate, LocalDate endDate) throws SQLException {
+        return RevenueRollup.total(RevenueRollup.revenueBetween(conn, startDate, endDate));
+    }
+
+    private static int newClients(Connection conn, LocalDate startDate, LocalDate endDate) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM users WHERE role = 'client' AND created_at >= ? AND created_at < ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(startDate.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Odsetek klientów zarejestrowanych do końca okresu, którzy w tym okresie
+     * przynajmniej raz zalogowali się do systemu.
+     */
+    private static double attendance(Connection conn, LocalDate startDate, LocalDate endDate) throws SQLException {
+        String activeSql = """
+                SELECT COUNT(DISTINCT a.user_id)
+                FROM daily_user_activity a
+                JOIN users u ON a.user_id = u.id
+                WHERE a.activity_date >= ? AND a.activity_date < ? AND u.role = 'client'
+                """;
+        String clientsSql = """
+                SELECT COUNT(*) FROM users
+                WHERE role = 'client' AND (created_at IS NULL OR created_at < ?)
+                """;
+        int active;
+        try (PreparedStatement stmt = conn.prepareStatement(activeSql)) {
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate.plusDays(1)));
+            try (ResultSet rs = stmt.executeQuery()) {
+                active = rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+        int clients;
+        try (PreparedStatement stmt = conn.prepareStatement(clientsSql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                clients = rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+        return clients == 0 ? 0 : active * 100.0 / clients;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.silowniaprojekt;
+
+import javafx.application.Platform;
+import javafx.css.CssParser;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.prefs.Preferences;
+
+/**
+ * Wstępne przygotowanie paneli użytkowników w czasie wyświetlania ekranu logowania.
+ *
+ * Po otwarciu ekranu logowania wątek w tle wczytuje pliki FXML i CSS paneli,
+ * klasy kontrolerów oraz rozgrzewa parser FXML ({@link #warmUp()}). Następnie
+ * na wątku JavaFX budowany jest z wyprzedzeniem panel roli, która ostatnio
+ * logowała się na tym stanowisku - tak, aby po zalogowaniu wystarczyło
+ * go wyświetlić ({@link #take}). Gdy zaloguje się użytkownik innej roli,
+ * przygotowany panel jest porzucany, a właściwy budowany zwykłym trybem.
+ *
+ * Metody (poza {@link #warmUp()}) należy wywoływać z wątku JavaFX.
+ */
+public final class DashboardPreloader {
+
+    /**
+     * Panel użytkownika przypisany do roli.
+     */
+    public enum Dashboard {
+        ADMIN("admin", "admin_dashboard.fxml", null, "AdminDashboardController"),
+        TRAINER("trainer", "trainer_dashboard.fxml", "trainer_styles.css", "TrainerDashboardController"),
+        EMPLOYEE("employee", "employee_dashboard.fxml", "employee_styles.css", "EmployeeDashboardController"),
+        CLIENT("client", "client_dashboard.fxml", null, "ClientDashboardController");
+
+        private final String role;
+        private final String fxml;
+        private final String stylesheet;
+        private final String controllerClass;
+
+        Dashboard(String role, String fxml, String stylesheet, String controllerClass) {
+            this.role = role;
+            this.fxml = fxml;
+            this.stylesheet = stylesheet;
+            this.controllerClass = controllerClass;
+        }
+
+        /**
+         * Zwraca panel dla roli zapisanej w tabeli {@code users}.
+         *
+         * @param role rola użytkownika
+         * @return panel roli lub null dla nieznanej roli
+         */
+        public static Dashboard forRole(String role) {
+            for (Dashboard dashboard : values()) {
+                if (dashboard.role.equals(role)) {
+                    return dashboard;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Panel gotowy do wyświetlenia.
+     *
+     * @param loader loader panelu (dostęp do kontrolera)
+     * @param scene scena z korzeniem panelu i jego arkuszem stylów
+     */
+    public record Prepared(FXMLLoader loader, Scene scene) {
+    }
+
+    /** Klucz preferencji z rolą ostatnio zalogowanego użytkownika. */
+    private static final String LAST_ROLE_KEY = "lastDashboardRole";
+
+    private static final Preferences PREFERENCES = Preferences.userNodeForPackage(DashboardPreloader.class);
+
+    /** Minimalny dokument FXML rozgrzewający parser (FXMLLoader, StAX, rozwiązywanie importów). */
+    private static final String WARMUP_FXML = "<?import javafx.scene.layout.VBox?><VBox/>";
+
+    private static volatile boolean warmedUp;
+    private static Dashboard prebuiltDashboard;
+    private static Prepared prebuilt;
+
+    private DashboardPreloader() {
+    }
+
+    /**
+     * Rozgrzewa w tle ładowanie paneli, a następnie buduje z wyprzedzeniem
+     * panel ostatnio używanej roli. Wywoływana przy otwarciu ekranu logowania.
+     */
+    public static void warmUp() {
+        if (warmedUp) {
+            Platform.runLater(DashboardPreloader::prebuildLikely);
+            return;
+        }
+        Thread warmer = new Thread(() -> {
+            long start = System.nanoTime();
+            for (Dashboard dashboard : Dashboard.values()) {
+                warm(dashboard);
+            }
+            try {
+                new FXMLLoader().load(new ByteArrayInputStream(WARMUP_FXML.getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                System.err.println("Błąd rozgrzewania parsera FXML: " + e.getMessage());
+            }
+            warmedUp = true;
+            System.out.println("Panele rozgrzane w " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            Platform.runLater(DashboardPreloader::prebuildLikely);
+        }, "dashboard-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    /** Wczytuje plik FXML, arkusz stylów i klasę kontrolera panelu. */
+    private static void warm(Dashboard dashboard) {
+        try (InputStream in = DashboardPreloader.class.getResourceAsStream(dashboard.fxml)) {
+            if (in != null) {
+                in.readAllBytes();
+            }
+            if (dashboard.stylesheet != null) {
+                new CssParser().parse(DashboardPreloader.class.getResource(dashboard.stylesheet));
+            }
+            Class.forName(DashboardPreloader.class.getPackageName() + "." + dashboard.controllerClass,
+                    false, DashboardPreloader.class.getClassLoader());
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Błąd rozgrzewania panelu " + dashboard + ": " + e.getMessage());
+        }
+    }
+
+    /** Buduje panel ostatnio używanej roli, jeśli żaden nie jest jeszcze przygotowany. */
+    private static void prebuildLikely() {
+        Dashboard likely = Dashboard.forRole(PREFERENCES.get(LAST_ROLE_KEY, null));
+        if (likely == null || prebuilt != null) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            prebuilt = build(likely);
+            prebuiltDashboard = likely;
+            System.out.println("Panel " + likely + " przygotowany w " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.err.println("Błąd przygotowania panelu " + likely + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Zwraca panel gotowy do wyświetlenia - przygotowany wcześniej, jeśli dotyczy
+     * tej samej roli, w przeciwnym razie zbudowany teraz. Zapamiętuje rolę
+     * jako ostatnio używaną na tym stanowisku.
+     *
+     * @param dashboard panel do wyświetlenia
+     * @return załadowany panel ze sceną
+     * @throws IOException w przypadku błędu ładowania pliku FXML
+     */
+    public static Prepared take(Dashboard dashboard) throws IOException {
+        PREFERENCES.put(LAST_ROLE_KEY, dashboard.role);
+        Prepared ready = prebuilt;
+        boolean hit = ready != null && prebuiltDashboard == dashboard;
+        prebuilt = null;
+        prebuiltDashboard = null;
+        if (ready != null && !hit) {
+            dispose(ready);
+        }
+        return hit ? ready : build(dashboard);
+    }
+
+    /**
+     * Porzuca panel, który nie zostanie wyświetlony - przerywa ładowanie
+     * jego danych i zwalnia zasoby kontrolera.
+     *
+     * @param prepared porzucany panel
+     */
+    static void dispose(Prepared prepared) {
+        switch (prepared.loader().getController()) {
+            case AdminDashboardController admin -> admin.dispose();
+            case TrainerDashboardController trainer -> trainer.dispose();
+            case EmployeeDashboardController employee -> employee.dispose();
+            case ClientDashboardController client -> client.dispose();
+            default -> { }
+        }
+    }
+
+    /**
+     * Ładuje panel i przygotowuje jego scenę ze stylami. Kontrolery budują
+     * w {@code initialize()} tylko interfejs - dane ładowane są po zalogowaniu
+     * (np. {@link AdminDashboardController#setUserData}), więc panel można
+     * zbudować przed uwierzytelnieniem.
+     *
+     * @param dashboard panel do załadowania
+     * @return załadowany panel ze sceną
+     * @throws IOException w przypadku błędu ładowania pliku FXML
+     */
+    static Prepared build(Dashboard dashboard) throws IOException {
+        URL location = DashboardPreloader.class.getResource(dashboard.fxml);
+        FXMLLoader loader = new FXMLLoader(location);
+        Parent root = loader.load();
+        Scene scene = new Scene(root);
+        if (dashboard.stylesheet != null) {
+            scene.getStylesheets().add(DashboardPreloader.class.getResource(dashboard.stylesheet).toExternalForm());
+        }
+        root.applyCss();
+        return new Prepared(loader, scene);
+    }
+}
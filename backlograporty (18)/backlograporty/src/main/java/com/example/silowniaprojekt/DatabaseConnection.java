@@ -1,21 +1,22 @@
 package com.example.silowniaprojekt;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * Klasa obsługująca połączenie z bazą danych MySQL.
  * Dostarcza metody statyczne do uzyskiwania połączenia z bazą danych
  * wykorzystywaną przez aplikację siłowni.
- * Implementuje wzorzec Singleton dla połączenia z bazą danych.
+ * Implementuje wzorzec Singleton dla puli połączeń z bazą danych -
+ * połączenia są wydawane z {@link ConnectionPool} i wracają do niej po zamknięciu.
  */
 public class DatabaseConnection {
     /**
      * URL połączenia do bazy danych MySQL.
      * Wskazuje na lokalną bazę danych gym_system2 z ustawionym strefą czasową UTC.
+     * Wsadowe INSERT-y (addBatch) wysyłane są jako jedno wielowierszowe zapytanie.
      */
-    private static final String URL = "jdbc:mysql://localhost:3306/gym_system2?serverTimezone=UTC";
+    private static final String URL = "jdbc:mysql://localhost:3306/gym_system2?serverTimezone=UTC&rewriteBatchedStatements=true";
     
     /**
      * Nazwa użytkownika bazy danych.
@@ -29,12 +30,40 @@ public class DatabaseConnection {
      */
     private static final String PASSWORD = "";    // Zmień na rzeczywiste hasło
 
+    /**
+     * Maksymalna liczba połączeń utrzymywanych przez pulę.
+     */
+    private static final int POOL_MAX_SIZE = 10;
+
+    /**
+     * Maksymalny czas oczekiwania na wolne połączenie z puli (w milisekundach).
+     */
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Czas bezczynności, po którym połączenie jest zamykane (w milisekundach).
+     */
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+
+    /**
+     * Maksymalny czas życia połączenia (w milisekundach). Powinien być krótszy
+     * niż wait_timeout serwera MySQL.
+     */
+    private static final long POOL_MAX_LIFETIME_MILLIS = 30 * 60_000;
+
+    /**
+     * Współdzielona pula połączeń.
+     */
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASSWORD,
+            POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS, POOL_MAX_LIFETIME_MILLIS);
+
     /**
      * Metoda do pobrania połączenia z bazą danych.
      * 
-     * Tworzy i zwraca nowe połączenie z bazą danych na podstawie 
-     * skonfigurowanych parametrów URL, USER i PASSWORD. W przypadku 
-     * błędu połączenia, wyświetla komunikat w konsoli i zwraca null.
+     * Wydaje połączenie z puli, otwierając nowe tylko wtedy, gdy w puli
+     * brak sprawnego połączenia bezczynnego. Zamknięcie zwróconego obiektu
+     * oddaje połączenie do puli. W przypadku błędu połączenia, wyświetla
+     * komunikat w konsoli i zwraca null.
      * 
      * @return Obiekt Connection reprezentujący połączenie z bazą danych
      *         lub null w przypadku błędu połączenia
@@ -42,13 +71,23 @@ public class DatabaseConnection {
     public static Connection getConnection() {
         Connection connection = null;
         try {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("Połączenie z bazą danych zostało nawiązane.");
+            connection = POOL.borrow();
         } catch (SQLException e) {
             System.err.println("Błąd podczas łączenia z bazą danych: " + e.getMessage());
         }
         return connection;
     }
+
+    /**
+     * Zamyka pulę połączeń.
+     * 
+     * Wywoływana przy zamykaniu aplikacji. Bezczynne połączenia są zamykane
+     * natychmiast, a połączenia w użyciu - przy ich zwrocie.
+     */
+    public static void shutdown() {
+        POOL.shutdown();
+        System.out.println("Pula połączeń z bazą danych została zamknięta.");
+    }
     
     /**
      * Metoda testowa do sprawdzenia połączenia z bazą danych.
@@ -70,5 +109,6 @@ public class DatabaseConnection {
                 e.printStackTrace();
             }
         }
+        shutdown();
     }
 }
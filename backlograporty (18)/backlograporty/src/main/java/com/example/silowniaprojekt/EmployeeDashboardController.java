@@ -1,5 +1,9 @@
 package com.example.silowniaprojekt;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -8,13 +12,24 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Kontroler panelu pracownika siłowni.
@@ -79,6 +94,9 @@ public class EmployeeDashboardController {
     @FXML
     private TextField transactionAmountField;
 
+    @FXML
+    private Button addTransactionButton;
+
     // Magazyn
     @FXML
     private TableView<Equipment> equipmentTable;
@@ -143,8 +161,11 @@ public class EmployeeDashboardController {
     private TableColumn<Transaction, BigDecimal> transactionAmountColumn;
     @FXML
     private TableColumn<Transaction, Timestamp> transactionDateColumn;
+    @FXML
+    private TextField transactionSearchField;
 
-    private ObservableList<Transaction> transactionData = FXCollections.observableArrayList();
+    // Transakcje wczytywane stronami w miarę przewijania tabeli
+    private PagedTable<Transaction> transactionPages;
 
     // Raporty
     @FXML
@@ -167,6 +188,7 @@ public class EmployeeDashboardController {
     @FXML private TableColumn<TrainingRequestPayment, Timestamp> paymentDateColumn;
     @FXML private TableColumn<TrainingRequestPayment, BigDecimal> paymentAmountColumn;
     @FXML private TextField paymentAmountField;
+    @FXML private Button addTrainingPaymentButton;
     private ObservableList<TrainingRequestPayment> trainingRequestPaymentsData = FXCollections.observableArrayList();
 
     // NEW: Karnety Section
@@ -184,7 +206,13 @@ public class EmployeeDashboardController {
     private ComboBox<User> membershipClientComboBox; // Use User model for client selection
     @FXML
     private TextField membershipAmountField;
-    private ObservableList<MembershipPayment> membershipPaymentsData = FXCollections.observableArrayList();
+    @FXML
+    private Button addMembershipPaymentButton;
+    @FXML
+    private TextField membershipSearchField;
+
+    // Płatności za karnety wczytywane stronami w miarę przewijania tabeli
+    private PagedTable<MembershipPayment> membershipPaymentPages;
 
     // Pola do rejestracji
     @FXML
@@ -213,6 +241,8 @@ public class EmployeeDashboardController {
      */
     @FXML
     public ComboBox<String> roleComboBox;
+    @FXML
+    private Button addUserButton;
 
 
     /**
@@ -220,6 +250,46 @@ public class EmployeeDashboardController {
      * Wykorzystywana do wyświetlania danych w tabeli użytkowników i zarządzania nimi.
      */
     public ObservableList<User> users = FXCollections.observableArrayList();
+
+    /**
+     * Zapytania ładujące dane niezależne od aktywnej sekcji (np. lista użytkowników).
+     */
+    private final QueryScope queries = new QueryScope();
+
+    /**
+     * Zapytania ładujące dane aktywnej sekcji. Anulowane przy przejściu do innej sekcji.
+     */
+    private final QueryScope sectionQueries = new QueryScope();
+
+    /**
+     * Zapisy wywołane przez użytkownika. Nie są anulowane przy przejściu do innej sekcji.
+     */
+    private final QueryScope writes = new QueryScope();
+
+    /**
+     * Dane sekcji panelu ładowane przy pierwszym wyświetleniu sekcji
+     * i odświeżane w tle po upływie okna ważności.
+     */
+    private final SectionCache sections = new SectionCache();
+
+    /**
+     * Płatności za treningi według identyfikatora treningu. Pobierane są razem
+     * dla wierszy harmonogramu wyświetlonych w tabeli, więc zmiana zaznaczenia
+     * nie wymaga zapytania; wpis unieważniany jest po dodaniu płatności.
+     */
+    private final Map<Integer, List<TrainingRequestPayment>> trainingPaymentsCache = new HashMap<>();
+
+    /** Treningi, których płatności zostaną pobrane w najbliższym zapytaniu. */
+    private final Set<Integer> trainingPaymentsPending = new LinkedHashSet<>();
+
+    /** Treningi, których płatności są właśnie pobierane. */
+    private final Set<Integer> trainingPaymentsInFlight = new HashSet<>();
+
+    /** Licznik unieważnień pamięci płatności; odrzuca wyniki pobrane przed unieważnieniem. */
+    private int trainingPaymentsVersion;
+
+    /** Klienci do wyboru przy transakcjach i karnetach, powiązani z {@link UserDirectory}. */
+    private final ObservableList<User> clientList = FXCollections.observableArrayList();
     // private ObservableList<Schedule> scheduleData = FXCollections.observableArrayList(); // Ta lista już nie jest potrzebna, bo masz trainingRequestsScheduleData
 
     /**
@@ -228,6 +298,9 @@ public class EmployeeDashboardController {
      */
     @FXML
     public void initialize() {
+        registerSections();
+        hideAllSections();
+        showDashboard();
         initializeRegistration();
         initializeWarehouse();
         initializePricing();
@@ -236,8 +309,68 @@ public class EmployeeDashboardController {
         initializeReports();
         initializeMemberships();
         initializeTrainingRequestPayments(); // Zapewnia inicjalizację tabeli płatności
-        hideAllSections();
-        showDashboard();
+        initializeClientLists();
+    }
+
+    /**
+     * Uruchamia ładowanie danych panelu po zalogowaniu pracownika: wskaźniki
+     * miesięczne są wyliczane w tle, zanim pracownik otworzy sekcję raportów.
+     * Nie jest wywoływana w {@link #initialize()}, bo panel może być zbudowany
+     * z wyprzedzeniem na ekranie logowania ({@link DashboardPreloader}).
+     */
+    public void startLoading() {
+        DashboardKpis.refresh();
+    }
+
+    /**
+     * Przerywa ładowanie danych panelu. Wywoływana przy porzuceniu panelu
+     * przygotowanego z wyprzedzeniem ({@link DashboardPreloader#dispose}).
+     */
+    void dispose() {
+        queries.cancelAll();
+        sectionQueries.cancelAll();
+    }
+
+    /**
+     * Wiąże listy wyboru klienta (transakcje, karnety) ze wspólnym katalogiem
+     * użytkowników; katalog odświeżany jest przy wyświetleniu tych sekcji.
+     */
+    private void initializeClientLists() {
+        UserDirectory.getInstance().bind(UserDirectory.CLIENT, clientList,
+                (id, name) -> new User(id, name, null, null));
+        if (transactionClientComboBox != null) {
+            transactionClientComboBox.setItems(clientList);
+        }
+        if (membershipClientComboBox != null) {
+            membershipClientComboBox.setItems(clientList);
+        }
+    }
+
+    /**
+     * Rejestruje metody ładujące dane poszczególnych sekcji w {@link #sections}.
+     * Dane sekcji nie są ładowane przy starcie panelu, lecz przy jej pierwszym wyświetleniu.
+     */
+    private void registerSections() {
+        sections.register(registrationSection, this::loadUsers);
+        sections.register(transactionsSection, () -> CompletableFuture.allOf(
+                loadTransactions(),
+                loadClientsForTransactionComboBox(),
+                loadProductsForTransactionComboBox()));
+        sections.register(membershipsSection, () -> CompletableFuture.allOf(
+                loadMembershipPayments(),
+                loadClientsForMembershipComboBox()));
+        sections.register(scheduleSection, () -> loadAllTrainingRequests().thenRun(() -> {
+            // Po załadowaniu wszystkich próśb, automatycznie wybierz pierwszy, jeśli istnieje
+            // i załaduj jego płatności.
+            if (!trainingRequestsScheduleData.isEmpty()) {
+                scheduleTable.getSelectionModel().selectFirst();
+                // Listener w initializeSchedule() zajmie się załadowaniem płatności dla wybranego elementu.
+            } else {
+                // Jeśli nie ma żadnych treningów, wyczyść tabelę płatności
+                trainingRequestPaymentsData.clear();
+            }
+        }));
+        sections.register(reportsSection, this::loadKpis);
     }
 
     /**
@@ -254,28 +387,89 @@ public class EmployeeDashboardController {
     }
     
     /**
-     * Ładuje płatności dla określonego żądania treningu.
-     * 
-     * @param trainingRequestId Identyfikator żądania treningu, dla którego mają zostać załadowane płatności
-     */
-    private void loadTrainingRequestPayments(int trainingRequestId) {
-        trainingRequestPaymentsData.clear();
-        String sql = "SELECT id, payment_date, amount FROM training_request_payments WHERE training_request_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, trainingRequestId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                trainingRequestPaymentsData.add(new TrainingRequestPayment(
-                        rs.getInt("id"),
-                        rs.getTimestamp("payment_date"),
-                        rs.getBigDecimal("amount")
-                ));
+     * Wyświetla płatności zaznaczonego treningu z pamięci podręcznej; jeśli ich
+     * tam nie ma, zleca ich pobranie i wyświetla je po nadejściu wyniku.
+     */
+    private void showSelectedTrainingRequestPayments() {
+        TrainingRequestEntry selected = scheduleTable.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            trainingRequestPaymentsData.clear();
+            return;
+        }
+        List<TrainingRequestPayment> cached = trainingPaymentsCache.get(selected.getRequestId());
+        if (cached != null) {
+            trainingRequestPaymentsData.setAll(cached);
+        } else {
+            trainingRequestPaymentsData.clear();
+            requestTrainingRequestPayments(selected.getRequestId());
+        }
+    }
+
+    /**
+     * Zleca pobranie płatności treningu, jeśli nie ma ich w pamięci podręcznej.
+     * Treningi zgłoszone w jednym przebiegu układu tabeli (czyli jej widoczne
+     * wiersze) pobierane są razem jednym zapytaniem.
+     *
+     * @param trainingRequestId identyfikator treningu
+     */
+    private void requestTrainingRequestPayments(int trainingRequestId) {
+        if (trainingPaymentsCache.containsKey(trainingRequestId)
+                || trainingPaymentsInFlight.contains(trainingRequestId)
+                || !trainingPaymentsPending.add(trainingRequestId)) {
+            return;
+        }
+        if (trainingPaymentsPending.size() == 1) {
+            Platform.runLater(this::loadTrainingRequestPayments);
+        }
+    }
+
+    /**
+     * Ładuje płatności zgłoszonych treningów jednym zapytaniem
+     * ({@code training_request_id IN (...)}) do pamięci podręcznej.
+     */
+    private void loadTrainingRequestPayments() {
+        List<Integer> ids = new ArrayList<>(trainingPaymentsPending);
+        trainingPaymentsPending.clear();
+        if (ids.isEmpty()) {
+            return;
+        }
+        trainingPaymentsInFlight.addAll(ids);
+        int version = trainingPaymentsVersion;
+        String sql = "SELECT id, training_request_id, payment_date, amount FROM training_request_payments " +
+                "WHERE training_request_id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") " +
+                "ORDER BY payment_date, id";
+        sectionQueries.load(null, conn -> {
+            Map<Integer, List<TrainingRequestPayment>> result = new HashMap<>();
+            for (int id : ids) {
+                result.put(id, new ArrayList<>()); // treningi bez płatności też trafiają do pamięci
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    pstmt.setInt(i + 1, ids.get(i));
+                }
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    result.get(rs.getInt("training_request_id")).add(new TrainingRequestPayment(
+                            rs.getInt("id"),
+                            rs.getTimestamp("payment_date"),
+                            rs.getBigDecimal("amount")
+                    ));
+                }
+            }
+            return result;
+        }, result -> {
+            if (version == trainingPaymentsVersion) {
+                trainingPaymentsCache.putAll(result);
             }
-        } catch (SQLException e) {
+        }, e -> {
             showError("Błąd ładowania płatności za trening: " + e.getMessage());
             e.printStackTrace(); // Ważne, aby zobaczyć pełny stack trace
-        }
+        }).whenComplete((result, error) -> {
+            ids.forEach(trainingPaymentsInFlight::remove);
+            if (error == null) {
+                showSelectedTrainingRequestPayments();
+            }
+        });
     }
     
     /**
@@ -305,21 +499,30 @@ public class EmployeeDashboardController {
             int trainingRequestId = selectedTrainingRequest.getRequestId();
 
             String sql = "INSERT INTO training_request_payments (training_request_id, payment_date, amount) VALUES (?, ?, ?)";
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, trainingRequestId);
-                pstmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
-                pstmt.setBigDecimal(3, amount);
-                pstmt.executeUpdate();
-
+            LocalDateTime paymentDate = LocalDateTime.now();
+            writes.submit(addTrainingPaymentButton, conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    // Płatność i zestawienie przychodów zapisywane razem; przy błędzie
+                    // niezatwierdzona transakcja jest wycofywana przy zwrocie połączenia do puli
+                    conn.setAutoCommit(false);
+                    pstmt.setInt(1, trainingRequestId);
+                    pstmt.setTimestamp(2, Timestamp.valueOf(paymentDate));
+                    pstmt.setBigDecimal(3, amount);
+                    pstmt.executeUpdate();
+                    RevenueRollup.recordTrainingPayment(conn, paymentDate, trainingRequestId, amount);
+                    conn.commit();
+                    return null;
+                }
+            }, ignored -> {
                 showAlert("Sukces", "Płatność została dodana.");
-                loadTrainingRequestPayments(trainingRequestId); // Odśwież listę płatności dla wybranego treningu
+                trainingPaymentsCache.remove(trainingRequestId);
+                trainingPaymentsVersion++;
+                showSelectedTrainingRequestPayments(); // Odśwież listę płatności dla wybranego treningu
                 paymentAmountField.clear();
-
-            } catch (SQLException e) {
+            }, e -> {
                 showError("Błąd dodawania płatności: " + e.getMessage());
                 e.printStackTrace();
-            }
+            });
         } catch (NumberFormatException e) {
             showError("Nieprawidłowy format kwoty. Użyj formatu liczbowego (np. 150.00).");
         }
@@ -327,7 +530,7 @@ public class EmployeeDashboardController {
 
     /**
      * Inicjalizuje sekcję karnetów członkowskich.
-     * Konfiguruje kolumny tabeli, ładuje płatności i klientów do comboboxa.
+     * Konfiguruje kolumny tabeli; płatności i klienci ładowani są przy wyświetleniu sekcji.
      */
     private void initializeMemberships() {
         if (membershipsTable != null) {
@@ -335,20 +538,37 @@ public class EmployeeDashboardController {
             membershipClientColumn.setCellValueFactory(new PropertyValueFactory<>("clientName"));
             membershipAmountColumn.setCellValueFactory(new PropertyValueFactory<>("amount"));
             membershipPaymentDateColumn.setCellValueFactory(new PropertyValueFactory<>("paymentDate"));
-            membershipsTable.setItems(membershipPaymentsData);
+            membershipPaymentPages = new PagedTable<>(membershipsTable, sectionQueries,
+                    "mp.id, mp.client_id, u.name AS client_name, mp.amount, mp.payment_date",
+                    "membership_payments mp JOIN users u ON mp.client_id = u.id",
+                    "mp.id",
+                    rs -> new MembershipPayment(
+                            rs.getInt("id"),
+                            rs.getInt("client_id"),
+                            rs.getString("client_name"),
+                            rs.getBigDecimal("amount"),
+                            rs.getTimestamp("payment_date")),
+                    e -> {
+                        showError("Błąd ładowania płatności za karnety: " + e.getMessage());
+                        e.printStackTrace();
+                    })
+                    .sortable(membershipIdColumn, "mp.id")
+                    .sortable(membershipClientColumn, "u.name")
+                    .sortable(membershipAmountColumn, "mp.amount")
+                    .sortable(membershipPaymentDateColumn, "mp.payment_date")
+                    .sortedBy("mp.payment_date", false)
+                    .filterable("u.name")
+                    .bindFilter(membershipSearchField);
         }
-
-        loadMembershipPayments();
-        loadClientsForMembershipComboBox();
     }
 
     /**
      * Inicjalizuje sekcję rejestracji użytkowników.
-     * Konfiguruje combobox z rolami, ładuje użytkowników do tabeli.
+     * Konfiguruje combobox z rolami i tabelę użytkowników; użytkownicy ładowani są
+     * przy wyświetleniu sekcji.
      */
     private void initializeRegistration() {
         roleComboBox.getItems().addAll("client", "trainer", "employee");
-        loadUsers();
     
         userNameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         userEmailColumn.setCellValueFactory(new PropertyValueFactory<>("email"));
@@ -359,22 +579,22 @@ public class EmployeeDashboardController {
     /**
      * Ładuje listę użytkowników z bazy danych do tabeli.
      */
-    private void loadUsers() {
-        users.clear();
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, email, role FROM users");
-             ResultSet rs = stmt.executeQuery()) {
-    
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String name = rs.getString("name");
-                String email = rs.getString("email");
-                String role = rs.getString("role");
-                users.add(new User(id, name, email, role));
+    private CompletableFuture<?> loadUsers() {
+        return queries.load(usersTable, conn -> {
+            List<User> result = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name, email, role FROM users");
+                 ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    String name = rs.getString("name");
+                    String email = rs.getString("email");
+                    String role = rs.getString("role");
+                    result.add(new User(id, name, email, role));
+                }
             }
-        } catch (SQLException e) {
-            showError("Błąd ładowania użytkowników: " + e.getMessage());
-        }
+            return result;
+        }, users::setAll, e -> showError("Błąd ładowania użytkowników: " + e.getMessage()));
     }
     
     /**
@@ -391,22 +611,37 @@ public class EmployeeDashboardController {
             return;
         }
     
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        String name = clientNameField.getText();
+        String email = emailField.getText();
+        String password = passwordField.getText();
+        String role = roleComboBox.getValue();
+        writes.submit(addUserButton, conn -> {
             String query = "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, ?)";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, clientNameField.getText());
-            stmt.setString(2, emailField.getText());
-            stmt.setString(3, passwordField.getText()); // Hasło w czystym tekście
-            stmt.setString(4, roleComboBox.getValue());
-    
-            if (stmt.executeUpdate() > 0) {
+            PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, name);
+            stmt.setString(2, email);
+            stmt.setString(3, PasswordHasher.hash(password));
+            stmt.setString(4, role);
+    
+            // Użytkownik i znacznik zmiany dla katalogu użytkowników zapisywane razem
+            conn.setAutoCommit(false);
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet keys = stmt.getGeneratedKeys();
+            if (keys.next()) {
+                UserDirectory.recordChange(conn, keys.getInt(1));
+            }
+            conn.commit();
+            return true;
+        }, added -> {
+            if (added) {
                 loadUsers();
+                UserDirectory.getInstance().refresh();
                 clearRegistrationFields();
                 showAlert("Sukces", "Użytkownik został dodany!");
             }
-        } catch (SQLException e) {
-            showError("Błąd bazy danych: " + e.getMessage());
-        }
+        }, e -> showError("Błąd bazy danych: " + e.getMessage()));
     }
     
     /**
@@ -454,23 +689,29 @@ public class EmployeeDashboardController {
         });
     
         Optional<User> result = dialog.showAndWait();
-        result.ifPresent(editedUser -> {
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                String query = "UPDATE users SET name = ?, email = ?, role = ? WHERE id = ?";
-                PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setString(1, editedUser.getName());
-                stmt.setString(2, editedUser.getEmail());
-                stmt.setString(3, editedUser.getRole());
-                stmt.setInt(4, selectedUser.getId());
-    
-                if (stmt.executeUpdate() > 0) {
-                    loadUsers();
-                    showAlert("Sukces", "Dane użytkownika zaktualizowane!");
-                }
-            } catch (SQLException e) {
-                showError("Błąd aktualizacji: " + e.getMessage());
+        int selectedId = selectedUser.getId();
+        result.ifPresent(editedUser -> writes.submit(null, conn -> {
+            String query = "UPDATE users SET name = ?, email = ?, role = ? WHERE id = ?";
+            PreparedStatement stmt = conn.prepareStatement(query);
+            stmt.setString(1, editedUser.getName());
+            stmt.setString(2, editedUser.getEmail());
+            stmt.setString(3, editedUser.getRole());
+            stmt.setInt(4, selectedId);
+    
+            conn.setAutoCommit(false);
+            if (stmt.executeUpdate() == 0) {
+                return false;
             }
-        });
+            UserDirectory.recordChange(conn, selectedId);
+            conn.commit();
+            return true;
+        }, updated -> {
+            if (updated) {
+                loadUsers();
+                UserDirectory.getInstance().refresh();
+                showAlert("Sukces", "Dane użytkownika zaktualizowane!");
+            }
+        }, e -> showError("Błąd aktualizacji: " + e.getMessage())));
     }
     
     /**
@@ -490,18 +731,26 @@ public class EmployeeDashboardController {
         confirm.setHeaderText("Czy na pewno chcesz usunąć użytkownika " + selectedUser.getName() + "?");
     
         if (confirm.showAndWait().get() == ButtonType.OK) {
-            try (Connection conn = DatabaseConnection.getConnection()) {
+            int selectedId = selectedUser.getId();
+            writes.submit(null, conn -> {
                 String query = "DELETE FROM users WHERE id = ?";
                 PreparedStatement stmt = conn.prepareStatement(query);
-                stmt.setInt(1, selectedUser.getId());
+                stmt.setInt(1, selectedId);
     
-                if (stmt.executeUpdate() > 0) {
+                conn.setAutoCommit(false);
+                if (stmt.executeUpdate() == 0) {
+                    return false;
+                }
+                UserDirectory.recordChange(conn, selectedId);
+                conn.commit();
+                return true;
+            }, deleted -> {
+                if (deleted) {
                     users.remove(selectedUser);
+                    UserDirectory.getInstance().refresh();
                     showAlert("Sukces", "Użytkownik usunięty!");
                 }
-            } catch (SQLException e) {
-                showError("Błąd usuwania: " + e.getMessage());
-            }
+            }, e -> showError("Błąd usuwania: " + e.getMessage()));
         }
     }
     
@@ -588,12 +837,32 @@ public class EmployeeDashboardController {
             transactionProductNameColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
             transactionAmountColumn.setCellValueFactory(new PropertyValueFactory<>("amount"));
             transactionDateColumn.setCellValueFactory(new PropertyValueFactory<>("transactionDate"));
-            transactionsTable.setItems(transactionData);
+            transactionPages = new PagedTable<>(transactionsTable, sectionQueries,
+                    "t.id, t.client_id, u.name AS client_name, t.product_id, p.name AS product_name, "
+                            + "t.amount, t.transaction_date",
+                    "transactions t JOIN users u ON t.client_id = u.id JOIN products p ON t.product_id = p.id",
+                    "t.id",
+                    rs -> new Transaction(
+                            rs.getInt("id"),
+                            rs.getInt("client_id"),
+                            rs.getString("client_name"),
+                            rs.getInt("product_id"),
+                            rs.getString("product_name"),
+                            rs.getBigDecimal("amount"),
+                            rs.getTimestamp("transaction_date")),
+                    e -> {
+                        showError("Błąd ładowania transakcji: " + e.getMessage());
+                        e.printStackTrace();
+                    })
+                    .sortable(transactionIdColumn, "t.id")
+                    .sortable(transactionClientColumn, "u.name")
+                    .sortable(transactionProductNameColumn, "p.name")
+                    .sortable(transactionAmountColumn, "t.amount")
+                    .sortable(transactionDateColumn, "t.transaction_date")
+                    .sortedBy("t.transaction_date", false)
+                    .filterable("u.name", "p.name")
+                    .bindFilter(transactionSearchField);
         }
-
-        loadTransactions();
-        loadClientsForTransactionComboBox();
-        loadProductsForTransactionComboBox();
     }
 
     // Zmodyfikowana metoda initializeSchedule()
@@ -622,20 +891,25 @@ public class EmployeeDashboardController {
 
             scheduleTable.setItems(trainingRequestsScheduleData);
 
-            // KLUCZOWY LISTENER: Ładuje płatności po wyborze treningu
-            scheduleTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-                if (newSelection != null) {
-                    loadTrainingRequestPayments(newSelection.getRequestId());
-                } else {
-                    // Jeśli nic nie jest wybrane, wyczyść listę płatności
-                    trainingRequestPaymentsData.clear();
+            // Wyświetlone wiersze zgłaszają swoje treningi - płatności widocznej
+            // części harmonogramu pobierane są z wyprzedzeniem jednym zapytaniem
+            scheduleTable.setRowFactory(table -> new TableRow<>() {
+                @Override
+                protected void updateItem(TrainingRequestEntry item, boolean empty) {
+                    super.updateItem(item, empty);
+                    if (!empty && item != null) {
+                        requestTrainingRequestPayments(item.getRequestId());
+                    }
                 }
             });
+
+            // KLUCZOWY LISTENER: Wyświetla płatności po wyborze treningu (z pamięci podręcznej)
+            scheduleTable.getSelectionModel().selectedItemProperty().addListener(
+                    (obs, oldSelection, newSelection) -> showSelectedTrainingRequestPayments());
         }
     }
 
-    private void loadAllTrainingRequests() {
-        trainingRequestsScheduleData.clear();
+    private CompletableFuture<List<TrainingRequestEntry>> loadAllTrainingRequests() {
         String sql = "SELECT tr.id AS request_id, " +
                 "c.name AS client_name, " +
                 "t.name AS trainer_name, " +
@@ -647,42 +921,86 @@ public class EmployeeDashboardController {
                 "JOIN users t ON r.trainer_id = t.id " +
                 "ORDER BY tr.training_date DESC, tr.id DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                int requestId = rs.getInt("request_id");
-                String clientName = rs.getString("client_name");
-                String trainerName = rs.getString("trainer_name");
-                Timestamp trainingTimestamp = rs.getTimestamp("training_date");
-                LocalDateTime trainingDateTime = (trainingTimestamp != null) ? trainingTimestamp.toLocalDateTime() : null;
-                String requestNotes = rs.getString("request_notes");
-
-                String status = (trainingDateTime != null) ? "Zaplanowany" : "Oczekujący";
-
-                trainingRequestsScheduleData.add(new TrainingRequestEntry(
-                        requestId,
-                        clientName,
-                        trainerName,
-                        trainingDateTime,
-                        requestNotes,
-                        status
-                ));
+        return sectionQueries.load(scheduleTable, conn -> {
+            List<TrainingRequestEntry> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    int requestId = rs.getInt("request_id");
+                    String clientName = rs.getString("client_name");
+                    String trainerName = rs.getString("trainer_name");
+                    Timestamp trainingTimestamp = rs.getTimestamp("training_date");
+                    LocalDateTime trainingDateTime = (trainingTimestamp != null) ? trainingTimestamp.toLocalDateTime() : null;
+                    String requestNotes = rs.getString("request_notes");
+
+                    String status = (trainingDateTime != null) ? "Zaplanowany" : "Oczekujący";
+
+                    result.add(new TrainingRequestEntry(
+                            requestId,
+                            clientName,
+                            trainerName,
+                            trainingDateTime,
+                            requestNotes,
+                            status
+                    ));
+                }
             }
-        } catch (SQLException e) {
+            return result;
+        }, trainingRequestsScheduleData::setAll, e -> {
             showError("Błąd ładowania próśb o treningi: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
+    /**
+     * Inicjalizuje sekcję raportów miesięcznych.
+     * Gdy sekcja jest widoczna, wskaźniki są odświeżane co {@link DashboardKpis#TTL}.
+     * Odświeżanie działa tylko w czasie wyświetlania sekcji.
+     */
     private void initializeReports() {
-        revenueLabel.setText("24 500 zł");
-        revenueChangeLabel.setText("▲ 15% (m/m)");
-        newClientsLabel.setText("47");
-        clientsChangeLabel.setText("▼ 5% (m/m)");
-        attendanceLabel.setText("68%");
-        attendanceChangeLabel.setText("▬ 0% (m/m)");
+        Timeline kpiRefresh = new Timeline(new KeyFrame(Duration.millis(DashboardKpis.TTL.toMillis()), e ->
+                sectionQueries.track(null, DashboardKpis.refresh(), this::showKpis,
+                        error -> System.err.println("Błąd odświeżania wskaźników: " + error.getMessage()))));
+        kpiRefresh.setCycleCount(Animation.INDEFINITE);
+        reportsSection.visibleProperty().addListener((obs, wasVisible, visible) -> {
+            if (visible) {
+                kpiRefresh.play();
+            } else {
+                kpiRefresh.stop();
+            }
+        });
+    }
+
+    /**
+     * Ładuje wskaźniki miesięczne ({@link DashboardKpis}). Zapamiętane wskaźniki
+     * wyświetlane są od razu, a nieaktualne są przeliczane w tle.
+     *
+     * @return przyszłość ładowania
+     */
+    private CompletableFuture<?> loadKpis() {
+        DashboardKpis.Snapshot snapshot = DashboardKpis.cached();
+        if (snapshot != null) {
+            showKpis(snapshot);
+        }
+        return sectionQueries.track(null, DashboardKpis.get(), this::showKpis, e -> {
+            showError("Błąd ładowania wskaźników: " + e.getMessage());
+            e.printStackTrace();
+        });
+    }
+
+    /**
+     * Wyświetla wskaźniki miesięczne w sekcji raportów.
+     *
+     * @param snapshot wskaźniki do wyświetlenia
+     */
+    private void showKpis(DashboardKpis.Snapshot snapshot) {
+        revenueLabel.setText(String.format(Locale.forLanguageTag("pl-PL"), "%,.0f zł", snapshot.revenue().current()));
+        revenueChangeLabel.setText(snapshot.revenue().formatChange());
+        newClientsLabel.setText(String.valueOf((long) snapshot.newClients().current()));
+        clientsChangeLabel.setText(snapshot.newClients().formatChange());
+        attendanceLabel.setText(Math.round(snapshot.attendance().current()) + "%");
+        attendanceChangeLabel.setText(snapshot.attendance().formatChange());
     }
 
     /**
@@ -751,7 +1069,7 @@ public class EmployeeDashboardController {
     /**
      * Dodaje nową transakcję.
      * Waliduje dane wejściowe, zapisuje transakcję do bazy danych
-     * i aktualizuje stan magazynowy produktu.
+     * i aktualizuje stan magazynowy produktu ({@link ProductSales}).
      */
     @FXML
     private void addTransaction() {
@@ -764,49 +1082,49 @@ public class EmployeeDashboardController {
             return;
         }
 
+        BigDecimal amount;
         try {
-            BigDecimal amount = new BigDecimal(amountText);
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                showError("Kwota transakcji musi być większa od zera.");
-                return;
-            }
-
-            if (selectedProduct.getStock() <= 0) {
-                showError("Wybrany produkt (" + selectedProduct.getName() + ") jest niedostępny w magazynie.");
-                return;
-            }
-
-            String sql = "INSERT INTO transactions (client_id, product_id, transaction_date, amount) VALUES (?, ?, ?, ?)";
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, selectedClient.getId());
-                pstmt.setInt(2, selectedProduct.getId());
-                pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setBigDecimal(4, amount);
-                pstmt.executeUpdate();
-
-                String updateStockSql = "UPDATE products SET stock = stock - 1 WHERE id = ?";
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateStockSql)) {
-                    updateStmt.setInt(1, selectedProduct.getId());
-                    updateStmt.executeUpdate();
-                }
-
-                showAlert("Sukces", "Transakcja została dodana. Stan magazynowy produktu zaktualizowany.");
-                clearTransactionFields();
-                loadTransactions();
-                loadProductsForTransactionComboBox();
-            }
+            amount = new BigDecimal(amountText);
         } catch (NumberFormatException e) {
             showError("Kwota musi być poprawną liczbą (np. 150.00).");
-        } catch (SQLException e) {
-            showError("Błąd dodawania transakcji: " + e.getMessage());
-            e.printStackTrace();
+            return;
         }
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            showError("Kwota transakcji musi być większa od zera.");
+            return;
+        }
+
+        if (selectedProduct.getStock() <= 0) {
+            showError("Wybrany produkt (" + selectedProduct.getName() + ") jest niedostępny w magazynie.");
+            return;
+        }
+
+        // Sprzedaż (z ewentualnymi ponowieniami) w tle; przycisk wyłączony do jej zakończenia.
+        // Stan magazynowy sprawdzany ponownie w bazie: produkt mógł zostać sprzedany na innym stanowisku
+        writes.submit(addTransactionButton,
+                () -> ProductSales.sell(selectedClient.getId(), selectedProduct.getId(), amount, LocalDateTime.now()),
+                sold -> {
+                    if (!sold) {
+                        showError("Wybrany produkt (" + selectedProduct.getName() + ") został już wyprzedany.");
+                        loadProductsForTransactionComboBox();
+                        return;
+                    }
+                    ActivityLog.getInstance().log(selectedClient.getId(), "Zakup produktu: " + selectedProduct.getName());
+
+                    showAlert("Sukces", "Transakcja została dodana. Stan magazynowy produktu zaktualizowany.");
+                    clearTransactionFields();
+                    loadTransactions();
+                    loadProductsForTransactionComboBox();
+                }, e -> {
+                    showError("Błąd dodawania transakcji: " + e.getMessage());
+                    e.printStackTrace();
+                });
     }
 
 
 
     private void hideAllSections() {
+        sectionQueries.cancelAll();
         dashboardSection.setVisible(false);
         registrationSection.setVisible(false);
         warehouseSection.setVisible(false);
@@ -820,6 +1138,7 @@ public class EmployeeDashboardController {
     private void toggleSection(VBox section) {
         hideAllSections();
         section.setVisible(true);
+        sections.show(section);
     }
 
     private void clearPricingFields() {
@@ -874,15 +1193,10 @@ public class EmployeeDashboardController {
     
     /**
      * Wyświetla sekcję transakcji.
-     * Przełącza interfejs na zarządzanie transakcjami, ładuje dane transakcji z bazy,
-     * wypełnia listy klientów i produktów dostępnych do wyboru.
-     */
-    @FXML private void showTransactions() {
-        toggleSection(transactionsSection);
-        loadTransactions();
-        loadClientsForTransactionComboBox();
-        loadProductsForTransactionComboBox();
-    }
+     * Przełącza interfejs na zarządzanie transakcjami. Przy pierwszym wyświetleniu
+     * (lub gdy dane są nieaktualne) ładuje transakcje oraz listy klientów i produktów.
+     */
+    @FXML private void showTransactions() { toggleSection(transactionsSection); }
     
     /**
      * Wyświetla sekcję raportów.
@@ -892,24 +1206,16 @@ public class EmployeeDashboardController {
     
     /**
      * Wyświetla sekcję harmonogramu treningów.
-     * Przełącza interfejs na zarządzanie harmonogramem, ładuje wszystkie żądania treningów z bazy.
-     * Automatycznie wybiera pierwszy wpis z listy treningów (jeśli istnieje) i wyświetla 
-     * powiązane z nim płatności.
+     * Przełącza interfejs na zarządzanie harmonogramem. Przy pierwszym wyświetleniu
+     * (lub gdy dane są nieaktualne) ładuje wszystkie żądania treningów z bazy i wybiera
+     * pierwszy wpis z listy; płatności zaznaczonego treningu wyświetlane są z pamięci
+     * podręcznej, a gdy ich tam nie ma - pobierane ponownie.
      */
     @FXML
     private void showSchedule() {
         toggleSection(scheduleSection);
-        loadAllTrainingRequests();
-
-        // Po załadowaniu wszystkich próśb, automatycznie wybierz pierwszy, jeśli istnieje
-        // i załaduj jego płatności.
-        if (!trainingRequestsScheduleData.isEmpty()) {
-            scheduleTable.getSelectionModel().selectFirst();
-            // Listener w initializeSchedule() zajmie się załadowaniem płatności dla wybranego elementu.
-        } else {
-            // Jeśli nie ma żadnych treningów, wyczyść tabelę płatności
-            trainingRequestPaymentsData.clear();
-        }
+        // Pobieranie płatności mogło zostać anulowane przy opuszczeniu sekcji
+        showSelectedTrainingRequestPayments();
     }
 
     /**
@@ -934,137 +1240,84 @@ public class EmployeeDashboardController {
      */
     /**
      * Wyświetla sekcję karnetów członkowskich w interfejsie użytkownika.
-     * Metoda przełącza widoczność na sekcję karnetów, ładuje dane o płatnościach 
-     * za członkostwa z bazy danych oraz wypełnia listę rozwijaną klientów 
-     * do wyboru przy dodawaniu nowych płatności za karnety.
+     * Metoda przełącza widoczność na sekcję karnetów; przy pierwszym wyświetleniu
+     * (lub gdy dane są nieaktualne) ładuje płatności za członkostwa oraz listę
+     * rozwijaną klientów do wyboru przy dodawaniu nowych płatności za karnety.
      * Jest wywoływana po kliknięciu przycisku "Karnety" w panelu nawigacji.
      */
     @FXML
-    private void showMemberships() {
-        toggleSection(membershipsSection);
-        loadMembershipPayments();
-        loadClientsForMembershipComboBox();
-    }
+    private void showMemberships() { toggleSection(membershipsSection); }
 
     
     /**
      * Ładuje dane transakcji z bazy danych do tabeli transakcji.
-     * Metoda pobiera informacje o transakcjach, łącząc tabele transactions, users i products,
-     * a następnie wypełnia tabelę w interfejsie użytkownika.
-     * Dane są wyświetlane z informacjami o kliencie, produkcie, kwocie i dacie transakcji.
-     */
-    private void loadTransactions() {
-        transactionData.clear();
-        String sql = "SELECT t.id, t.client_id, u.name AS client_name, " +
-                "t.product_id, p.name AS product_name, t.amount, t.transaction_date " +
-                "FROM transactions t " +
-                "JOIN users u ON t.client_id = u.id " +
-                "JOIN products p ON t.product_id = p.id";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                transactionData.add(new Transaction(
-                        rs.getInt("id"),
-                        rs.getInt("client_id"),
-                        rs.getString("client_name"),
-                        rs.getInt("product_id"),
-                        rs.getString("product_name"),
-                        rs.getBigDecimal("amount"),
-                        rs.getTimestamp("transaction_date")
-                ));
-            }
-        } catch (SQLException e) {
-            showError("Błąd ładowania transakcji: " + e.getMessage());
-            e.printStackTrace();
-        }
+     * Pobiera pierwszą stronę transakcji (od najnowszych), łącząc tabele
+     * transactions, users i products; kolejne strony doładowywane są przy
+     * przewijaniu tabeli. Dane są wyświetlane z informacjami o kliencie,
+     * produkcie, kwocie i dacie transakcji.
+     */
+    private CompletableFuture<?> loadTransactions() {
+        return transactionPages != null ? transactionPages.reload() : CompletableFuture.completedFuture(null);
     }
-    private void loadProductsForTransactionComboBox() {
-        ObservableList<Product> productList = FXCollections.observableArrayList();
+    private CompletableFuture<?> loadProductsForTransactionComboBox() {
         String sql = "SELECT id, name, price, stock FROM products";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                productList.add(new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getDouble("price"),
-                        rs.getInt("stock")
-                ));
+        return sectionQueries.load(null, conn -> {
+            ObservableList<Product> productList = FXCollections.observableArrayList();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    productList.add(new Product(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getDouble("price"),
+                            rs.getInt("stock")
+                    ));
+                }
             }
-            transactionProductComboBox.setItems(productList);
-        } catch (SQLException e) {
+            return productList;
+        }, transactionProductComboBox::setItems, e -> {
             showError("Błąd ładowania produktów dla transakcji: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
-    private void loadClientsForTransactionComboBox() {
-        ObservableList<User> clientList = FXCollections.observableArrayList();
-        String sql = "SELECT id, name FROM users WHERE role = 'client'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+    /**
+     * Odświeża listę klientów do comboboxa transakcji (przyrostowo, z katalogu użytkowników).
+     */
+    private CompletableFuture<?> loadClientsForTransactionComboBox() {
+        return refreshClients("Błąd ładowania klientów dla transakcji: ");
+    }
 
-            while (rs.next()) {
-                clientList.add(new User(rs.getInt("id"), rs.getString("name"), null, null));
-            }
-            transactionClientComboBox.setItems(clientList);
-        } catch (SQLException e) {
-            showError("Błąd ładowania klientów dla transakcji: " + e.getMessage());
+    /**
+     * Odświeża katalog użytkowników, z którym powiązane są listy klientów.
+     *
+     * @param errorMessage początek komunikatu wyświetlanego przy błędzie
+     * @return przyszłość zakończona po odświeżeniu list
+     */
+    private CompletableFuture<?> refreshClients(String errorMessage) {
+        return sectionQueries.track(null, UserDirectory.getInstance().refresh(), ignored -> { }, e -> {
+            showError(errorMessage + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
     /**
      * Ładuje płatności za karnety z bazy danych.
-     * Czyści i uzupełnia listę płatności na podstawie danych z bazy.
-     */
-    private void loadMembershipPayments() {
-        membershipPaymentsData.clear();
-        String sql = "SELECT mp.id, mp.client_id, u.name AS client_name, mp.amount, mp.payment_date " +
-                "FROM membership_payments mp JOIN users u ON mp.client_id = u.id";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-    
-            while (rs.next()) {
-                membershipPaymentsData.add(new MembershipPayment(
-                        rs.getInt("id"),
-                        rs.getInt("client_id"),
-                        rs.getString("client_name"),
-                        rs.getBigDecimal("amount"),
-                        rs.getTimestamp("payment_date")
-                ));
-            }
-        } catch (SQLException e) {
-            showError("Błąd ładowania płatności za karnety: " + e.getMessage());
-            e.printStackTrace();
-        }
+     * Pobiera pierwszą stronę płatności (od najnowszych); kolejne strony
+     * doładowywane są przy przewijaniu tabeli.
+     */
+    private CompletableFuture<?> loadMembershipPayments() {
+        return membershipPaymentPages != null ? membershipPaymentPages.reload() : CompletableFuture.completedFuture(null);
     }
     
     /**
      * Ładuje listę klientów do comboboxa karnetu.
-     * Pobiera klientów z bazy danych i wypełnia combobox.
+     * Combobox powiązany jest z katalogiem użytkowników, który pobiera
+     * z bazy danych tylko klientów zmienionych od ostatniego odświeżenia.
      */
-    private void loadClientsForMembershipComboBox() {
-        ObservableList<User> clientList = FXCollections.observableArrayList();
-        String sql = "SELECT id, name FROM users WHERE role = 'client'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                clientList.add(new User(rs.getInt("id"), rs.getString("name"), null, null));
-            }
-            membershipClientComboBox.setItems(clientList);
-        } catch (SQLException e) {
-            showError("Błąd ładowania klientów do wyboru karnetu: " + e.getMessage());
-            e.printStackTrace();
-        }
+    private CompletableFuture<?> loadClientsForMembershipComboBox() {
+        return refreshClients("Błąd ładowania klientów do wyboru karnetu: ");
     }
 
     /**
@@ -1089,23 +1342,32 @@ public class EmployeeDashboardController {
             }
 
             String sql = "INSERT INTO membership_payments (client_id, amount, payment_date) VALUES (?, ?, ?)";
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, selectedClient.getId());
-                pstmt.setBigDecimal(2, amount);
-                pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.executeUpdate();
-
+            LocalDateTime paymentDate = LocalDateTime.now();
+            int clientId = selectedClient.getId();
+            writes.submit(addMembershipPaymentButton, conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    // Płatność i zestawienie przychodów zapisywane razem; przy błędzie
+                    // niezatwierdzona transakcja jest wycofywana przy zwrocie połączenia do puli
+                    conn.setAutoCommit(false);
+                    pstmt.setInt(1, clientId);
+                    pstmt.setBigDecimal(2, amount);
+                    pstmt.setTimestamp(3, Timestamp.valueOf(paymentDate));
+                    pstmt.executeUpdate();
+                    RevenueRollup.recordMembershipPayment(conn, paymentDate, amount);
+                    conn.commit();
+                    return null;
+                }
+            }, ignored -> {
                 showAlert("Sukces", "Płatność za karnet została dodana.");
                 membershipAmountField.clear();
                 membershipClientComboBox.getSelectionModel().clearSelection();
                 loadMembershipPayments();
-            }
+            }, e -> {
+                showError("Błąd dodawania płatności za karnet: " + e.getMessage());
+                e.printStackTrace();
+            });
         } catch (NumberFormatException e) {
             showError("Kwota musi być poprawną liczbą (np. 99.99).");
-        } catch (SQLException e) {
-            showError("Błąd dodawania płatności za karnet: " + e.getMessage());
-            e.printStackTrace();
         }
     }
 
@@ -0,0 +1,148 @@
+package com.example.silowniaprojekt;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchroniczne ładowanie obrazów interfejsu w rozmiarze wyświetlania.
+ *
+ * Obraz dekodowany jest w tle (mechanizm {@code backgroundLoading} klasy
+ * {@link Image}) od razu w żądanym rozmiarze, a nie w pełnej rozdzielczości
+ * pliku. Jednoczesne żądania tego samego obrazu w tym samym rozmiarze
+ * współdzielą jedno ładowanie, a gotowe obrazy trafiają do pamięci podręcznej
+ * LRU ograniczonej łącznym rozmiarem pikseli ({@link #MAX_CACHE_BYTES}).
+ * Do czasu załadowania obrazu można wyświetlać {@link #placeholder()}.
+ *
+ * Metody klasy należy wywoływać z wątku JavaFX; przyszłości kończą się na tym wątku.
+ */
+public final class ImageService {
+
+    /**
+     * Maksymalny łączny rozmiar zdekodowanych obrazów w pamięci podręcznej (w bajtach).
+     * Można go zmienić właściwością systemową {@code silownia.image.cache.mb} (w megabajtach).
+     */
+    public static final long MAX_CACHE_BYTES = Long.getLong("silownia.image.cache.mb", 32) * 1024 * 1024;
+
+    /** Kolor zaślepki wyświetlanej do czasu załadowania obrazu. */
+    private static final Color PLACEHOLDER_COLOR = Color.web("#2a2a2a");
+
+    /**
+     * Obraz w określonym rozmiarze wyświetlania.
+     *
+     * @param url adres obrazu
+     * @param width żądana szerokość (0 - rozmiar oryginalny)
+     * @param height żądana wysokość (0 - rozmiar oryginalny)
+     */
+    private record Key(String url, double width, double height) {
+    }
+
+    /** Załadowane obrazy, od najdawniej używanego. */
+    private static final LinkedHashMap<Key, Image> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Trwające ładowania, współdzielone przez żądania tego samego obrazu. */
+    private static final Map<Key, CompletableFuture<Image>> LOADING = new HashMap<>();
+
+    private static long cachedBytes;
+    private static Image placeholder;
+
+    private ImageService() {
+    }
+
+    /**
+     * Zwraca obraz przeskalowany przy dekodowaniu do podanego rozmiaru
+     * z zachowaniem proporcji.
+     *
+     * @param url adres obrazu
+     * @param width żądana szerokość (0 - rozmiar oryginalny)
+     * @param height żądana wysokość (0 - rozmiar oryginalny)
+     * @return przyszłość z obrazem; kończy się wyjątkiem, gdy obrazu nie da się wczytać
+     */
+    public static CompletableFuture<Image> load(String url, double width, double height) {
+        Key key = new Key(url, width, height);
+        Image cached = CACHE.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Image> pending = LOADING.get(key);
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<Image> result = new CompletableFuture<>();
+        LOADING.put(key, result);
+        Image image = new Image(url, width, height, true, true, true);
+        if (image.isError() || image.getProgress() >= 1.0) {
+            complete(key, image, result);
+        } else {
+            image.progressProperty().addListener((obs, oldProgress, progress) -> {
+                if (progress.doubleValue() >= 1.0) {
+                    complete(key, image, result);
+                }
+            });
+            image.errorProperty().addListener((obs, wasError, error) -> {
+                if (error) {
+                    complete(key, image, result);
+                }
+            });
+        }
+        return result;
+    }
+
+    /** Kończy ładowanie obrazu i zapisuje go w pamięci podręcznej. */
+    private static void complete(Key key, Image image, CompletableFuture<Image> result) {
+        if (result.isDone()) {
+            return;
+        }
+        LOADING.remove(key);
+        if (image.isError()) {
+            System.err.println("Nie można wczytać obrazu " + key.url() + ": "
+                    + (image.getException() != null ? image.getException().getMessage() : "nieobsługiwany format"));
+            result.completeExceptionally(image.getException() != null
+                    ? image.getException()
+                    : new IllegalArgumentException("Nieobsługiwany format obrazu: " + key.url()));
+            return;
+        }
+        CACHE.put(key, image);
+        cachedBytes += sizeOf(image);
+        evict();
+        result.complete(image);
+    }
+
+    /** Usuwa najdawniej używane obrazy, dopóki pamięć podręczna przekracza limit. */
+    private static void evict() {
+        Iterator<Image> images = CACHE.values().iterator();
+        while (cachedBytes > MAX_CACHE_BYTES && CACHE.size() > 1 && images.hasNext()) {
+            cachedBytes -= sizeOf(images.next());
+            images.remove();
+        }
+    }
+
+    /** Szacuje rozmiar zdekodowanego obrazu (4 bajty na piksel). */
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    /**
+     * Zwraca zaślepkę wyświetlaną do czasu załadowania obrazu - jednolity
+     * piksel, skalowany przez {@code ImageView} do rozmiaru obrazu.
+     *
+     * @return wspólny obraz zaślepki
+     */
+    public static Image placeholder() {
+        if (placeholder == null) {
+            WritableImage pixel = new WritableImage(1, 1);
+            PixelWriter writer = pixel.getPixelWriter();
+            writer.setColor(0, 0, PLACEHOLDER_COLOR);
+            placeholder = pixel;
+        }
+        return placeholder;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.silowniaprojekt;
+
+import javafx.scene.image.ImageView;
+
+/**
+ * Widok obrazu ładowanego w tle przez {@link ImageService}.
+ *
+ * Obraz wskazany właściwością {@code url} jest wczytywany dopiero po dodaniu
+ * widoku do sceny, w rozmiarze {@code fitWidth} x {@code fitHeight}; do tego
+ * czasu wyświetlana jest zaślepka. Przykład użycia w FXML:
+ * {@code <LazyImageView url="@images/foto1.jfif" fitWidth="150" fitHeight="150" preserveRatio="true"/>}
+ */
+public final class LazyImageView extends ImageView {
+
+    private String url;
+    private boolean requested;
+
+    /**
+     * Tworzy pusty widok; obraz ładowany jest po ustawieniu adresu i dodaniu do sceny.
+     */
+    public LazyImageView() {
+        sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) {
+                requestImage();
+            }
+        });
+    }
+
+    /**
+     * Zwraca adres wyświetlanego obrazu.
+     *
+     * @return adres obrazu
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Ustawia adres wyświetlanego obrazu.
+     *
+     * @param url adres obrazu
+     */
+    public void setUrl(String url) {
+        this.url = url;
+        requested = false;
+        if (getScene() != null) {
+            requestImage();
+        }
+    }
+
+    /** Wyświetla zaślepkę i zleca wczytanie obrazu, jeśli nie zostało jeszcze zlecone. */
+    private void requestImage() {
+        if (url == null || requested) {
+            return;
+        }
+        requested = true;
+        String requestedUrl = url;
+        setImage(ImageService.placeholder());
+        ImageService.load(requestedUrl, getFitWidth(), getFitHeight()).thenAccept(image -> {
+            if (requestedUrl.equals(url)) {
+                setImage(image);
+            }
+        });
+    }
+}
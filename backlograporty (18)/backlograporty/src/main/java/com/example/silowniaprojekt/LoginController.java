@@ -1,9 +1,7 @@
 package com.example.silowniaprojekt;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.PasswordField;
@@ -29,10 +27,38 @@ public class LoginController {
 
     private Stage primaryStage;
 
+    /**
+     * Dane użytkownika odczytane przy poprawnym uwierzytelnieniu.
+     *
+     * @param id identyfikator użytkownika
+     * @param name imię i nazwisko
+     * @param role rola użytkownika
+     */
+    private record AuthenticatedUser(int id, String name, String role) {
+    }
+
+    /**
+     * Konto odczytane z bazy danych przed weryfikacją hasła.
+     *
+     * @param user dane użytkownika
+     * @param storedPassword wartość kolumny {@code users.password}
+     */
+    private record StoredAccount(AuthenticatedUser user, String storedPassword) {
+    }
+
     public void setPrimaryStage(Stage primaryStage) {
         this.primaryStage = primaryStage;
     }
 
+    /**
+     * Inicjalizuje ekran logowania. W czasie wpisywania danych logowania
+     * panele są przygotowywane w tle ({@link DashboardPreloader}).
+     */
+    @FXML
+    public void initialize() {
+        DashboardPreloader.warmUp();
+    }
+
     /**
      * Obsługuje proces logowania użytkownika do systemu.
      * 
@@ -56,7 +82,7 @@ public class LoginController {
         // Statyczne dane testowe dla szybkiego logowania
         try {
             if (email.equalsIgnoreCase("admin@example.com") && password.equals("admin123")) {
-                loadAdminDashboard();
+                loadAdminDashboard(0, "Administrator", email);
                 return;
             } else if (email.equalsIgnoreCase("trener@example.com") && password.equals("trener123")) {
                 // ZMIANA: Przekazujemy statyczne ID i nazwę dla trenera
@@ -78,87 +104,148 @@ public class LoginController {
         }
 
         // Logowanie z użyciem bazy danych
-        try {
-            authenticateUser(email, password);
-        } catch (IOException e) {
-            handleLoadingError(e);
-        }
+        authenticateUser(email, password);
     }
 
-    private boolean authenticateUser(String email, String password) throws IOException {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            if (conn == null) {
-                showAlert("Błąd połączenia", "Nie można połączyć się z bazą danych");
-                return false;
+    /**
+     * Uwierzytelnia użytkownika w bazie danych poza wątkiem JavaFX - zapytanie
+     * i weryfikacja hasła BCrypt wykonywane są w tle, a przycisk logowania
+     * jest w tym czasie nieaktywny. Po poprawnym uwierzytelnieniu otwierany
+     * jest panel odpowiedni dla roli użytkownika.
+     *
+     * @param email adres email użytkownika
+     * @param password hasło podane przy logowaniu
+     */
+    private void authenticateUser(String email, String password) {
+        loginButton.setDisable(true);
+        AsyncQueryExecutor.call(() -> verifyCredentials(email, password))
+                .whenComplete((user, error) -> Platform.runLater(() -> {
+                    loginButton.setDisable(false);
+                    if (error != null) {
+                        System.err.println("Błąd podczas logowania: " + error.getMessage());
+                        showAlert("Błąd logowania", "Wystąpił problem z bazą danych: " + error.getMessage());
+                    } else if (user == null) {
+                        showAlert("Błąd logowania", "Nieprawidłowy email lub hasło");
+                    } else {
+                        openDashboard(user, email);
+                    }
+                }));
+    }
+
+    /**
+     * Sprawdza dane logowania. Połączenie z bazą danych zwracane jest do puli
+     * przed weryfikacją hasła BCrypt, więc nie jest zajmowane na czas haszowania.
+     * Dla nieznanego adresu email hasło jest weryfikowane z haszem zastępczym
+     * ({@link PasswordHasher#verifyUnknownAccount}), aby czas odpowiedzi nie
+     * zdradzał, które konta istnieją. Hasło zapisane starszym kosztem haszowania
+     * (lub otwartym tekstem) jest po poprawnej weryfikacji zastępowane haszem
+     * z bieżącym kosztem {@link PasswordHasher#WORK_FACTOR} - na nowym połączeniu.
+     *
+     * @param email adres email użytkownika
+     * @param password hasło podane przy logowaniu
+     * @return dane użytkownika lub null, jeśli email lub hasło są nieprawidłowe
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    private static AuthenticatedUser verifyCredentials(String email, String password) throws SQLException {
+        StoredAccount account = AsyncQueryExecutor.execute(conn -> findAccount(conn, email));
+        if (account == null) {
+            PasswordHasher.verifyUnknownAccount(password);
+            return null;
+        }
+
+        String storedPassword = account.storedPassword();
+        if (!PasswordHasher.verify(password, storedPassword)) {
+            return null;
+        }
+
+        if (PasswordHasher.needsRehash(storedPassword)) {
+            String rehashed = PasswordHasher.hash(password);
+            try {
+                // Warunek na poprzedni hasz chroni przed nadpisaniem hasła zmienionego w międzyczasie
+                AsyncQueryExecutor.execute(conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "UPDATE users SET password = ? WHERE id = ? AND password = ?")) {
+                        stmt.setString(1, rehashed);
+                        stmt.setInt(2, account.user().id());
+                        stmt.setString(3, storedPassword);
+                        return stmt.executeUpdate();
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("Błąd podczas aktualizacji hasza hasła: " + e.getMessage());
             }
+        }
+        return account.user();
+    }
 
-            String query = "SELECT id, name, role FROM users WHERE email = ? AND password = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+    /**
+     * Odczytuje konto o podanym adresie email.
+     *
+     * @param conn połączenie z bazą danych
+     * @param email adres email użytkownika
+     * @return konto lub null, jeśli adres nie jest zarejestrowany
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    private static StoredAccount findAccount(Connection conn, String email) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name, role, password FROM users WHERE email = ?")) {
             stmt.setString(1, email);
-            stmt.setString(2, password); // W rzeczywistej aplikacji powinno być porównanie haszowanych haseł
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int userId = rs.getInt("id");
-                String userName = rs.getString("name");
-                String userRole = rs.getString("role");
-
-                // Przekierowanie do odpowiedniego panelu na podstawie roli
-                switch (userRole) {
-                    case "admin":
-                        loadAdminDashboard();
-                        break;
-                    case "trainer":
-                        // ZMIANA: Przekazujemy userId i userName pobrane z bazy danych
-                        loadTrainerDashboard(userId, userName);
-                        break;
-                    case "employee":
-                        loadEmployeeDashboard();
-                        break;
-                    case "client":
-                        loadClientDashboard(userId, userName, email);
-                        break;
-                    default:
-                        showAlert("Błąd logowania", "Nieznana rola użytkownika");
-                        return false;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
                 }
-
-                // Zapisanie aktywności logowania w bazie
-                logUserActivity(userId, "Logowanie do systemu");
-
-                return true;
-            } else {
-                showAlert("Błąd logowania", "Nieprawidłowy email lub hasło");
-                return false;
+                return new StoredAccount(
+                        new AuthenticatedUser(rs.getInt("id"), rs.getString("name"), rs.getString("role")),
+                        rs.getString("password"));
             }
-        } catch (SQLException e) {
-            System.err.println("Błąd podczas logowania: " + e.getMessage());
-            showAlert("Błąd logowania", "Wystąpił problem z bazą danych: " + e.getMessage());
-            return false;
         }
     }
 
-    private void logUserActivity(int userId, String action) {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            if (conn == null) return;
-
-            String query = "INSERT INTO activity_logs (user_id, action) VALUES (?, ?)";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setInt(1, userId);
-            stmt.setString(2, action);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Błąd podczas zapisywania aktywności: " + e.getMessage());
+    /**
+     * Otwiera panel odpowiedni dla roli uwierzytelnionego użytkownika
+     * i zapisuje logowanie w dzienniku aktywności.
+     *
+     * @param user uwierzytelniony użytkownik
+     * @param email adres email użytkownika
+     */
+    private void openDashboard(AuthenticatedUser user, String email) {
+        try {
+            // Przekierowanie do odpowiedniego panelu na podstawie roli
+            switch (user.role()) {
+                case "admin":
+                    loadAdminDashboard(user.id(), user.name(), email);
+                    break;
+                case "trainer":
+                    loadTrainerDashboard(user.id(), user.name());
+                    break;
+                case "employee":
+                    loadEmployeeDashboard();
+                    break;
+                case "client":
+                    loadClientDashboard(user.id(), user.name(), email);
+                    break;
+                default:
+                    showAlert("Błąd logowania", "Nieznana rola użytkownika");
+                    return;
+            }
+        } catch (IOException e) {
+            handleLoadingError(e);
+            return;
         }
+
+        // Zapisanie aktywności logowania w bazie (w tle, bez czekania na zapis)
+        ActivityLog.getInstance().log(user.id(), ActivityLog.LOGIN);
     }
 
-    private void loadAdminDashboard() throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("admin_dashboard.fxml"));
-        Parent root = loader.load();
+    private void loadAdminDashboard(int userId, String userName, String userEmail) throws IOException {
+        DashboardPreloader.Prepared dashboard = DashboardPreloader.take(DashboardPreloader.Dashboard.ADMIN);
+
+        // Dane panelu ładowane są dopiero po zalogowaniu
+        AdminDashboardController controller = dashboard.loader().getController();
+        controller.setUserData(userId, userName, userEmail);
 
         Stage stage = new Stage();
         stage.setTitle("Black Iron Gym - Panel Administratora");
-        stage.setScene(new Scene(root));
+        stage.setScene(dashboard.scene());
         stage.setMaximized(true);
         stage.show();
 
@@ -167,18 +254,15 @@ public class LoginController {
 
     // ZMIANA: Metoda loadTrainerDashboard teraz przyjmuje trainerId i trainerName
     private void loadTrainerDashboard(int trainerId, String trainerName) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("trainer_dashboard.fxml"));
-        Parent root = loader.load();
+        DashboardPreloader.Prepared dashboard = DashboardPreloader.take(DashboardPreloader.Dashboard.TRAINER);
 
         // ZMIANA: Pobieramy kontroler i ustawiamy dane trenera
-        TrainerDashboardController trainerController = loader.getController();
+        TrainerDashboardController trainerController = dashboard.loader().getController();
         trainerController.setTrainerData(trainerId, trainerName);
 
         Stage stage = new Stage();
         stage.setTitle("Black Iron Gym - Panel Trenera");
-        Scene scene = new Scene(root);
-        scene.getStylesheets().add(getClass().getResource("trainer_styles.css").toExternalForm());
-        stage.setScene(scene);
+        stage.setScene(dashboard.scene());
         stage.setMaximized(true);
         stage.show();
 
@@ -186,14 +270,14 @@ public class LoginController {
     }
 
     private void loadEmployeeDashboard() throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("employee_dashboard.fxml"));
-        Parent root = loader.load();
+        DashboardPreloader.Prepared dashboard = DashboardPreloader.take(DashboardPreloader.Dashboard.EMPLOYEE);
+
+        EmployeeDashboardController controller = dashboard.loader().getController();
+        controller.startLoading();
 
         Stage stage = new Stage();
         stage.setTitle("Black Iron Gym - Panel Pracownika");
-        Scene scene = new Scene(root);
-        scene.getStylesheets().add(getClass().getResource("employee_styles.css").toExternalForm());
-        stage.setScene(scene);
+        stage.setScene(dashboard.scene());
         stage.setMaximized(true);
         stage.show();
 
@@ -201,15 +285,14 @@ public class LoginController {
     }
 
     private void loadClientDashboard(int userId, String userName, String userEmail) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("client_dashboard.fxml"));
-        Parent root = loader.load();
+        DashboardPreloader.Prepared dashboard = DashboardPreloader.take(DashboardPreloader.Dashboard.CLIENT);
 
-        ClientDashboardController controller = loader.getController();
+        ClientDashboardController controller = dashboard.loader().getController();
         controller.setUserData(userId, userName, userEmail);
 
         Stage stage = new Stage();
         stage.setTitle("Black Iron Gym - Panel Klienta");
-        stage.setScene(new Scene(root));
+        stage.setScene(dashboard.scene());
         stage.setMaximized(true);
         stage.show();
 
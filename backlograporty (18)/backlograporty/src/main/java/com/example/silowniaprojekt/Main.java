@@ -7,6 +7,8 @@ import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
+import java.sql.SQLException;
+
 /**
  * Główna klasa aplikacji siłowni Black Iron Gym.
  * Inicjalizuje aplikację JavaFX, ładuje ekran logowania
@@ -15,6 +17,24 @@ import javafx.stage.Stage;
  * głównego okna aplikacji.
  */
 public class Main extends Application {
+    /**
+     * Przygotowuje bazę danych przed wyświetleniem okna aplikacji.
+     * Wykonuje niezastosowane jeszcze migracje schematu ({@link SchemaMigrations})
+     * i rozpoczyna w tle wczytywanie danych słownikowych ({@link ReferenceData}).
+     * Metoda wywoływana jest poza wątkiem JavaFX; błąd migracji nie blokuje
+     * uruchomienia aplikacji.
+     */
+    @Override
+    public void init() {
+        try {
+            SchemaMigrations.migrate();
+        } catch (SQLException e) {
+            System.err.println("Błąd migracji schematu bazy danych: " + e.getMessage());
+            e.printStackTrace();
+        }
+        ReferenceData.load();
+    }
+
     /**
      * Inicjalizuje i uruchamia aplikację siłowni.
      * Metoda ładuje ekran logowania, konfiguruje jego wygląd,
@@ -49,6 +69,20 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    /**
+     * Zamyka zasoby aplikacji przy jej zakończeniu.
+     * Przerywa zapytania i raporty wykonywane w tle, zapisuje oczekujące
+     * wpisy dziennika aktywności i zwalnia połączenia przechowywane w puli
+     * połączeń z bazą danych.
+     */
+    @Override
+    public void stop() {
+        ReportJobQueue.getInstance().shutdown();
+        ActivityLog.getInstance().shutdown();
+        AsyncQueryExecutor.shutdown();
+        DatabaseConnection.shutdown();
+    }
+
     /**
      * Punkt wejścia do aplikacji.
      * Uruchamia aplikację JavaFX przekazując argumenty wiersza poleceń.
@@ -0,0 +1,437 @@
+package com.example.silowniaprojekt;
+
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.util.Duration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Tabela wyświetlająca duży zbiór wierszy (np. całą historię transakcji)
+ * pobieranych z bazy danych stronami.
+ *
+ * Zamiast wczytywać wszystkie wiersze naraz, tabela pobiera strony po
+ * {@link #PAGE_SIZE} wierszy w miarę przewijania: wyświetlenie ostatniego
+ * (pierwszego) wiersza doładowuje stronę następną (poprzednią). Strony
+ * pobierane są kluczem (wartość kolumny sortowania, id) ostatniego wczytanego
+ * wiersza, więc koszt pobrania strony nie zależy od jej położenia w zbiorze.
+ * W pamięci przechowywanych jest najwyżej {@link #MAX_PAGES} stron - przy
+ * doładowaniu kolejnej strona z przeciwnego końca jest usuwana.
+ *
+ * Sortowanie (kliknięcie nagłówka kolumny zarejestrowanej przez {@link #sortable})
+ * i filtrowanie ({@link #bindFilter}) wykonywane są w bazie danych - zmiana
+ * wczytuje tabelę od pierwszej strony.
+ *
+ * Rozmiar strony i liczbę stron w pamięci można zmienić właściwościami systemowymi
+ * {@code silownia.table.page.size} (domyślnie 100) i {@code silownia.table.pages}
+ * (domyślnie 5).
+ *
+ * Metody klasy należy wywoływać z wątku JavaFX.
+ *
+ * @param <T> typ wiersza tabeli
+ */
+public final class PagedTable<T> {
+
+    /** Liczba wierszy pobieranych jednym zapytaniem. */
+    public static final int PAGE_SIZE = Integer.getInteger("silownia.table.page.size", 100);
+
+    /** Maksymalna liczba stron przechowywanych w pamięci. */
+    public static final int MAX_PAGES = Math.max(2, Integer.getInteger("silownia.table.pages", 5));
+
+    /** Opóźnienie wyszukiwania po ostatniej zmianie tekstu filtra. */
+    private static final Duration FILTER_DELAY = Duration.millis(300);
+
+    /**
+     * Tworzy wiersz tabeli z bieżącego wiersza wyniku zapytania.
+     *
+     * @param <T> typ wiersza tabeli
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        /**
+         * @param rs wynik zapytania ustawiony na bieżącym wierszu
+         * @return wiersz tabeli
+         * @throws SQLException w przypadku błędu odczytu
+         */
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /** Klucz wiersza: wartość kolumny sortowania i identyfikator. */
+    private record Key(Object sortValue, long id) {
+    }
+
+    /** Wczytana strona: liczba wierszy oraz klucze pierwszego i ostatniego wiersza. */
+    private record Page(int size, Key first, Key last) {
+    }
+
+    /** Wynik pobrania strony; {@code more} - czy w tym kierunku są kolejne wiersze. */
+    private record Fetched<T>(List<T> rows, Page page, boolean more) {
+    }
+
+    /** Sortowanie i filtr, dla których wczytano tabelę. */
+    private record Order(String column, boolean ascending, String filter) {
+    }
+
+    private final TableView<T> table;
+    private final QueryScope scope;
+    private final String select;
+    private final String from;
+    private final String idColumn;
+    private final RowMapper<T> mapper;
+    private final Consumer<Throwable> onError;
+
+    private final Map<TableColumn<T, ?>, String> sortColumns = new HashMap<>();
+    private final List<String> filterColumns = new ArrayList<>();
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+    private final Deque<Page> pages = new ArrayDeque<>();
+
+    private ExecutorService executor;
+    private String defaultSortColumn;
+    private boolean defaultAscending;
+    private Order order;
+    private boolean moreBefore;
+    private boolean moreAfter;
+    private boolean loading;
+
+    /** Numer wczytania tabeli od pierwszej strony; odrzuca strony doładowane do poprzedniego wczytania. */
+    private int generation;
+
+    /**
+     * Podłącza stronicowanie do tabeli. Kolumny tabeli nie są sortowalne,
+     * dopóki nie zostaną zarejestrowane przez {@link #sortable}.
+     *
+     * @param table tabela wyświetlająca wiersze
+     * @param scope grupa zapytań, w której pobierane są strony
+     * @param select lista kolumn zapytania (bez słowa SELECT)
+     * @param from tabele zapytania ze złączeniami (bez słowa FROM)
+     * @param idColumn kolumna z unikalnym identyfikatorem wiersza
+     * @param mapper tworzy wiersz tabeli z wyniku zapytania
+     * @param onError obsługa błędu pobierania, wywoływana na wątku JavaFX
+     */
+    public PagedTable(TableView<T> table, QueryScope scope, String select, String from, String idColumn,
+                      RowMapper<T> mapper, Consumer<Throwable> onError) {
+        this.table = table;
+        this.scope = scope;
+        this.select = select;
+        this.from = from;
+        this.idColumn = idColumn;
+        this.mapper = mapper;
+        this.onError = onError;
+
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(false);
+        }
+        table.setItems(rows);
+        table.setSortPolicy(sorted -> {
+            applySortOrder();
+            return true;
+        });
+        table.setRowFactory(view -> new TableRow<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    return;
+                }
+                if (getIndex() == rows.size() - 1) {
+                    loadMore(true);
+                } else if (getIndex() == 0) {
+                    loadMore(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Pozwala sortować tabelę według kolumny; sortowanie wykonywane jest w bazie danych.
+     * Wyrażenie nie może przyjmować wartości NULL.
+     *
+     * @param column kolumna tabeli
+     * @param expression wyrażenie SQL sortowania (np. {@code t.transaction_date})
+     * @return ta tabela
+     */
+    public PagedTable<T> sortable(TableColumn<T, ?> column, String expression) {
+        column.setSortable(true);
+        sortColumns.put(column, expression);
+        return this;
+    }
+
+    /**
+     * Ustawia sortowanie stosowane, gdy użytkownik nie wybrał kolumny sortowania.
+     *
+     * @param expression wyrażenie SQL sortowania
+     * @param ascending true dla sortowania rosnącego
+     * @return ta tabela
+     */
+    public PagedTable<T> sortedBy(String expression, boolean ascending) {
+        this.defaultSortColumn = expression;
+        this.defaultAscending = ascending;
+        this.order = new Order(expression, ascending, order != null ? order.filter() : "");
+        return this;
+    }
+
+    /**
+     * Ustawia kolumny przeszukiwane przez filtr tekstowy.
+     *
+     * @param columns wyrażenia SQL porównywane z tekstem filtra ({@code LIKE})
+     * @return ta tabela
+     */
+    public PagedTable<T> filterable(String... columns) {
+        Collections.addAll(filterColumns, columns);
+        return this;
+    }
+
+    /**
+     * Ustawia wykonawcę zapytań (domyślnie wspólna pula {@link AsyncQueryExecutor}).
+     *
+     * @param executor wykonawca zapytań
+     * @return ta tabela
+     */
+    public PagedTable<T> executedOn(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Filtruje tabelę tekstem wpisanym w pole - po chwili bez zmian tekstu
+     * tabela wczytywana jest od nowa z filtrem.
+     *
+     * @param field pole wyszukiwania
+     * @return ta tabela
+     */
+    public PagedTable<T> bindFilter(TextField field) {
+        PauseTransition delay = new PauseTransition(FILTER_DELAY);
+        delay.setOnFinished(event -> applyFilter(field.getText()));
+        field.textProperty().addListener((obs, oldText, text) -> delay.playFromStart());
+        return this;
+    }
+
+    /**
+     * Zwraca wczytane wiersze tabeli (okno najwyżej {@link #MAX_PAGES} stron).
+     *
+     * @return wiersze wyświetlane w tabeli
+     */
+    public ObservableList<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Wczytuje tabelę od pierwszej strony dla bieżącego sortowania i filtra.
+     * Wymaga wcześniejszego ustawienia sortowania domyślnego ({@link #sortedBy}).
+     *
+     * @return przyszłość zakończona po wyświetleniu pierwszej strony
+     */
+    public CompletableFuture<?> reload() {
+        int requested = ++generation;
+        Order requestedOrder = order;
+        loading = true;
+        return run(conn -> fetch(conn, requestedOrder, null, true), fetched -> {
+            if (requested != generation) {
+                return;
+            }
+            pages.clear();
+            rows.setAll(fetched.rows());
+            if (!fetched.rows().isEmpty()) {
+                pages.add(fetched.page());
+            }
+            moreBefore = false;
+            moreAfter = fetched.more();
+            table.scrollTo(0);
+        }, requested);
+    }
+
+    /**
+     * Doładowuje stronę następną ({@code forward}) lub poprzednią względem
+     * wczytanego okna i usuwa stronę z przeciwnego końca, gdy okno jest pełne.
+     */
+    private void loadMore(boolean forward) {
+        if (loading || pages.isEmpty() || !(forward ? moreAfter : moreBefore)) {
+            return;
+        }
+        int requested = generation;
+        Order requestedOrder = order;
+        Key after = forward ? pages.getLast().last() : pages.getFirst().first();
+        loading = true;
+        run(conn -> fetch(conn, requestedOrder, after, forward), fetched -> {
+            if (requested != generation) {
+                return;
+            }
+            int firstVisible = firstVisibleIndex();
+            if (forward) {
+                moreAfter = fetched.more();
+                if (fetched.rows().isEmpty()) {
+                    return;
+                }
+                rows.addAll(fetched.rows());
+                pages.addLast(fetched.page());
+                if (pages.size() > MAX_PAGES) {
+                    int dropped = pages.removeFirst().size();
+                    rows.remove(0, dropped);
+                    moreBefore = true;
+                    // Przesunięcie widoku tak, aby pozostał na tych samych wierszach
+                    if (firstVisible >= 0) {
+                        table.scrollTo(Math.max(0, firstVisible - dropped));
+                    }
+                }
+            } else {
+                moreBefore = fetched.more();
+                if (fetched.rows().isEmpty()) {
+                    return;
+                }
+                rows.addAll(0, fetched.rows());
+                pages.addFirst(fetched.page());
+                if (pages.size() > MAX_PAGES) {
+                    int dropped = pages.removeLast().size();
+                    rows.remove(rows.size() - dropped, rows.size());
+                    moreAfter = true;
+                }
+                if (firstVisible >= 0) {
+                    table.scrollTo(firstVisible + fetched.rows().size());
+                }
+            }
+        }, requested);
+    }
+
+    /** Pobiera stronę w tle i przekazuje ją na wątek JavaFX. */
+    private CompletableFuture<Fetched<T>> run(AsyncQueryExecutor.Query<Fetched<T>> query,
+                                              Consumer<Fetched<T>> onSuccess, int requested) {
+        CompletableFuture<Fetched<T>> work = executor != null
+                ? AsyncQueryExecutor.supply(query, executor)
+                : AsyncQueryExecutor.supply(query);
+        CompletableFuture<Fetched<T>> published = scope.track(table, work, onSuccess, error -> {
+            if (requested == generation) {
+                onError.accept(error);
+            }
+        });
+        published.whenComplete((fetched, error) -> {
+            if (requested == generation) {
+                loading = false;
+            }
+        });
+        return published;
+    }
+
+    /**
+     * Pobiera stronę wierszy leżących za kluczem {@code after} w kierunku
+     * sortowania ({@code forward}) lub przed nim; bez klucza - pierwszą stronę.
+     */
+    private Fetched<T> fetch(Connection conn, Order order, Key after, boolean forward) throws SQLException {
+        boolean ascending = order.ascending() == forward;
+        String direction = ascending ? "ASC" : "DESC";
+
+        List<String> conditions = new ArrayList<>();
+        if (!order.filter().isEmpty() && !filterColumns.isEmpty()) {
+            conditions.add("(" + String.join(" OR ", filterColumns.stream().map(column -> column + " LIKE ?").toList()) + ")");
+        }
+        if (after != null) {
+            String comparison = ascending ? ">" : "<";
+            conditions.add("(" + order.column() + " " + comparison + " ? OR (" + order.column() + " = ? AND "
+                    + idColumn + " " + comparison + " ?))");
+        }
+        String sql = "SELECT " + select + ", " + order.column() + " AS page_sort_key, " + idColumn + " AS page_row_id"
+                + " FROM " + from
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY " + order.column() + " " + direction + ", " + idColumn + " " + direction
+                + " LIMIT ?";
+
+        List<T> fetchedRows = new ArrayList<>();
+        List<Key> keys = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (!order.filter().isEmpty()) {
+                String pattern = "%" + order.filter().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                for (int i = 0; i < filterColumns.size(); i++) {
+                    stmt.setString(index++, pattern);
+                }
+            }
+            if (after != null) {
+                stmt.setObject(index++, after.sortValue());
+                stmt.setObject(index++, after.sortValue());
+                stmt.setLong(index++, after.id());
+            }
+            // Jeden wiersz ponad stronę informuje, czy w tym kierunku są kolejne wiersze
+            stmt.setInt(index, PAGE_SIZE + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    fetchedRows.add(mapper.map(rs));
+                    keys.add(new Key(rs.getObject("page_sort_key"), rs.getLong("page_row_id")));
+                }
+            }
+        }
+
+        boolean more = fetchedRows.size() > PAGE_SIZE;
+        if (more) {
+            fetchedRows.remove(PAGE_SIZE);
+            keys.remove(PAGE_SIZE);
+        }
+        if (!forward) {
+            Collections.reverse(fetchedRows);
+            Collections.reverse(keys);
+        }
+        Page page = keys.isEmpty() ? null : new Page(keys.size(), keys.get(0), keys.get(keys.size() - 1));
+        return new Fetched<>(fetchedRows, page, more);
+    }
+
+    /** Przyjmuje sortowanie wybrane w nagłówkach tabeli i wczytuje tabelę od nowa, jeśli się zmieniło. */
+    private void applySortOrder() {
+        if (order == null) {
+            return; // sortowanie domyślne nie zostało jeszcze ustawione
+        }
+        String column = defaultSortColumn;
+        boolean ascending = defaultAscending;
+        for (TableColumn<T, ?> sortColumn : table.getSortOrder()) {
+            String expression = sortColumns.get(sortColumn);
+            if (expression != null) {
+                column = expression;
+                ascending = sortColumn.getSortType() == TableColumn.SortType.ASCENDING;
+                break;
+            }
+        }
+        reorder(new Order(column, ascending, order.filter()));
+    }
+
+    /** Ustawia filtr tekstowy i wczytuje tabelę od nowa, jeśli się zmienił. */
+    private void applyFilter(String text) {
+        String filter = text == null ? "" : text.trim();
+        reorder(new Order(order.column(), order.ascending(), filter));
+    }
+
+    private void reorder(Order requested) {
+        if (requested.equals(order)) {
+            return;
+        }
+        order = requested;
+        // Tabela jeszcze niewczytana zostanie wczytana przy wyświetleniu sekcji
+        if (generation > 0) {
+            reload();
+        }
+    }
+
+    /** Zwraca indeks pierwszego widocznego wiersza lub -1, gdy tabela nie jest jeszcze wyświetlona. */
+    private int firstVisibleIndex() {
+        if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> flow && flow.getFirstVisibleCell() != null) {
+            return flow.getFirstVisibleCell().getIndex();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.silowniaprojekt;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Haszowanie i weryfikacja haseł użytkowników algorytmem BCrypt.
+ *
+ * Koszt haszowania ({@link #WORK_FACTOR}) jest zapisany w samym haszu, więc
+ * po jego podniesieniu istniejące hasła nadal działają, a przy najbliższym
+ * logowaniu są haszowane ponownie z nowym kosztem ({@link #needsRehash}).
+ * Hasła zapisane wcześniej otwartym tekstem są weryfikowane bezpośrednio
+ * i również zastępowane haszem przy logowaniu.
+ *
+ * Weryfikacja celowo trwa kilkadziesiąt milisekund i dłużej, dlatego nie
+ * należy jej wywoływać z wątku JavaFX. Czas weryfikacji dla poszczególnych
+ * kosztów na danym sprzęcie wypisuje {@link #main(String[])}.
+ */
+public final class PasswordHasher {
+
+    /**
+     * Koszt haszowania BCrypt (log2 liczby rund).
+     * Można go zmienić właściwością systemową {@code silownia.bcrypt.cost}.
+     */
+    public static final int WORK_FACTOR = Integer.getInteger("silownia.bcrypt.cost", 10);
+
+    /**
+     * Hasz zastępczy z kosztem {@link #WORK_FACTOR}, weryfikowany przy logowaniu
+     * na nieistniejące konto. Tworzony przy pierwszym użyciu klasy.
+     */
+    private static final String UNKNOWN_ACCOUNT_HASH = hash("brak-konta");
+
+    /** Liczba weryfikacji mierzonych dla każdego kosztu w {@link #main(String[])}. */
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Haszuje hasło z kosztem {@link #WORK_FACTOR}.
+     *
+     * @param password hasło w postaci jawnej
+     * @return hasz BCrypt hasła
+     */
+    public static String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(WORK_FACTOR));
+    }
+
+    /**
+     * Sprawdza hasło z wartością zapisaną w bazie danych - haszem BCrypt
+     * lub, dla starszych kont, hasłem zapisanym otwartym tekstem.
+     *
+     * @param password hasło podane przy logowaniu
+     * @param stored wartość kolumny {@code users.password}
+     * @return true, jeśli hasło jest poprawne
+     */
+    public static boolean verify(String password, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (isHash(stored)) {
+            return BCrypt.checkpw(password, stored);
+        }
+        return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Weryfikuje hasło z haszem zastępczym przy logowaniu na nieistniejące konto.
+     * Trwa tyle, co weryfikacja hasła istniejącego konta, więc czas odpowiedzi
+     * nie zdradza, czy konto o podanym adresie istnieje.
+     *
+     * @param password hasło podane przy logowaniu
+     * @return zawsze false
+     */
+    public static boolean verifyUnknownAccount(String password) {
+        BCrypt.checkpw(password, UNKNOWN_ACCOUNT_HASH);
+        return false;
+    }
+
+    /**
+     * Sprawdza, czy zapisane hasło należy zahaszować ponownie - gdy nie jest
+     * haszem BCrypt albo jego koszt jest niższy niż {@link #WORK_FACTOR}.
+     *
+     * @param stored wartość kolumny {@code users.password}
+     * @return true, jeśli hasło należy zapisać ponownie
+     */
+    public static boolean needsRehash(String stored) {
+        return !isHash(stored) || cost(stored) < WORK_FACTOR;
+    }
+
+    /** Sprawdza, czy wartość ma postać haszu BCrypt w wersji obsługiwanej przez jBCrypt ({@code $2a$10$...}). */
+    private static boolean isHash(String stored) {
+        return stored.length() == 60 && stored.matches("\\$2a\\$\\d{2}\\$.*");
+    }
+
+    /** Odczytuje koszt zapisany w haszu BCrypt. */
+    private static int cost(String hash) {
+        return Integer.parseInt(hash.substring(4, 6));
+    }
+
+    /**
+     * Mierzy czas weryfikacji hasła dla kolejnych kosztów haszowania,
+     * co pozwala dobrać {@link #WORK_FACTOR} do sprzętu.
+     * Bez argumentów mierzy koszty 8-14, z dwoma argumentami - podany zakres.
+     *
+     * @param args opcjonalny najniższy i najwyższy mierzony koszt
+     */
+    public static void main(String[] args) {
+        int minCost = args.length >= 2 ? Integer.parseInt(args[0]) : 8;
+        int maxCost = args.length >= 2 ? Integer.parseInt(args[1]) : 14;
+        String password = "benchmark-haslo";
+
+        // Rozgrzewka JIT przed pomiarami
+        BCrypt.checkpw(password, BCrypt.hashpw(password, BCrypt.gensalt(minCost)));
+
+        System.out.println("Koszt | weryfikacja (średnio z " + BENCHMARK_ROUNDS + ")");
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            String hash = BCrypt.hashpw(password, BCrypt.gensalt(cost));
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+                BCrypt.checkpw(password, hash);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / BENCHMARK_ROUNDS;
+            System.out.printf("%5d | %8.1f ms%s%n", cost, millis, cost == WORK_FACTOR ? "  (bieżący)" : "");
+        }
+    }
+}
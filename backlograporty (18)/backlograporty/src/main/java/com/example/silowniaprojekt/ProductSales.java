@@ -0,0 +1,250 @@
+package com.example.silowniaprojekt;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sprzedaż produktów z magazynu siłowni.
+ *
+ * Sprzedaż to jedna transakcja: warunkowe zmniejszenie stanu magazynowego
+ * ({@code UPDATE ... WHERE stock >= ?}), zapis w tabeli {@code transactions}
+ * i w zestawieniu przychodów ({@link RevenueRollup}). Stan sprawdzany jest
+ * w bazie danych pod blokadą wiersza produktu, a nie na podstawie wartości
+ * wczytanej wcześniej do listy wyboru, więc dwa stanowiska sprzedające
+ * jednocześnie ostatnią sztukę nie sprzedadzą jej dwukrotnie. Zamówienie
+ * z koszyka ({@link #checkout}) zapisywane jest tak samo, jedną transakcją
+ * z zapytaniami wsadowymi.
+ *
+ * Transakcja wycofana przez bazę z powodu rywalizacji o blokady (zakleszczenie,
+ * przekroczony czas oczekiwania) jest ponawiana z rosnącym, losowanym opóźnieniem.
+ * Metody wykonują zapytania w bieżącym wątku - panele wywołują je w tle
+ * ({@link QueryScope#submit}).
+ */
+public final class ProductSales {
+
+    /** Maksymalna liczba prób sprzedaży przy rywalizacji o blokady. */
+    private static final int MAX_ATTEMPTS = 5;
+
+    /** Opóźnienie przed pierwszym ponowieniem; podwajane przy kolejnych. */
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+    /** Kody błędów MySQL: przekroczony czas oczekiwania na blokadę i zakleszczenie. */
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transactions (client_id, product_id, transaction_date, amount) VALUES (?, ?, ?, ?)";
+
+    private ProductSales() {
+    }
+
+    /**
+     * Sprzedaż produktu w ramach transakcji.
+     *
+     * @param productId identyfikator produktu
+     * @param quantity liczba sztuk
+     * @param unitPrice kwota sprzedaży jednej sztuki
+     */
+    private record Sale(int productId, int quantity, BigDecimal unitPrice) {
+    }
+
+    /**
+     * Sprzedaje klientowi jedną sztukę produktu.
+     *
+     * @param clientId identyfikator klienta
+     * @param productId identyfikator produktu
+     * @param amount kwota sprzedaży
+     * @param date data sprzedaży
+     * @return true, jeśli sprzedaż została zapisana; false, jeśli produktu nie ma w magazynie
+     * @throws SQLException w przypadku błędu bazy danych (również po wyczerpaniu ponowień)
+     */
+    public static boolean sell(int clientId, int productId, BigDecimal amount, LocalDateTime date) throws SQLException {
+        List<Sale> sales = List.of(new Sale(productId, 1, amount));
+        return withRetry(conn -> record(conn, clientId, sales, date));
+    }
+
+    /**
+     * Produkt z katalogu sklepu.
+     *
+     * @param id identyfikator produktu
+     * @param price cena produktu (kolumna {@code products.price})
+     */
+    private record CatalogProduct(int id, BigDecimal price) {
+    }
+
+    /**
+     * Zapisuje zamówienie z koszyka jedną transakcją: zmniejszenie stanów
+     * magazynowych, transakcje (po jednej na sztukę) i zestawienie przychodów
+     * wysyłane są wsadowo, więc liczba zapytań nie zależy od wielkości koszyka.
+     * Zamówienie jest zapisywane w całości albo wcale. Kwoty sprzedaży pochodzą
+     * z cen w katalogu ({@code products.price}); ceny pozycji muszą się z nimi
+     * zgadzać (pozycje wycenione przez {@link #quote}), inaczej zamówienie jest
+     * odrzucane, aby klient nie zapłacił innej kwoty niż zatwierdzona.
+     *
+     * @param clientId identyfikator klienta
+     * @param items pozycje koszyka w cenach z katalogu
+     * @param date data sprzedaży
+     * @return true, jeśli zamówienie zostało zapisane; false, jeśli któregoś produktu
+     *         brakuje w magazynie w zamówionej liczbie sztuk
+     * @throws SQLException w przypadku błędu bazy danych, produktu spoza oferty
+     *         lub ceny niezgodnej z katalogiem
+     */
+    public static boolean checkout(int clientId, List<ShoppingCart.Item> items, LocalDateTime date) throws SQLException {
+        if (items.isEmpty()) {
+            return true;
+        }
+        return withRetry(conn -> {
+            Map<String, CatalogProduct> catalog = catalog(conn, items);
+            List<Sale> sales = new ArrayList<>(items.size());
+            for (ShoppingCart.Item item : items) {
+                CatalogProduct product = catalog.get(item.productName());
+                if (product == null) {
+                    throw new SQLException("Produkt niedostępny w sklepie: " + item.productName());
+                }
+                if (product.price().compareTo(item.unitPrice()) != 0) {
+                    throw new SQLException("Cena produktu " + item.productName()
+                            + " zmieniła się (" + product.price() + " zł) - sprawdź koszyk ponownie");
+                }
+                sales.add(new Sale(product.id(), item.quantity(), product.price()));
+            }
+            return record(conn, clientId, sales, date);
+        });
+    }
+
+    /**
+     * Wycenia pozycje koszyka według cen w katalogu ({@code products.price}),
+     * np. do pokazania klientowi przed złożeniem zamówienia ({@link #checkout}).
+     *
+     * @param items pozycje koszyka
+     * @return pozycje w tej samej kolejności, z ceną jednej sztuki z katalogu
+     * @throws SQLException w przypadku błędu bazy danych lub produktu spoza oferty
+     */
+    public static List<ShoppingCart.Item> quote(List<ShoppingCart.Item> items) throws SQLException {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Map<String, CatalogProduct> catalog = AsyncQueryExecutor.execute(conn -> catalog(conn, items));
+        List<ShoppingCart.Item> quoted = new ArrayList<>(items.size());
+        for (ShoppingCart.Item item : items) {
+            CatalogProduct product = catalog.get(item.productName());
+            if (product == null) {
+                throw new SQLException("Produkt niedostępny w sklepie: " + item.productName());
+            }
+            quoted.add(new ShoppingCart.Item(item.productName(), product.price(), item.quantity()));
+        }
+        return quoted;
+    }
+
+    /** Wykonuje próbę sprzedaży, ponawiając ją przy rywalizacji o blokady. */
+    private static boolean withRetry(AsyncQueryExecutor.Query<Boolean> attempt) throws SQLException {
+        for (int i = 1; ; i++) {
+            try {
+                return AsyncQueryExecutor.execute(attempt);
+            } catch (SQLException e) {
+                if (!isLockContention(e) || i == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                backOff(i);
+            }
+        }
+    }
+
+    /** Zwraca identyfikatory i ceny produktów koszyka według nazwy (jedno zapytanie). */
+    private static Map<String, CatalogProduct> catalog(Connection conn, List<ShoppingCart.Item> items) throws SQLException {
+        Map<String, CatalogProduct> products = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name, price FROM products WHERE name IN ("
+                + String.join(", ", Collections.nCopies(items.size(), "?")) + ")")) {
+            for (int i = 0; i < items.size(); i++) {
+                stmt.setString(i + 1, items.get(i).productName());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.put(rs.getString("name"), new CatalogProduct(rs.getInt("id"), rs.getBigDecimal("price")));
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Jedna próba zapisu sprzedaży; niezatwierdzona transakcja jest wycofywana
+     * przy zwrocie połączenia do puli. Stany zmniejszane są w kolejności
+     * identyfikatorów produktów, aby równoległe zamówienia blokowały wiersze
+     * w tej samej kolejności.
+     */
+    private static boolean record(Connection conn, int clientId, List<Sale> sales, LocalDateTime date) throws SQLException {
+        conn.setAutoCommit(false);
+        List<Sale> ordered = new ArrayList<>(sales);
+        ordered.sort(Comparator.comparingInt(Sale::productId));
+
+        try (PreparedStatement stmt = conn.prepareStatement(DECREMENT_STOCK_SQL)) {
+            for (Sale sale : ordered) {
+                stmt.setInt(1, sale.quantity());
+                stmt.setInt(2, sale.productId());
+                stmt.setInt(3, sale.quantity());
+                stmt.addBatch();
+            }
+            for (int updated : stmt.executeBatch()) {
+                if (updated == 0) {
+                    return false;
+                }
+            }
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(date);
+        Map<Integer, RevenueRollup.Sales> revenue = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+            for (Sale sale : ordered) {
+                for (int i = 0; i < sale.quantity(); i++) {
+                    stmt.setInt(1, clientId);
+                    stmt.setInt(2, sale.productId());
+                    stmt.setTimestamp(3, timestamp);
+                    stmt.setBigDecimal(4, sale.unitPrice());
+                    stmt.addBatch();
+                }
+                revenue.merge(sale.productId(),
+                        new RevenueRollup.Sales(sale.quantity(), sale.unitPrice().multiply(BigDecimal.valueOf(sale.quantity()))),
+                        (a, b) -> new RevenueRollup.Sales(a.count() + b.count(), a.amount().add(b.amount())));
+            }
+            stmt.executeBatch();
+        }
+        RevenueRollup.recordProductSales(conn, date, revenue);
+        conn.commit();
+        return true;
+    }
+
+    /** Sprawdza, czy transakcja została wycofana przez rywalizację o blokady i może zostać ponowiona. */
+    static boolean isLockContention(SQLException e) {
+        return e instanceof SQLTransactionRollbackException
+                || e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                || e.getErrorCode() == ER_LOCK_DEADLOCK;
+    }
+
+    /** Czeka przed ponowieniem: losowo do {@code BASE_BACKOFF_MILLIS * 2^(attempt-1)} ms. */
+    private static void backOff(int attempt) throws SQLException {
+        long bound = BASE_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(bound / 2 + ThreadLocalRandom.current().nextLong(bound / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Przerwano ponawianie sprzedaży", e);
+        }
+    }
+}
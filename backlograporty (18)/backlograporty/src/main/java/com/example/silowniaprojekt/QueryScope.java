@@ -0,0 +1,201 @@
+package com.example.silowniaprojekt;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Grupa asynchronicznych zapytań należących do jednego widoku lub sekcji panelu.
+ *
+ * Zapytania uruchamiane są przez {@link AsyncQueryExecutor}, a ich wyniki
+ * przekazywane do interfejsu użytkownika na wątku JavaFX ({@link Platform#runLater}).
+ * Na czas ładowania tabela docelowa wyświetla wskaźnik postępu. Wywołanie
+ * {@link #cancelAll()} (np. przy przejściu do innej sekcji) anuluje trwające
+ * zapytania i odrzuca ich wyniki.
+ *
+ * Metody klasy należy wywoływać z wątku JavaFX.
+ */
+public final class QueryScope {
+
+    /** Klucz we właściwościach tabeli przechowujący liczbę trwających ładowań. */
+    private static final String LOADING_COUNT_KEY = "silownia.loading.count";
+
+    /** Klucz we właściwościach tabeli przechowujący pierwotny placeholder. */
+    private static final String PLACEHOLDER_KEY = "silownia.loading.placeholder";
+
+    /** Zapytania uruchomione w tej grupie, które jeszcze się nie zakończyły. */
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+
+    /**
+     * Uruchamia zapytanie w tle i przekazuje jego wynik na wątek JavaFX.
+     *
+     * @param table tabela, w której wyświetlany jest wskaźnik ładowania (może być null)
+     * @param query zapytanie do wykonania
+     * @param onSuccess obsługa wyniku, wywoływana na wątku JavaFX
+     * @param onError obsługa błędu, wywoływana na wątku JavaFX
+     * @param <T> typ wyniku zapytania
+     * @return przyszłość zakończona po przekazaniu wyniku do {@code onSuccess}
+     */
+    public <T> CompletableFuture<T> load(TableView<?> table, AsyncQueryExecutor.Query<T> query,
+                                         Consumer<? super T> onSuccess, Consumer<? super Throwable> onError) {
+        return track(table, AsyncQueryExecutor.supply(query), onSuccess, onError);
+    }
+
+    /**
+     * Przekazuje wynik dowolnej operacji w tle na wątek JavaFX, na tych samych
+     * zasadach co {@link #load}.
+     *
+     * @param table tabela, w której wyświetlany jest wskaźnik ładowania (może być null)
+     * @param work operacja uruchomiona w tle
+     * @param onSuccess obsługa wyniku, wywoływana na wątku JavaFX
+     * @param onError obsługa błędu, wywoływana na wątku JavaFX
+     * @param <T> typ wyniku operacji
+     * @return przyszłość zakończona po przekazaniu wyniku do {@code onSuccess}
+     */
+    public <T> CompletableFuture<T> track(TableView<?> table, CompletableFuture<T> work,
+                                          Consumer<? super T> onSuccess, Consumer<? super Throwable> onError) {
+        CompletableFuture<T> published = new CompletableFuture<>();
+        published.whenComplete((value, error) -> {
+            if (published.isCancelled()) {
+                work.cancel(true);
+            }
+        });
+        pending.add(published);
+        showLoading(table);
+
+        work.whenComplete((value, error) -> Platform.runLater(() -> {
+            pending.remove(published);
+            hideLoading(table);
+            if (published.isDone()) {
+                return; // anulowane - wynik jest odrzucany
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException) {
+                published.cancel(false);
+            } else if (cause != null) {
+                onError.accept(cause);
+                published.completeExceptionally(cause);
+            } else {
+                onSuccess.accept(value);
+                published.complete(value);
+            }
+        }));
+        return published;
+    }
+
+    /**
+     * Wykonuje w tle zapis wywołany kontrolką (np. przyciskiem). Kontrolka jest
+     * wyłączona do zakończenia zapisu, co zapobiega jego ponownemu wysłaniu.
+     * Zapisy należy uruchamiać w grupie, która nie jest anulowana przy zmianie
+     * sekcji, aby nie przerywać transakcji w trakcie.
+     *
+     * @param trigger kontrolka wywołująca zapis (może być null)
+     * @param query zapis do wykonania
+     * @param onSuccess obsługa wyniku, wywoływana na wątku JavaFX
+     * @param onError obsługa błędu, wywoływana na wątku JavaFX
+     * @param <T> typ wyniku zapisu
+     * @return przyszłość zakończona po przekazaniu wyniku do {@code onSuccess}
+     */
+    public <T> CompletableFuture<T> submit(Node trigger, AsyncQueryExecutor.Query<T> query,
+                                           Consumer<? super T> onSuccess, Consumer<? super Throwable> onError) {
+        return submit(trigger, () -> AsyncQueryExecutor.execute(query), onSuccess, onError);
+    }
+
+    /**
+     * Wykonuje w tle dowolną operację wywołaną kontrolką, na tych samych
+     * zasadach co {@link #submit(Node, AsyncQueryExecutor.Query, Consumer, Consumer)}.
+     *
+     * @param trigger kontrolka wywołująca operację (może być null)
+     * @param task operacja do wykonania
+     * @param onSuccess obsługa wyniku, wywoływana na wątku JavaFX
+     * @param onError obsługa błędu, wywoływana na wątku JavaFX
+     * @param <T> typ wyniku operacji
+     * @return przyszłość zakończona po przekazaniu wyniku do {@code onSuccess}
+     */
+    public <T> CompletableFuture<T> submit(Node trigger, Callable<T> task,
+                                           Consumer<? super T> onSuccess, Consumer<? super Throwable> onError) {
+        if (trigger == null) {
+            return track(null, AsyncQueryExecutor.call(task), onSuccess, onError);
+        }
+        trigger.setDisable(true);
+        // Kontrolka włączana przed obsługą wyniku (która może np. wyświetlić okno dialogowe)
+        CompletableFuture<T> published = track(null, AsyncQueryExecutor.call(task), value -> {
+            trigger.setDisable(false);
+            onSuccess.accept(value);
+        }, error -> {
+            trigger.setDisable(false);
+            onError.accept(error);
+        });
+        published.whenComplete((value, error) -> {
+            if (published.isCancelled()) {
+                trigger.setDisable(false);
+            }
+        });
+        return published;
+    }
+
+    /**
+     * Anuluje wszystkie trwające zapytania tej grupy. Ich wyniki nie zostaną
+     * przekazane do interfejsu użytkownika.
+     */
+    public void cancelAll() {
+        for (CompletableFuture<?> future : new ArrayList<>(pending)) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Sprawdza, czy w grupie trwają jakiekolwiek zapytania.
+     *
+     * @return true, jeśli co najmniej jedno zapytanie nie zostało zakończone
+     */
+    public boolean isLoading() {
+        return !pending.isEmpty();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static void showLoading(TableView<?> table) {
+        if (table == null) {
+            return;
+        }
+        int count = (Integer) table.getProperties().getOrDefault(LOADING_COUNT_KEY, 0);
+        if (count == 0) {
+            Node placeholder = table.getPlaceholder();
+            if (placeholder != null) {
+                table.getProperties().put(PLACEHOLDER_KEY, placeholder);
+            }
+            ProgressIndicator indicator = new ProgressIndicator();
+            indicator.setMaxSize(40, 40);
+            table.setPlaceholder(indicator);
+        }
+        table.getProperties().put(LOADING_COUNT_KEY, count + 1);
+    }
+
+    private static void hideLoading(TableView<?> table) {
+        if (table == null) {
+            return;
+        }
+        int count = (Integer) table.getProperties().getOrDefault(LOADING_COUNT_KEY, 1) - 1;
+        if (count <= 0) {
+            table.getProperties().remove(LOADING_COUNT_KEY);
+            table.setPlaceholder((Node) table.getProperties().remove(PLACEHOLDER_KEY));
+        } else {
+            table.getProperties().put(LOADING_COUNT_KEY, count);
+        }
+    }
+}
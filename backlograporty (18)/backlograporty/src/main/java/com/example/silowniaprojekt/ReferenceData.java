@@ -0,0 +1,227 @@
+package com.example.silowniaprojekt;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Wspólne dla całej aplikacji dane słownikowe zadań trenerów: priorytety
+ * (tabela {@code priorities}) i statusy (tabela {@code statuses}).
+ *
+ * Dane wczytywane są raz - w tle przy starcie aplikacji ({@link Main#init()})
+ * lub przy pierwszym użyciu ({@link #load()}) - do niemodyfikowalnej migawki
+ * ({@link Snapshot}) z wyszukiwaniem po identyfikatorze i po nazwie w czasie stałym.
+ * Panele nie odpytują już bazy przy każdym logowaniu ani nie przeszukują list.
+ * Po zmianie słowników w bazie migawkę wymienia {@link #reload()}.
+ *
+ * Migawka jest niezmienna, więc można z niej korzystać z dowolnego wątku.
+ */
+public final class ReferenceData {
+
+    /** Nazwa priorytetu przypisywanego nowym zadaniom trenera. */
+    public static final String DEFAULT_PRIORITY = "Pośrednie";
+
+    /** Nazwa statusu przypisywanego nowym zadaniom trenera. */
+    public static final String DEFAULT_STATUS = "do zrobienia";
+
+    /**
+     * Pozycja słownika.
+     *
+     * @param id identyfikator pozycji
+     * @param name nazwa pozycji
+     */
+    public record Entry(int id, String name) {
+        /**
+         * Zwraca nazwę pozycji wyświetlaną w listach wyboru.
+         *
+         * @return nazwa pozycji
+         */
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Niezmienny słownik z wyszukiwaniem po identyfikatorze i po nazwie.
+     *
+     * @param entries pozycje w kolejności identyfikatorów
+     * @param byId pozycje według identyfikatora
+     * @param byName pozycje według nazwy
+     */
+    public record Dictionary(List<Entry> entries, Map<Integer, Entry> byId, Map<String, Entry> byName) {
+
+        private static Dictionary of(List<Entry> entries) {
+            Map<Integer, Entry> byId = new HashMap<>();
+            Map<String, Entry> byName = new HashMap<>();
+            for (Entry entry : entries) {
+                byId.put(entry.id(), entry);
+                byName.put(entry.name(), entry);
+            }
+            return new Dictionary(List.copyOf(entries), Map.copyOf(byId), Map.copyOf(byName));
+        }
+
+        /**
+         * Zwraca pozycję o podanym identyfikatorze.
+         *
+         * @param id identyfikator pozycji
+         * @return pozycja lub null, jeśli nie istnieje
+         */
+        public Entry byId(int id) {
+            return byId.get(id);
+        }
+
+        /**
+         * Zwraca pozycję o podanej nazwie.
+         *
+         * @param name nazwa pozycji
+         * @return pozycja lub null, jeśli nie istnieje
+         */
+        public Entry byName(String name) {
+            return byName.get(name);
+        }
+
+        /**
+         * Zwraca nazwę pozycji o podanym identyfikatorze.
+         *
+         * @param id identyfikator pozycji
+         * @return nazwa pozycji lub "Nieznany", jeśli nie istnieje
+         */
+        public String nameOf(int id) {
+            Entry entry = byId.get(id);
+            return entry != null ? entry.name() : "Nieznany";
+        }
+
+        /**
+         * Zwraca identyfikator pozycji o podanej nazwie.
+         *
+         * @param name nazwa pozycji
+         * @return identyfikator pozycji
+         * @throws SQLException jeśli pozycja nie istnieje w bazie danych
+         */
+        public int idOf(String name) throws SQLException {
+            Entry entry = byName.get(name);
+            if (entry == null) {
+                throw new SQLException("Brak pozycji '" + name + "' w danych słownikowych.");
+            }
+            return entry.id();
+        }
+    }
+
+    /**
+     * Wczytane dane słownikowe.
+     *
+     * @param priorities priorytety zadań
+     * @param statuses statusy zadań
+     */
+    public record Snapshot(Dictionary priorities, Dictionary statuses) {
+    }
+
+    private static volatile Snapshot current;
+
+    /** Ostatnio uruchomione wczytywanie (trwające lub zakończone). */
+    private static CompletableFuture<Snapshot> loading;
+
+    /** Zapytanie ostatnio uruchomionego wczytywania. */
+    private static CompletableFuture<Snapshot> latest;
+
+    private ReferenceData() {
+    }
+
+    /**
+     * Zwraca wczytane dane słownikowe, wczytując je w tle przy pierwszym wywołaniu.
+     *
+     * @return przyszłość z danymi; jej anulowanie nie przerywa wczytywania
+     */
+    public static synchronized CompletableFuture<Snapshot> load() {
+        if (loading == null || loading.isCompletedExceptionally()) {
+            start();
+        }
+        return loading.copy();
+    }
+
+    /**
+     * Wczytuje dane słownikowe ponownie (np. po zmianie tabel słownikowych).
+     * Do czasu zakończenia {@link #current()} zwraca poprzednią migawkę.
+     *
+     * @return przyszłość z nowymi danymi; jej anulowanie nie przerywa wczytywania
+     */
+    public static synchronized CompletableFuture<Snapshot> reload() {
+        start();
+        return loading.copy();
+    }
+
+    /**
+     * Zwraca bieżące dane słownikowe bez odwoływania się do bazy danych.
+     *
+     * @return migawka danych lub null, jeśli nie zostały jeszcze wczytane
+     */
+    public static Snapshot current() {
+        return current;
+    }
+
+    /**
+     * Zwraca nazwę priorytetu z bieżących danych słownikowych.
+     *
+     * @param id identyfikator priorytetu
+     * @return nazwa priorytetu lub "Nieznany", jeśli nie istnieje lub dane nie zostały wczytane
+     */
+    public static String priorityName(int id) {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot.priorities().nameOf(id) : "Nieznany";
+    }
+
+    /**
+     * Zwraca nazwę statusu z bieżących danych słownikowych.
+     *
+     * @param id identyfikator statusu
+     * @return nazwa statusu lub "Nieznany", jeśli nie istnieje lub dane nie zostały wczytane
+     */
+    public static String statusName(int id) {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot.statuses().nameOf(id) : "Nieznany";
+    }
+
+    private static void start() {
+        // Wywoływana pod blokadą klasy, więc wynik nie zostanie zastosowany przed przypisaniem 'latest'
+        CompletableFuture<Snapshot> fetched = AsyncQueryExecutor.supply(ReferenceData::fetch);
+        latest = fetched;
+        loading = fetched.thenApply(snapshot -> {
+            synchronized (ReferenceData.class) {
+                // Wynik starszego wczytywania nie nadpisuje wyniku ponownego
+                if (latest == fetched) {
+                    current = snapshot;
+                }
+            }
+            return snapshot;
+        });
+        loading.whenComplete((snapshot, error) -> {
+            if (error != null) {
+                System.err.println("Błąd ładowania priorytetów/statusów: " + error.getMessage());
+            }
+        });
+    }
+
+    private static Snapshot fetch(Connection conn) throws SQLException {
+        return new Snapshot(
+                query(conn, "SELECT priority_id AS id, priority_name AS name FROM priorities ORDER BY priority_id"),
+                query(conn, "SELECT status_id AS id, status_name AS name FROM statuses ORDER BY status_id"));
+    }
+
+    private static Dictionary query(Connection conn, String sql) throws SQLException {
+        List<Entry> entries = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                entries.add(new Entry(rs.getInt("id"), rs.getString("name")));
+            }
+        }
+        return Dictionary.of(entries);
+    }
+}
@@ -17,17 +17,23 @@ import com.itextpdf.layout.properties.UnitValue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Generator raportów dla systemu zarządzania siłownią.
@@ -58,6 +64,131 @@ public class ReportGenerator {
     /** Email użytkownika generującego raport */
     private static String userEmail;
 
+    /**
+     * Liczba transakcji, powyżej której raport transakcji generowany jest strumieniowo
+     * (wiersze zapisywane do PDF w trakcie odczytu z bazy, bez budowania listy w pamięci).
+     * Można ją zmienić właściwością systemową {@code silownia.report.streaming.threshold}.
+     */
+    private static final int STREAMING_THRESHOLD =
+            Integer.getInteger("silownia.report.streaming.threshold", 5_000);
+
+    /** Kodowania czcionki z obsługą polskich znaków, w kolejności prób. */
+    private static final String[] FONT_ENCODINGS = {PdfEncodings.CP1250, PdfEncodings.IDENTITY_H, "windows-1250"};
+
+    /** Oznaczenie domyślnego kodowania czcionki (gdy żadne z {@link #FONT_ENCODINGS} nie działa). */
+    private static final String DEFAULT_FONT_ENCODING = "";
+
+    /** Kodowanie czcionki wybrane przy pierwszym raporcie; null - jeszcze nie ustalone. */
+    private static volatile String resolvedFontEncoding;
+
+    /** Co ile wierszy tabela strumieniowa jest zapisywana do dokumentu i zwalniana z pamięci. */
+    private static final int STREAMING_FLUSH_ROWS = 200;
+
+    /**
+     * Odbiorca informacji o postępie generowania raportu.
+     *
+     * Wywoływany w wątku generującym raport po pobraniu danych i po każdej
+     * sekcji dokumentu. Odbiorca może przerwać generowanie, zgłaszając wyjątek
+     * niekontrolowany (np. {@link java.util.concurrent.CancellationException}).
+     */
+    @FunctionalInterface
+    public interface ReportProgress {
+        /** Odbiorca ignorujący postęp. */
+        ReportProgress NONE = (rowsFetched, pagesRendered) -> { };
+
+        /**
+         * Przekazuje bieżący postęp raportu.
+         *
+         * @param rowsFetched liczba wierszy pobranych dotąd z bazy danych
+         * @param pagesRendered liczba stron dokumentu utworzonych dotąd
+         */
+        void update(int rowsFetched, int pagesRendered);
+    }
+
+    /**
+     * Czasy poszczególnych etapów generowania raportu.
+     *
+     * Zapytania raportu uruchamiane są równolegle i w trakcie układania
+     * dokumentu, więc czas pobierania oznacza czas, przez który generowanie
+     * czekało na dane z bazy, a nie łączny czas wykonywania zapytań.
+     * Układ obejmuje tworzenie elementów dokumentu (wraz z zapisem gotowych
+     * stron), a zapis - zamknięcie dokumentu i zapis pozostałej części pliku.
+     */
+    public static final class ReportTimings {
+        private final long startedAt = System.nanoTime();
+        private long mark = startedAt;
+        private long fetchNanos;
+        private long layoutNanos;
+        private long writeNanos;
+
+        private ReportTimings() {
+        }
+
+        /** Zalicza czas od poprzedniego punktu pomiaru do pobierania danych. */
+        private void fetched() {
+            fetchNanos += lap();
+        }
+
+        /** Zalicza czas od poprzedniego punktu pomiaru do układu dokumentu. */
+        private void laidOut() {
+            layoutNanos += lap();
+        }
+
+        /** Zalicza czas od poprzedniego punktu pomiaru do zapisu pliku. */
+        private void written() {
+            writeNanos += lap();
+        }
+
+        private long lap() {
+            long now = System.nanoTime();
+            long elapsed = now - mark;
+            mark = now;
+            return elapsed;
+        }
+
+        /**
+         * Zwraca czas oczekiwania na dane z bazy.
+         *
+         * @return czas pobierania w milisekundach
+         */
+        public long getFetchMillis() {
+            return fetchNanos / 1_000_000;
+        }
+
+        /**
+         * Zwraca czas układania dokumentu.
+         *
+         * @return czas układu w milisekundach
+         */
+        public long getLayoutMillis() {
+            return layoutNanos / 1_000_000;
+        }
+
+        /**
+         * Zwraca czas zamknięcia i zapisu dokumentu.
+         *
+         * @return czas zapisu w milisekundach
+         */
+        public long getWriteMillis() {
+            return writeNanos / 1_000_000;
+        }
+
+        /**
+         * Zwraca całkowity czas generowania raportu.
+         *
+         * @return czas całkowity w milisekundach
+         */
+        public long getTotalMillis() {
+            return (mark - startedAt) / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return "pobieranie " + getFetchMillis() + " ms, układ " + getLayoutMillis()
+                    + " ms, zapis " + getWriteMillis() + " ms";
+        }
+    }
+
     /**
      * Generuje raport finansowy w formacie PDF.
      *
@@ -72,34 +203,77 @@ public class ReportGenerator {
      * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
      */
     public static void generateFinancialReport(String period, File outputFile, String userEmail) throws IOException, SQLException {
+        generateFinancialReport(period, outputFile, userEmail, ReportProgress.NONE);
+    }
+
+    /**
+     * Generuje raport finansowy w formacie PDF, przekazując postęp do {@code progress}.
+     *
+     * Zapytania o transakcje i karnety wykonywane są równolegle, a nagłówek
+     * i sekcja transakcji układane są, zanim zakończy się pobieranie karnetów.
+     *
+     * @param period okres czasowy raportu
+     * @param outputFile plik docelowy do zapisu raportu PDF
+     * @param userEmail adres email użytkownika generującego raport
+     * @param progress odbiorca postępu generowania
+     * @return czasy etapów generowania raportu
+     * @throws IOException gdy wystąpi błąd podczas tworzenia pliku PDF
+     * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
+     */
+    public static ReportTimings generateFinancialReport(String period, File outputFile, String userEmail,
+                                                        ReportProgress progress) throws IOException, SQLException {
+        ReportTimings timings = new ReportTimings();
+        PdfFont font = createFont();
         PdfWriter writer = new PdfWriter(outputFile);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf, PageSize.A4);
         document.setMargins(50, 50, 50, 50);
 
+        // Pobieranie danych z bazy - oba zapytania od razu, w tle
+        CompletableFuture<List<TransactionData>> transactionsQuery =
+                AsyncQueryExecutor.call(() -> getTransactionsData(period));
+        CompletableFuture<List<MembershipData>> membershipsQuery =
+                AsyncQueryExecutor.call(() -> getMembershipsData(period));
+        CompletableFuture<Map<RevenueRollup.Stream, BigDecimal>> revenueQuery =
+                AsyncQueryExecutor.call(() -> getRevenueData(period));
+
         try {
             // Nagłówek raportu z emailem
-            addReportHeader(document, "Raport Finansowy", period, userEmail);
-
-            // Pobieranie danych z bazy
-            List<TransactionData> transactions = getTransactionsData(period);
-            List<MembershipData> memberships = getMembershipsData(period);
+            addReportHeader(document, font, "Raport Finansowy", period, userEmail);
+            timings.laidOut();
 
             // Sekcja transakcji (sprzedaż produktów)
-            addTransactionsSection(document, transactions);
+            List<TransactionData> transactions = await(transactionsQuery);
+            timings.fetched();
+            progress.update(transactions.size(), pdf.getNumberOfPages());
+            addTransactionsSection(document, font, transactions);
+            timings.laidOut();
 
             // Sekcja karnetów (płatności za członkostwo)
-            addMembershipsSection(document, memberships);
-
-            // Podsumowanie finansowe
-            addFinancialSummary(document, transactions, memberships);
+            List<MembershipData> memberships = await(membershipsQuery);
+            timings.fetched();
+            int rows = transactions.size() + memberships.size();
+            progress.update(rows, pdf.getNumberOfPages());
+            addMembershipsSection(document, font, memberships);
+            progress.update(rows, pdf.getNumberOfPages());
+
+            // Podsumowanie finansowe (z dziennego zestawienia przychodów)
+            Map<RevenueRollup.Stream, BigDecimal> revenue = await(revenueQuery);
+            timings.fetched();
+            addFinancialSummary(document, font, revenue);
 
             // Stopka
-            addFooter(document);
+            addFooter(document, font);
+            timings.laidOut();
 
         } finally {
+            transactionsQuery.cancel(true);
+            membershipsQuery.cancel(true);
+            revenueQuery.cancel(true);
             document.close();
         }
+        timings.written();
+        return logTimings("Raport Finansowy", timings);
     }
 
     /**
@@ -116,44 +290,152 @@ public class ReportGenerator {
      * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
      */
     public static void generateProductsReport(String period, File outputFile, String userEmail, String selectedProduct) throws IOException, SQLException {
+        generateProductsReport(period, outputFile, userEmail, selectedProduct, false, ReportProgress.NONE);
+    }
+
+    /**
+     * Generuje raport produktów w formacie PDF, przekazując postęp do {@code progress}.
+     *
+     * Statystyki sprzedaży wyliczane są w bazie danych ({@code GROUP BY}), więc
+     * do aplikacji trafia jeden wiersz na produkt. Pojedyncze transakcje pobierane
+     * są tylko wtedy, gdy raport ma zawierać ich szczegółową listę. Zapytania
+     * wykonywane są równolegle, w trakcie układania nagłówka raportu.
+     *
+     * @param period okres czasowy raportu
+     * @param outputFile plik docelowy do zapisu raportu PDF
+     * @param userEmail adres email użytkownika generującego raport
+     * @param selectedProduct nazwa produktu do filtrowania (null lub "Wszystkie" dla wszystkich produktów)
+     * @param includeDetails czy dołączyć szczegółową listę transakcji
+     * @param progress odbiorca postępu generowania
+     * @return czasy etapów generowania raportu
+     * @throws IOException gdy wystąpi błąd podczas tworzenia pliku PDF
+     * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
+     */
+    public static ReportTimings generateProductsReport(String period, File outputFile, String userEmail, String selectedProduct,
+                                                       boolean includeDetails, ReportProgress progress) throws IOException, SQLException {
+        ReportTimings timings = new ReportTimings();
+        PdfFont font = createFont();
         PdfWriter writer = new PdfWriter(outputFile);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf, PageSize.A4);
         document.setMargins(50, 50, 50, 50);
 
+        // Pobieranie danych z bazy - niezależne zapytania od razu, w tle
+        CompletableFuture<List<ProductData>> productsQuery =
+                AsyncQueryExecutor.call(ReportGenerator::getProductsData);
+        CompletableFuture<List<ProductSalesData>> salesQuery =
+                AsyncQueryExecutor.call(() -> getProductSalesData(period, selectedProduct));
+        CompletableFuture<List<TransactionData>> detailsQuery = includeDetails
+                ? AsyncQueryExecutor.call(() -> getTransactionsData(period, selectedProduct))
+                : CompletableFuture.completedFuture(List.of());
+
         try {
             // Nagłówek raportu z emailem
             String title = selectedProduct != null && !selectedProduct.equals("Wszystkie") ?
                     "Raport Produktów - " + selectedProduct : "Raport Produktów";
-            addReportHeader(document, title, period, userEmail);
+            addReportHeader(document, font, title, period, userEmail);
+            timings.laidOut();
 
-            // Pobieranie danych z bazy
-            List<ProductData> products = getProductsData();
-            List<TransactionData> transactions = getTransactionsData(period, selectedProduct);
+            List<ProductData> products = await(productsQuery);
+            List<ProductSalesData> sales = await(salesQuery);
+            timings.fetched();
+            int rows = products.size() + sales.size();
+            progress.update(rows, pdf.getNumberOfPages());
 
             // Sekcja aktualnych stanów magazynowych
             if (selectedProduct == null || selectedProduct.equals("Wszystkie")) {
-                addProductsInventorySection(document, products);
+                addProductsInventorySection(document, font, products);
             } else {
                 // Filtruj produkty jeśli wybrano konkretny
                 List<ProductData> filteredProducts = products.stream()
                         .filter(p -> p.name.equals(selectedProduct))
                         .collect(java.util.stream.Collectors.toList());
-                addProductsInventorySection(document, filteredProducts);
+                addProductsInventorySection(document, font, filteredProducts);
             }
+            progress.update(rows, pdf.getNumberOfPages());
 
             // Sekcja sprzedaży produktów
-            addProductsSalesSection(document, transactions);
+            addProductsSalesSection(document, font, sales);
+            progress.update(rows, pdf.getNumberOfPages());
+
+            // Szczegółowa lista transakcji - tylko na życzenie
+            if (includeDetails) {
+                timings.laidOut();
+                List<TransactionData> transactions = await(detailsQuery);
+                timings.fetched();
+                rows += transactions.size();
+                progress.update(rows, pdf.getNumberOfPages());
+                addDetailedTransactionsSection(document, font, transactions);
+                progress.update(rows, pdf.getNumberOfPages());
+            }
 
             // Podsumowanie
-            addProductsSummary(document, products, transactions);
+            addProductsSummary(document, font, products, sales);
 
             // Stopka
-            addFooter(document);
+            addFooter(document, font);
+            timings.laidOut();
 
         } finally {
+            productsQuery.cancel(true);
+            salesQuery.cancel(true);
+            detailsQuery.cancel(true);
             document.close();
         }
+        timings.written();
+        return logTimings("Raport Produktów", timings);
+    }
+
+    /**
+     * Pobiera statystyki sprzedaży produktów w określonym okresie.
+     *
+     * Liczba, suma i średnia kwota transakcji wyliczane są w bazie danych
+     * z grupowaniem po nazwie produktu, więc wynik ma jeden wiersz na produkt
+     * niezależnie od liczby transakcji.
+     *
+     * @param period okres czasowy do filtrowania transakcji
+     * @param selectedProduct nazwa produktu do filtrowania (null dla wszystkich)
+     * @return statystyki sprzedaży, od produktu o największej sprzedaży
+     * @throws SQLException gdy wystąpi błąd podczas wykonywania zapytania SQL
+     */
+    private static List<ProductSalesData> getProductSalesData(String period, String selectedProduct) throws SQLException {
+        List<ProductSalesData> sales = new ArrayList<>();
+        LocalDate[] dateRange = getDateRangeForPeriod(period);
+        boolean filterProduct = selectedProduct != null && !selectedProduct.equals("Wszystkie");
+
+        String query = """
+        SELECT p.name AS product_name, COUNT(*) AS sales_count,
+               SUM(t.amount) AS total_amount, AVG(t.amount) AS average_amount
+        FROM transactions t
+        JOIN products p ON t.product_id = p.id
+        WHERE t.transaction_date >= ? AND t.transaction_date < ?
+        """ + (filterProduct ? " AND p.name = ?" : "") + """
+        GROUP BY p.name
+        ORDER BY total_amount DESC
+        """;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            setDateRange(stmt, 1, dateRange[0], dateRange[1]);
+
+            if (filterProduct) {
+                stmt.setString(3, selectedProduct);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new ProductSalesData(
+                            rs.getString("product_name"),
+                            rs.getInt("sales_count"),
+                            rs.getDouble("total_amount"),
+                            rs.getDouble("average_amount")
+                    ));
+                }
+            }
+        }
+
+        return sales;
     }
 
     /**
@@ -176,7 +458,7 @@ public class ReportGenerator {
         FROM transactions t
         JOIN users u ON t.client_id = u.id
         JOIN products p ON t.product_id = p.id
-        WHERE DATE(t.transaction_date) BETWEEN ? AND ?
+        WHERE t.transaction_date >= ? AND t.transaction_date < ?
         """ + (selectedProduct != null && !selectedProduct.equals("Wszystkie") ? " AND p.name = ?" : "") + """
         ORDER BY t.transaction_date DESC
         """;
@@ -184,8 +466,7 @@ public class ReportGenerator {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setString(1, startDate.toString());
-            stmt.setString(2, endDate.toString());
+            setDateRange(stmt, 1, startDate, endDate);
 
             if (selectedProduct != null && !selectedProduct.equals("Wszystkie")) {
                 stmt.setString(3, selectedProduct);
@@ -247,37 +528,73 @@ public class ReportGenerator {
      * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
      */
     public static void generateMembershipReport(String period, File outputFile, String userEmail) throws IOException, SQLException {
+        generateMembershipReport(period, outputFile, userEmail, ReportProgress.NONE);
+    }
+
+    /**
+     * Generuje raport karnetów w formacie PDF, przekazując postęp do {@code progress}.
+     *
+     * @param period okres czasowy raportu
+     * @param outputFile plik docelowy do zapisu raportu PDF
+     * @param userEmail adres email użytkownika generującego raport
+     * @param progress odbiorca postępu generowania
+     * @return czasy etapów generowania raportu
+     * @throws IOException gdy wystąpi błąd podczas tworzenia pliku PDF
+     * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
+     */
+    public static ReportTimings generateMembershipReport(String period, File outputFile, String userEmail,
+                                                         ReportProgress progress) throws IOException, SQLException {
+        ReportTimings timings = new ReportTimings();
+        PdfFont font = createFont();
         PdfWriter writer = new PdfWriter(outputFile);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf, PageSize.A4);
         document.setMargins(50, 50, 50, 50);
 
+        // Pobieranie danych z bazy - w tle, w trakcie układania nagłówka
+        CompletableFuture<List<MembershipData>> membershipsQuery =
+                AsyncQueryExecutor.call(() -> getMembershipsData(period));
+        CompletableFuture<Map<RevenueRollup.Stream, BigDecimal>> revenueQuery =
+                AsyncQueryExecutor.call(() -> getRevenueData(period));
+
         try {
             // Nagłówek raportu z emailem
-            addReportHeader(document, "Raport Karnetów", period, userEmail);
+            addReportHeader(document, font, "Raport Karnetów", period, userEmail);
+            timings.laidOut();
 
-            // Pobieranie danych z bazy
-            List<MembershipData> memberships = getMembershipsData(period);
+            List<MembershipData> memberships = await(membershipsQuery);
+            timings.fetched();
+            progress.update(memberships.size(), pdf.getNumberOfPages());
 
             // Sekcja płatności członkowskich
-            addDetailedMembershipsSection(document, memberships);
+            addDetailedMembershipsSection(document, font, memberships);
+            progress.update(memberships.size(), pdf.getNumberOfPages());
 
-            // Podsumowanie
-            addMembershipSummary(document, memberships);
+            // Podsumowanie (przychody z dziennego zestawienia przychodów)
+            Map<RevenueRollup.Stream, BigDecimal> revenue = await(revenueQuery);
+            timings.fetched();
+            addMembershipSummary(document, font, memberships, revenue.get(RevenueRollup.Stream.MEMBERSHIPS));
 
             // Stopka
-            addFooter(document);
+            addFooter(document, font);
+            timings.laidOut();
 
         } finally {
+            membershipsQuery.cancel(true);
+            revenueQuery.cancel(true);
             document.close();
         }
+        timings.written();
+        return logTimings("Raport Karnetów", timings);
     }
 
     /**
      * Generuje raport transakcji w formacie PDF.
      *
      * Raport zawiera szczegółową listę wszystkich transakcji w określonym okresie
-     * wraz z analizą statystyczną i podsumowaniem.
+     * wraz z analizą statystyczną i podsumowaniem. Gdy liczba transakcji przekracza
+     * {@link #STREAMING_THRESHOLD}, wiersze są zapisywane do PDF strumieniowo,
+     * więc zużycie pamięci nie zależy od liczby transakcji.
      *
      * @param period okres czasowy raportu
      * @param outputFile plik docelowy do zapisu raportu PDF
@@ -286,60 +603,170 @@ public class ReportGenerator {
      * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
      */
     public static void generateTransactionsReport(String period, File outputFile, String userEmail) throws IOException, SQLException {
+        generateTransactionsReport(period, outputFile, userEmail, ReportProgress.NONE);
+    }
+
+    /**
+     * Generuje raport transakcji w formacie PDF, przekazując postęp do {@code progress}.
+     *
+     * @param period okres czasowy raportu
+     * @param outputFile plik docelowy do zapisu raportu PDF
+     * @param userEmail adres email użytkownika generującego raport
+     * @param progress odbiorca postępu generowania
+     * @return czasy etapów generowania raportu
+     * @throws IOException gdy wystąpi błąd podczas tworzenia pliku PDF
+     * @throws SQLException gdy wystąpi błąd podczas pobierania danych z bazy
+     */
+    public static ReportTimings generateTransactionsReport(String period, File outputFile, String userEmail,
+                                                           ReportProgress progress) throws IOException, SQLException {
+        ReportTimings timings = new ReportTimings();
+        PdfFont font = createFont();
         PdfWriter writer = new PdfWriter(outputFile);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf, PageSize.A4);
         document.setMargins(50, 50, 50, 50);
 
+        // Liczba transakcji decyduje o sposobie generowania - liczona w trakcie układania nagłówka
+        CompletableFuture<Integer> countQuery = AsyncQueryExecutor.call(() -> countTransactions(period));
+
         try {
             // Nagłówek raportu z emailem
-            addReportHeader(document, "Raport Transakcji", period, userEmail);
+            addReportHeader(document, font, "Raport Transakcji", period, userEmail);
+            timings.laidOut();
 
-            // Pobieranie danych z bazy
-            List<TransactionData> transactions = getTransactionsData(period);
+            int count = await(countQuery);
+            timings.fetched();
 
-            // Sekcja szczegółowa wszystkich transakcji
-            addDetailedTransactionsSection(document, transactions);
+            if (count > STREAMING_THRESHOLD) {
+                // Duży raport - wiersze zapisywane w trakcie odczytu z bazy
+                TransactionTotals totals = addStreamingTransactionsSection(document, font, period, progress, timings);
+                addTransactionsSummary(document, font, totals);
+            } else {
+                // Pobieranie danych z bazy
+                List<TransactionData> transactions = getTransactionsData(period);
+                timings.fetched();
+                progress.update(transactions.size(), pdf.getNumberOfPages());
 
-            // Podsumowanie
-            addTransactionsSummary(document, transactions);
+                // Sekcja szczegółowa wszystkich transakcji
+                addDetailedTransactionsSection(document, font, transactions);
+                progress.update(transactions.size(), pdf.getNumberOfPages());
+
+                // Podsumowanie
+                addTransactionsSummary(document, font, transactions);
+            }
 
             // Stopka
-            addFooter(document);
+            addFooter(document, font);
+            timings.laidOut();
 
         } finally {
+            countQuery.cancel(true);
             document.close();
         }
+        timings.written();
+        return logTimings("Raport Transakcji", timings);
+    }
+
+    /**
+     * Czeka na wynik zapytania uruchomionego w tle.
+     *
+     * @param query przyszłość z wynikiem zapytania
+     * @return wynik zapytania
+     * @throws SQLException gdy zapytanie zakończyło się błędem bazy danych
+     * @throws IOException gdy oczekiwanie zostało przerwane (np. anulowanie raportu)
+     */
+    private static <T> T await(CompletableFuture<T> query) throws SQLException, IOException {
+        try {
+            return query.get();
+        } catch (InterruptedException e) {
+            query.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Przerwano pobieranie danych raportu");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException("Błąd pobierania danych raportu", cause);
+        }
+    }
+
+    /**
+     * Wypisuje czasy etapów wygenerowanego raportu.
+     *
+     * @param title nazwa raportu
+     * @param timings czasy etapów generowania
+     * @return przekazane czasy etapów
+     */
+    private static ReportTimings logTimings(String title, ReportTimings timings) {
+        System.out.println(title + " wygenerowany w " + timings.getTotalMillis() + " ms (" + timings + ")");
+        return timings;
     }
 
     /**
      * Tworzy czcionkę PDF z obsługą polskich znaków.
      *
-     * Próbuje różne kodowania w kolejności priorytetów, aby zapewnić
-     * prawidłowe wyświetlanie polskich znaków diakrytycznych.
+     * Przy pierwszym wywołaniu próbuje różne kodowania w kolejności priorytetów,
+     * aby zapewnić prawidłowe wyświetlanie polskich znaków diakrytycznych.
+     * Kodowanie, które się powiodło, jest zapamiętywane i używane bezpośrednio
+     * przy kolejnych raportach.
+     *
+     * Czcionki iText są powiązane z dokumentem, w którym zostały użyte, dlatego
+     * każdy raport tworzy własną czcionkę i przekazuje ją do wszystkich sekcji.
      *
      * @return obiekt PdfFont z obsługą polskich znaków
      * @throws IOException gdy nie można załadować żadnej czcionki
      */
     private static PdfFont createFont() throws IOException {
-        try {
-            // Próbuj użyć wbudowanej czcionki z pełnym wsparciem dla polskich znaków
-            return PdfFontFactory.createFont(StandardFonts.HELVETICA, PdfEncodings.CP1250, PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
-        } catch (Exception e) {
+        String encoding = resolvedFontEncoding;
+        if (encoding != null) {
             try {
-                // Alternatywnie spróbuj z UTF-8
-                return PdfFontFactory.createFont(StandardFonts.HELVETICA, PdfEncodings.IDENTITY_H, PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
-            } catch (Exception e2) {
-                try {
-                    // Trzecia opcja - Windows-1250
-                    return PdfFontFactory.createFont(StandardFonts.HELVETICA, "windows-1250", PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
-                } catch (Exception e3) {
-                    // Fallback do podstawowej czcionki
-                    System.err.println("Nie można załadować czcionki z obsługą polskich znaków, używam podstawowej");
-                    return PdfFontFactory.createFont(StandardFonts.HELVETICA);
-                }
+                return createFont(encoding);
+            } catch (Exception e) {
+                // Zapamiętane kodowanie przestało działać - ponów wybór od początku
+                resolvedFontEncoding = null;
             }
         }
+
+        // Kolejno: wbudowana czcionka z pełnym wsparciem dla polskich znaków (CP1250),
+        // UTF-8 (IDENTITY_H) i Windows-1250
+        for (String candidate : FONT_ENCODINGS) {
+            try {
+                PdfFont font = createFont(candidate);
+                resolvedFontEncoding = candidate;
+                return font;
+            } catch (Exception e) {
+                // spróbuj kolejnego kodowania
+            }
+        }
+
+        // Fallback do podstawowej czcionki
+        System.err.println("Nie można załadować czcionki z obsługą polskich znaków, używam podstawowej");
+        resolvedFontEncoding = DEFAULT_FONT_ENCODING;
+        return createFont(DEFAULT_FONT_ENCODING);
+    }
+
+    /**
+     * Tworzy czcionkę Helvetica w podanym kodowaniu.
+     *
+     * @param encoding kodowanie czcionki lub {@link #DEFAULT_FONT_ENCODING} dla kodowania domyślnego
+     * @return obiekt PdfFont
+     * @throws IOException gdy nie można załadować czcionki
+     */
+    private static PdfFont createFont(String encoding) throws IOException {
+        if (DEFAULT_FONT_ENCODING.equals(encoding)) {
+            return PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        }
+        return PdfFontFactory.createFont(StandardFonts.HELVETICA, encoding, PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
     }
 
     /**
@@ -349,14 +776,12 @@ public class ReportGenerator {
      * okres raportu oraz datę wygenerowania.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param title tytuł raportu
      * @param period okres czasowy raportu
      * @param userEmail email użytkownika generującego raport
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addReportHeader(Document document, String title, String period, String userEmail) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addReportHeader(Document document, PdfFont font, String title, String period, String userEmail) {
         // Logo i informacje o siłowni
         Paragraph header = new Paragraph("SIŁOWNIA FITNESS CENTRUM")
                 .setFont(font)
@@ -416,12 +841,10 @@ public class ReportGenerator {
      * Tworzy tabelę z listą transakcji zawierającą ID, datę, klienta, produkt i kwotę.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param transactions lista danych transakcji do wyświetlenia
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addTransactionsSection(Document document, List<TransactionData> transactions) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addTransactionsSection(Document document, PdfFont font, List<TransactionData> transactions) {
         // Nagłówek sekcji
         Paragraph sectionTitle = new Paragraph("Sprzedaż Produktów")
                 .setFont(font)
@@ -460,12 +883,10 @@ public class ReportGenerator {
      * Tworzy tabelę z listą płatności zawierającą ID, datę, klienta i kwotę.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param memberships lista danych o płatnościach za karnety
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addMembershipsSection(Document document, List<MembershipData> memberships) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addMembershipsSection(Document document, PdfFont font, List<MembershipData> memberships) {
         // Nagłówek sekcji
         Paragraph sectionTitle = new Paragraph("Płatności za Karnety")
                 .setFont(font)
@@ -502,12 +923,10 @@ public class ReportGenerator {
      * Podobna do addMembershipsSection, ale z dodatkowym opisem sekcji.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param memberships lista danych o płatnościach za karnety
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addDetailedMembershipsSection(Document document, List<MembershipData> memberships) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addDetailedMembershipsSection(Document document, PdfFont font, List<MembershipData> memberships) {
         // Nagłówek sekcji
         Paragraph sectionTitle = new Paragraph("Szczegółowe informacje o płatnościach za karnety")
                 .setFont(font)
@@ -544,12 +963,10 @@ public class ReportGenerator {
      * Tworzy tabelę z listą produktów zawierającą ID, nazwę, ilość i cenę.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param products lista danych produktów do wyświetlenia
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addProductsInventorySection(Document document, List<ProductData> products) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addProductsInventorySection(Document document, PdfFont font, List<ProductData> products) {
         // Nagłówek sekcji
         Paragraph sectionTitle = new Paragraph("Stan Magazynowy Produktów")
                 .setFont(font)
@@ -583,16 +1000,14 @@ public class ReportGenerator {
     /**
      * Dodaje sekcję sprzedaży produktów z agregacją danych.
      *
-     * Grupuje transakcje według produktów i tworzy podsumowanie sprzedaży
-     * z ilością sprzedaną, łączną kwotą i średnią ceną.
+     * Tworzy podsumowanie sprzedaży z ilością sprzedaną, łączną kwotą
+     * i średnią ceną dla każdego produktu.
      *
      * @param document dokument PDF do modyfikacji
-     * @param transactions lista transakcji do analizy
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
+     * @param font czcionka dokumentu z obsługą polskich znaków
+     * @param sales statystyki sprzedaży produktów
      */
-    private static void addProductsSalesSection(Document document, List<TransactionData> transactions) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addProductsSalesSection(Document document, PdfFont font, List<ProductSalesData> sales) {
         // Nagłówek sekcji
         Paragraph sectionTitle = new Paragraph("Sprzedaż Produktów w Wybranym Okresie")
                 .setFont(font)
@@ -601,15 +1016,6 @@ public class ReportGenerator {
                 .setMarginBottom(10);
         document.add(sectionTitle);
 
-        // Agregacja danych - grupowanie po produktach
-        Map<String, Integer> productCounts = new HashMap<>();
-        Map<String, Double> productTotals = new HashMap<>();
-
-        for (TransactionData transaction : transactions) {
-            productCounts.merge(transaction.productName, 1, Integer::sum);
-            productTotals.merge(transaction.productName, transaction.amount, Double::sum);
-        }
-
         // Tabela sprzedaży z ilościami
         Table table = new Table(UnitValue.createPercentArray(new float[]{40, 20, 20, 20}))
                 .setWidth(UnitValue.createPercentValue(100));
@@ -621,16 +1027,11 @@ public class ReportGenerator {
         table.addHeaderCell(createHeaderCell("Średnia cena", font));
 
         // Dodawanie danych zagregowanych
-        for (Map.Entry<String, Integer> entry : productCounts.entrySet()) {
-            String productName = entry.getKey();
-            Integer count = entry.getValue();
-            Double total = productTotals.get(productName);
-            Double average = total / count;
-
-            table.addCell(createCell(productName, font));
-            table.addCell(createCell(count.toString(), font).setTextAlignment(TextAlignment.CENTER));
-            table.addCell(createCell(String.format("%.2f", total), font).setTextAlignment(TextAlignment.RIGHT));
-            table.addCell(createCell(String.format("%.2f", average), font).setTextAlignment(TextAlignment.RIGHT));
+        for (ProductSalesData product : sales) {
+            table.addCell(createCell(product.productName, font));
+            table.addCell(createCell(String.valueOf(product.count), font).setTextAlignment(TextAlignment.CENTER));
+            table.addCell(createCell(String.format("%.2f", product.total), font).setTextAlignment(TextAlignment.RIGHT));
+            table.addCell(createCell(String.format("%.2f", product.average), font).setTextAlignment(TextAlignment.RIGHT));
         }
 
         document.add(table);
@@ -643,12 +1044,10 @@ public class ReportGenerator {
      * Tworzy pełną listę transakcji bez agregacji, pokazując każdą transakcję osobno.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param transactions lista transakcji do wyświetlenia
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addDetailedTransactionsSection(Document document, List<TransactionData> transactions) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addDetailedTransactionsSection(Document document, PdfFont font, List<TransactionData> transactions) {
         // Nagłówek sekcji
         Paragraph sectionTitle = new Paragraph("Szczegółowe informacje o transakcjach")
                 .setFont(font)
@@ -681,24 +1080,118 @@ public class ReportGenerator {
         document.add(new Paragraph("\n"));
     }
 
+    /**
+     * Dodaje szczegółową sekcję transakcji, zapisując wiersze do dokumentu
+     * w trakcie odczytu z bazy danych.
+     *
+     * Zapytanie czyta wyniki strumieniowo (kursor tylko do przodu), a tabela
+     * iText tworzona jest jako "duża tabela" - co {@link #STREAMING_FLUSH_ROWS}
+     * wierszy jest zapisywana do dokumentu i zwalniana z pamięci. Wynik
+     * zawiera sumy potrzebne do podsumowania raportu.
+     *
+     * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
+     * @param period okres czasowy do filtrowania
+     * @param progress odbiorca postępu, powiadamiany przy każdym zapisie partii wierszy
+     * @param timings czasy etapów, do których zaliczany jest odczyt i układ wierszy
+     * @return sumy zapisanych transakcji
+     * @throws SQLException gdy wystąpi błąd podczas wykonywania zapytania SQL
+     */
+    private static TransactionTotals addStreamingTransactionsSection(Document document, PdfFont font, String period,
+                                                                     ReportProgress progress, ReportTimings timings)
+            throws SQLException {
+        LocalDate[] dateRange = getDateRangeForPeriod(period);
+
+        // Nagłówek sekcji
+        Paragraph sectionTitle = new Paragraph("Szczegółowe informacje o transakcjach")
+                .setFont(font)
+                .setFontSize(14)
+                .setBold()
+                .setMarginBottom(10);
+        document.add(sectionTitle);
+
+        // Duża tabela - dodawana do dokumentu przed wypełnieniem i zapisywana partiami
+        Table table = new Table(UnitValue.createPercentArray(new float[]{5, 20, 30, 25, 20}), true)
+                .setWidth(UnitValue.createPercentValue(100));
+
+        table.addHeaderCell(createHeaderCell("ID", font));
+        table.addHeaderCell(createHeaderCell("Data", font));
+        table.addHeaderCell(createHeaderCell("Klient", font));
+        table.addHeaderCell(createHeaderCell("Produkt", font));
+        table.addHeaderCell(createHeaderCell("Kwota (PLN)", font));
+        document.add(table);
+        timings.laidOut();
+
+        String query = """
+            SELECT t.id, u.name AS client_name, p.name AS product_name,
+                   t.transaction_date, t.amount
+            FROM transactions t
+            JOIN users u ON t.client_id = u.id
+            JOIN products p ON t.product_id = p.id
+            WHERE t.transaction_date >= ? AND t.transaction_date < ?
+            ORDER BY t.transaction_date DESC
+            """;
+
+        TransactionTotals totals = new TransactionTotals();
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Integer.MIN_VALUE - sterownik MySQL przesyła wiersze pojedynczo zamiast całego wyniku
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            setDateRange(stmt, 1, dateRange[0], dateRange[1]);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                timings.fetched();
+                while (rs.next()) {
+                    TransactionData transaction = new TransactionData(
+                            rs.getInt("id"),
+                            rs.getString("client_name"),
+                            rs.getString("product_name"),
+                            rs.getTimestamp("transaction_date").toLocalDateTime().toLocalDate().format(dateFormatter),
+                            rs.getDouble("amount")
+                    );
+                    timings.fetched();
+                    table.addCell(createCell(String.valueOf(transaction.id), font));
+                    table.addCell(createCell(transaction.date, font));
+                    table.addCell(createCell(transaction.clientName, font));
+                    table.addCell(createCell(transaction.productName, font));
+                    table.addCell(createCell(String.format("%.2f", transaction.amount), font).setTextAlignment(TextAlignment.RIGHT));
+                    totals.add(transaction);
+
+                    if (totals.count % STREAMING_FLUSH_ROWS == 0) {
+                        table.flush();
+                        progress.update(totals.count, document.getPdfDocument().getNumberOfPages());
+                    }
+                    timings.laidOut();
+                }
+            }
+        } finally {
+            table.complete();
+        }
+
+        document.add(new Paragraph("\n"));
+        return totals;
+    }
+
     /**
      * Dodaje podsumowanie finansowe do dokumentu.
      *
-     * Oblicza i wyświetla łączne przychody z sprzedaży produktów i karnetów
+     * Wyświetla przychody ze sprzedaży produktów, karnetów i treningów
      * oraz sumę całkowitą wszystkich przychodów.
      *
      * @param document dokument PDF do modyfikacji
-     * @param transactions lista transakcji do analizy
-     * @param memberships lista płatności za karnety do analizy
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
+     * @param font czcionka dokumentu z obsługą polskich znaków
+     * @param revenue przychody w okresie raportu w podziale na strumienie
      */
-    private static void addFinancialSummary(Document document, List<TransactionData> transactions, List<MembershipData> memberships) throws IOException {
-        PdfFont font = createFont();
-
-        // Obliczanie sum
-        double transactionsTotal = transactions.stream().mapToDouble(t -> t.amount).sum();
-        double membershipsTotal = memberships.stream().mapToDouble(m -> m.amount).sum();
-        double total = transactionsTotal + membershipsTotal;
+    private static void addFinancialSummary(Document document, PdfFont font, Map<RevenueRollup.Stream, BigDecimal> revenue) {
+        // Sumy z dziennego zestawienia przychodów
+        BigDecimal transactionsTotal = revenue.get(RevenueRollup.Stream.PRODUCTS);
+        BigDecimal membershipsTotal = revenue.get(RevenueRollup.Stream.MEMBERSHIPS);
+        BigDecimal trainingsTotal = revenue.get(RevenueRollup.Stream.TRAININGS);
+        BigDecimal total = RevenueRollup.total(revenue);
 
         // Tabela podsumowania
         Table table = new Table(UnitValue.createPercentArray(new float[]{70, 30}))
@@ -713,6 +1206,10 @@ public class ReportGenerator {
         table.addCell(createSummaryLabelCell("Przychody z karnetów:", font));
         table.addCell(createSummaryValueCell(String.format("%.2f PLN", membershipsTotal), font));
 
+        // Wiersz - suma z płatności za treningi
+        table.addCell(createSummaryLabelCell("Przychody z treningów:", font));
+        table.addCell(createSummaryValueCell(String.format("%.2f PLN", trainingsTotal), font));
+
         // Wiersz - suma całkowita
         table.addCell(createSummaryLabelCell("SUMA PRZYCHODÓW:", font).setBold());
         table.addCell(createSummaryValueCell(String.format("%.2f PLN", total), font).setBold());
@@ -732,27 +1229,22 @@ public class ReportGenerator {
      * liczbę sprzedanych produktów i liczbę różnych produktów.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param products lista produktów do analizy
-     * @param transactions lista transakcji do analizy
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
+     * @param sales statystyki sprzedaży produktów w okresie
      */
-    private static void addProductsSummary(Document document, List<ProductData> products, List<TransactionData> transactions) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addProductsSummary(Document document, PdfFont font, List<ProductData> products, List<ProductSalesData> sales) {
         // Obliczanie wartości magazynu
         double inventoryValue = products.stream().mapToDouble(p -> p.price * p.stock).sum();
 
         // Obliczanie sprzedaży całkowitej
-        double salesTotal = transactions.stream().mapToDouble(t -> t.amount).sum();
+        double salesTotal = sales.stream().mapToDouble(s -> s.total).sum();
 
         // Obliczanie ilości sprzedanych produktów
-        int totalProductsSold = transactions.size();
+        int totalProductsSold = sales.stream().mapToInt(s -> s.count).sum();
 
-        // Obliczanie ilości różnych produktów sprzedanych
-        long uniqueProductsSold = transactions.stream()
-                .map(t -> t.productName)
-                .distinct()
-                .count();
+        // Obliczanie ilości różnych produktów sprzedanych (jeden wiersz na produkt)
+        int uniqueProductsSold = sales.size();
 
         // Tabela podsumowania
         Table table = new Table(UnitValue.createPercentArray(new float[]{70, 30}))
@@ -789,14 +1281,13 @@ public class ReportGenerator {
      * Oblicza i wyświetla liczbę klientów z karnetami oraz łączne przychody z karnetów.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param memberships lista płatności za karnety do analizy
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
+     * @param membershipsTotal przychody z karnetów w okresie raportu (z dziennego zestawienia)
      */
-    private static void addMembershipSummary(Document document, List<MembershipData> memberships) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addMembershipSummary(Document document, PdfFont font, List<MembershipData> memberships,
+                                             BigDecimal membershipsTotal) {
         // Obliczanie sum
-        double membershipsTotal = memberships.stream().mapToDouble(m -> m.amount).sum();
         int clientCount = (int) memberships.stream().map(m -> m.clientName).distinct().count();
 
         // Tabela podsumowania
@@ -827,16 +1318,30 @@ public class ReportGenerator {
      * oraz łączną sumę wszystkich transakcji.
      *
      * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
      * @param transactions lista transakcji do analizy
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
      */
-    private static void addTransactionsSummary(Document document, List<TransactionData> transactions) throws IOException {
-        PdfFont font = createFont();
+    private static void addTransactionsSummary(Document document, PdfFont font, List<TransactionData> transactions) {
+        TransactionTotals totals = new TransactionTotals();
+        for (TransactionData transaction : transactions) {
+            totals.add(transaction);
+        }
+        addTransactionsSummary(document, font, totals);
+    }
 
+    /**
+     * Dodaje podsumowanie transakcji na podstawie sum zebranych podczas
+     * generowania tabeli transakcji.
+     *
+     * @param document dokument PDF do modyfikacji
+     * @param font czcionka dokumentu z obsługą polskich znaków
+     * @param totals sumy transakcji
+     */
+    private static void addTransactionsSummary(Document document, PdfFont font, TransactionTotals totals) {
         // Obliczanie sum
-        double transactionsTotal = transactions.stream().mapToDouble(t -> t.amount).sum();
-        int clientCount = (int) transactions.stream().map(t -> t.clientName).distinct().count();
-        int productCount = (int) transactions.stream().map(t -> t.productName).distinct().count();
+        double transactionsTotal = totals.total;
+        int clientCount = totals.clients.size();
+        int productCount = totals.products.size();
 
         // Tabela podsumowania
         Table table = new Table(UnitValue.createPercentArray(new float[]{70, 30}))
@@ -845,7 +1350,7 @@ public class ReportGenerator {
 
         // Wiersz - liczba transakcji
         table.addCell(createSummaryLabelCell("Liczba transakcji:", font));
-        table.addCell(createSummaryValueCell(String.valueOf(transactions.size()), font));
+        table.addCell(createSummaryValueCell(String.valueOf(totals.count), font));
 
         // Wiersz - liczba klientów
         table.addCell(createSummaryLabelCell("Liczba klientów:", font));
@@ -873,11 +1378,9 @@ public class ReportGenerator {
      * Stopka zawiera nazwę systemu zarządzania siłownią.
      *
      * @param document dokument PDF do modyfikacji
-     * @throws IOException gdy wystąpi błąd podczas tworzenia czcionki
+     * @param font czcionka dokumentu z obsługą polskich znaków
      */
-    private static void addFooter(Document document) throws IOException {
-        PdfFont font = createFont();
-
+    private static void addFooter(Document document, PdfFont font) {
         Paragraph footer = new Paragraph("Siłownia Fitness Centrum - System Zarządzania")
                 .setFont(font)
                 .setFontSize(10)
@@ -965,15 +1468,14 @@ public class ReportGenerator {
             FROM transactions t
             JOIN users u ON t.client_id = u.id
             JOIN products p ON t.product_id = p.id
-            WHERE DATE(t.transaction_date) BETWEEN ? AND ?
+            WHERE t.transaction_date >= ? AND t.transaction_date < ?
             ORDER BY t.transaction_date DESC
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setString(1, startDate.toString());
-            stmt.setString(2, endDate.toString());
+            setDateRange(stmt, 1, startDate, endDate);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -991,6 +1493,42 @@ public class ReportGenerator {
         return transactions;
     }
 
+    /**
+     * Zlicza transakcje w określonym okresie.
+     *
+     * @param period okres czasowy do filtrowania
+     * @return liczba transakcji
+     * @throws SQLException gdy wystąpi błąd podczas wykonywania zapytania SQL
+     */
+    private static int countTransactions(String period) throws SQLException {
+        LocalDate[] dateRange = getDateRangeForPeriod(period);
+
+        String query = "SELECT COUNT(*) FROM transactions t WHERE t.transaction_date >= ? AND t.transaction_date < ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            setDateRange(stmt, 1, dateRange[0], dateRange[1]);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Pobiera przychody w określonym okresie z dziennego zestawienia przychodów
+     * ({@link RevenueRollup}) - jeden wiersz na dzień zamiast wszystkich płatności.
+     *
+     * @param period okres czasowy do filtrowania
+     * @return przychody w podziale na strumienie
+     * @throws SQLException gdy wystąpi błąd podczas wykonywania zapytania SQL
+     */
+    private static Map<RevenueRollup.Stream, BigDecimal> getRevenueData(String period) throws SQLException {
+        LocalDate[] dateRange = getDateRangeForPeriod(period);
+        return RevenueRollup.revenueBetween(dateRange[0], dateRange[1]);
+    }
+
     /**
      * Pobiera dane płatności za karnety z bazy danych dla określonego okresu.
      *
@@ -1008,15 +1546,14 @@ public class ReportGenerator {
             SELECT mp.id, u.name AS client_name, mp.amount, mp.payment_date
             FROM membership_payments mp
             JOIN users u ON mp.client_id = u.id
-            WHERE DATE(mp.payment_date) BETWEEN ? AND ?
+            WHERE mp.payment_date >= ? AND mp.payment_date < ?
             ORDER BY mp.payment_date DESC
             """;
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setString(1, startDate.toString());
-            stmt.setString(2, endDate.toString());
+            setDateRange(stmt, 1, startDate, endDate);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -1061,6 +1598,26 @@ public class ReportGenerator {
         return products;
     }
 
+    /**
+     * Ustawia parametry zakresu dat jako półotwarty przedział znaczników czasu
+     * {@code [początek dnia startDate, początek dnia po endDate)}.
+     *
+     * Porównanie samej kolumny z granicami (zamiast {@code DATE(kolumna) BETWEEN ? AND ?})
+     * pozwala bazie użyć indeksu na kolumnie daty, a cały ostatni dzień zakresu
+     * pozostaje uwzględniony.
+     *
+     * @param stmt zapytanie z dwoma kolejnymi parametrami zakresu
+     * @param firstIndex indeks parametru początku zakresu
+     * @param startDate pierwszy dzień zakresu (włącznie)
+     * @param endDate ostatni dzień zakresu (włącznie)
+     * @throws SQLException gdy nie udało się ustawić parametrów
+     */
+    private static void setDateRange(PreparedStatement stmt, int firstIndex,
+                                     LocalDate startDate, LocalDate endDate) throws SQLException {
+        stmt.setTimestamp(firstIndex, Timestamp.valueOf(startDate.atStartOfDay()));
+        stmt.setTimestamp(firstIndex + 1, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+    }
+
     /**
      * Konwertuje string okresu na zakres dat.
      *
@@ -1195,6 +1752,78 @@ public class ReportGenerator {
         }
     }
 
+    /**
+     * Klasa reprezentująca statystyki sprzedaży jednego produktu w raportach.
+     * Wartości wyliczane są w bazie danych na podstawie transakcji z okresu raportu.
+     */
+    public static class ProductSalesData {
+        /**
+         * Nazwa produktu.
+         */
+        public final String productName;
+
+        /**
+         * Liczba transakcji sprzedaży produktu.
+         */
+        public final int count;
+
+        /**
+         * Łączna kwota sprzedaży produktu wyrażona w złotych.
+         */
+        public final double total;
+
+        /**
+         * Średnia kwota transakcji sprzedaży produktu wyrażona w złotych.
+         */
+        public final double average;
+
+        /**
+         * Tworzy nowy obiekt statystyk sprzedaży produktu z podanymi parametrami.
+         *
+         * @param productName Nazwa produktu
+         * @param count Liczba transakcji
+         * @param total Łączna kwota sprzedaży
+         * @param average Średnia kwota transakcji
+         */
+        public ProductSalesData(String productName, int count, double total, double average) {
+            this.productName = productName;
+            this.count = count;
+            this.total = total;
+            this.average = average;
+        }
+    }
+
+    /**
+     * Sumy transakcji zbierane podczas generowania raportu transakcji.
+     * Przechowuje jedynie liczniki i nazwy klientów oraz produktów,
+     * a nie same transakcje.
+     */
+    private static class TransactionTotals {
+        /** Liczba transakcji. */
+        int count;
+
+        /** Łączna kwota transakcji w złotych. */
+        double total;
+
+        /** Nazwy klientów, którzy dokonali transakcji. */
+        final Set<String> clients = new HashSet<>();
+
+        /** Nazwy sprzedanych produktów. */
+        final Set<String> products = new HashSet<>();
+
+        /**
+         * Dolicza transakcję do sum.
+         *
+         * @param transaction transakcja do doliczenia
+         */
+        void add(TransactionData transaction) {
+            count++;
+            total += transaction.amount;
+            clients.add(transaction.clientName);
+            products.add(transaction.productName);
+        }
+    }
+
     /**
      * Klasa reprezentująca dane o członkostwach w raportach.
      * Przechowuje zagregowane informacje o karnetach, takie jak
@@ -0,0 +1,112 @@
+package com.example.silowniaprojekt;
+
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Zadanie generowania pojedynczego raportu PDF w kolejce {@link ReportJobQueue}.
+ *
+ * Nazwa raportu dostępna jest jako tytuł zadania ({@link #titleProperty()}).
+ * Postęp (liczba pobranych wierszy i utworzonych stron) publikowany jest jako
+ * komunikat zadania ({@link #messageProperty()}), a stan - jako tekst
+ * w {@link #statusProperty()}. Po zakończeniu komunikat zawiera czasy etapów
+ * generowania ({@link ReportGenerator.ReportTimings}). Anulowanie zadania przerywa generowanie przy
+ * najbliższym punkcie kontrolnym raportu; niedokończony plik jest usuwany.
+ */
+public final class ReportJob extends Task<File> {
+
+    /**
+     * Generowanie raportu do wskazanego pliku.
+     */
+    @FunctionalInterface
+    public interface Generator {
+        /**
+         * Generuje raport.
+         *
+         * @param outputFile plik docelowy
+         * @param progress odbiorca postępu generowania
+         * @return czasy etapów generowania raportu
+         * @throws Exception w przypadku błędu generowania
+         */
+        ReportGenerator.ReportTimings generate(File outputFile, ReportGenerator.ReportProgress progress) throws Exception;
+    }
+
+    private final File outputFile;
+    private final Generator generator;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("W kolejce");
+
+    /**
+     * Tworzy zadanie generowania raportu.
+     *
+     * @param title nazwa raportu wyświetlana na liście raportów
+     * @param outputFile plik docelowy raportu
+     * @param generator generowanie raportu
+     */
+    public ReportJob(String title, File outputFile, Generator generator) {
+        this.outputFile = outputFile;
+        updateTitle(title);
+        this.generator = generator;
+        stateProperty().addListener((obs, oldState, newState) -> status.set(switch (newState) {
+            case READY, SCHEDULED -> "W kolejce";
+            case RUNNING -> "W toku";
+            case SUCCEEDED -> "Gotowy";
+            case CANCELLED -> "Anulowany";
+            case FAILED -> "Błąd";
+        }));
+    }
+
+    @Override
+    protected File call() throws Exception {
+        updateMessage("Pobieranie danych...");
+        ReportGenerator.ReportTimings timings;
+        try {
+            timings = generator.generate(outputFile, (rowsFetched, pagesRendered) -> {
+                if (isCancelled()) {
+                    throw new CancellationException("Generowanie raportu zostało anulowane");
+                }
+                updateMessage("Wiersze: " + rowsFetched + ", strony: " + pagesRendered);
+            });
+        } catch (Exception e) {
+            // Niedokończony raport nie powinien pozostać na dysku
+            Files.deleteIfExists(outputFile.toPath());
+            throw e;
+        }
+        updateMessage("Zapisano w " + timings.getTotalMillis() + " ms (" + timings + ")");
+        return outputFile;
+    }
+
+    /**
+     * Zwraca plik docelowy raportu.
+     *
+     * @return plik docelowy
+     */
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Zwraca czas zlecenia raportu.
+     *
+     * @return czas dodania zadania do kolejki
+     */
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * Zwraca stan zadania w postaci tekstu do wyświetlenia
+     * ("W kolejce", "W toku", "Gotowy", "Anulowany", "Błąd").
+     *
+     * @return właściwość ze stanem zadania
+     */
+    public ReadOnlyStringProperty statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.silowniaprojekt;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kolejka zadań generowania raportów PDF.
+ *
+ * Zlecenie raportu ({@link #submit}) wraca natychmiast - raport generowany jest
+ * w tle przez pulę wątków o ograniczonej liczbie ({@link #MAX_CONCURRENT_REPORTS}),
+ * więc jednocześnie generowanych raportów, a tym samym ciężkich zapytań
+ * raportowych, nigdy nie jest więcej niż ta liczba; kolejne czekają w kolejce.
+ * Kolejka jest wspólna dla całej aplikacji (wzorzec Singleton), dzięki czemu
+ * limit obowiązuje również przy kilku otwartych panelach administratora.
+ *
+ * Lista {@link #getJobs()} zawiera zadania oczekujące, trwające oraz
+ * {@link #RECENT_LIMIT} ostatnio zakończonych. Metody klasy należy wywoływać
+ * z wątku JavaFX.
+ */
+public final class ReportJobQueue {
+
+    /**
+     * Maksymalna liczba raportów generowanych jednocześnie.
+     * Można ją zmienić właściwością systemową {@code silownia.report.workers}.
+     */
+    public static final int MAX_CONCURRENT_REPORTS = Integer.getInteger("silownia.report.workers", 2);
+
+    /** Liczba zakończonych zadań przechowywanych na liście ostatnich raportów. */
+    public static final int RECENT_LIMIT = 20;
+
+    private static final ReportJobQueue INSTANCE = new ReportJobQueue();
+
+    private final ExecutorService workers;
+    private final ObservableList<ReportJob> jobs = FXCollections.observableArrayList();
+
+    private ReportJobQueue() {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(MAX_CONCURRENT_REPORTS, r -> {
+            Thread t = new Thread(r, "report-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Zwraca wspólną kolejkę raportów aplikacji.
+     *
+     * @return kolejka raportów
+     */
+    public static ReportJobQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Dodaje raport do kolejki i zwraca od razu, bez czekania na jego wygenerowanie.
+     *
+     * @param title nazwa raportu wyświetlana na liście raportów
+     * @param outputFile plik docelowy raportu
+     * @param generator generowanie raportu
+     * @return zadanie raportu (postęp, stan, anulowanie)
+     */
+    public ReportJob submit(String title, File outputFile, ReportJob.Generator generator) {
+        ReportJob job = new ReportJob(title, outputFile, generator);
+        job.stateProperty().addListener((obs, oldState, newState) -> {
+            if (job.isDone()) {
+                trimFinished();
+            }
+        });
+        jobs.add(0, job);
+        workers.execute(job);
+        return job;
+    }
+
+    /**
+     * Zwraca listę zadań: oczekujących, trwających i ostatnio zakończonych,
+     * od najnowszego.
+     *
+     * @return obserwowalna lista zadań raportów
+     */
+    public ObservableList<ReportJob> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Anuluje wszystkie niezakończone zadania i zatrzymuje pulę wątków.
+     * Wywoływana przy zamykaniu aplikacji.
+     */
+    public void shutdown() {
+        for (ReportJob job : jobs) {
+            job.cancel();
+        }
+        workers.shutdownNow();
+    }
+
+    /** Usuwa z listy najstarsze zakończone zadania ponad {@link #RECENT_LIMIT}. */
+    private void trimFinished() {
+        int finished = 0;
+        for (int i = 0; i < jobs.size(); i++) {
+            if (jobs.get(i).isDone() && ++finished > RECENT_LIMIT) {
+                jobs.remove(i--);
+            }
+        }
+    }
+}
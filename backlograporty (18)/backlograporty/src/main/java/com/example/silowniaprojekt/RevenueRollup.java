@@ -0,0 +1,417 @@
+package com.example.silowniaprojekt;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Dzienne zestawienie przychodów siłowni (tabela {@code daily_revenue}).
+ *
+ * Zestawienie przechowuje liczbę i sumę płatności w podziale na dzień, strumień
+ * przychodu ({@link Stream}) oraz produkt lub trenera. Jest aktualizowane w tej
+ * samej transakcji co zapis płatności w panelu pracownika, dzięki czemu sumy
+ * przychodów za dowolny okres wymagają odczytu jednego wiersza na dzień,
+ * a nie wszystkich sprzedaży z tego okresu.
+ *
+ * Dzień płatności to dzień lokalny aplikacji (strefa czasowa JVM) - ten sam,
+ * według którego raporty wybierają płatności z zakresu dat. Przy doliczaniu
+ * jest to dzień przekazanej daty, a przy przebudowie dzień daty odczytanej
+ * z bazy ({@link ResultSet#getTimestamp}), więc wiersze doliczone i przebudowane
+ * należą do tych samych dni.
+ *
+ * Płatności zapisane z pominięciem aplikacji można doliczyć, przebudowując
+ * zestawienie ({@link #rebuild(LocalDate, LocalDate)} lub {@link #main(String[])}).
+ */
+public final class RevenueRollup {
+
+    /**
+     * Strumień przychodu.
+     */
+    public enum Stream {
+        /** Sprzedaż produktów (tabela {@code transactions}), w podziale na produkty. */
+        PRODUCTS,
+        /** Płatności za karnety (tabela {@code membership_payments}). */
+        MEMBERSHIPS,
+        /** Płatności za treningi (tabela {@code training_request_payments}), w podziale na trenerów. */
+        TRAININGS
+    }
+
+    /**
+     * Sprzedaż produktu doliczana do zestawienia ({@link #recordProductSales}).
+     *
+     * @param count liczba sprzedanych sztuk
+     * @param amount łączna kwota sprzedaży
+     */
+    public record Sales(int count, BigDecimal amount) {
+    }
+
+    /** Identyfikator używany, gdy strumień nie ma podziału lub brak powiązania (np. trenera). */
+    private static final int NO_REF = 0;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO daily_revenue (revenue_date, stream, ref_id, sales_count, amount)
+            VALUES (?, ?, ?, 1, ?)
+            ON DUPLICATE KEY UPDATE sales_count = sales_count + 1, amount = amount + ?
+            """;
+
+    /** Wariant {@link #UPSERT_SQL} z liczbą sprzedaży; wsadowo wysyłany jako jedno wielowierszowe zapytanie. */
+    private static final String UPSERT_MANY_SQL = """
+            INSERT INTO daily_revenue (revenue_date, stream, ref_id, sales_count, amount)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE sales_count = sales_count + VALUES(sales_count), amount = amount + VALUES(amount)
+            """;
+
+    private static final String TRAINER_OF_REQUEST_SQL = """
+            SELECT r.trainer_id
+            FROM trainingrequests tr
+            JOIN reports r ON tr.report = r.id
+            WHERE tr.id = ?
+            """;
+
+    /** Odejmuje płatność od zestawienia ({@link #removeMembershipPayment}). */
+    private static final String SUBTRACT_SQL = """
+            UPDATE daily_revenue SET sales_count = sales_count - 1, amount = amount - ?
+            WHERE revenue_date = ? AND stream = ? AND ref_id = ?
+            """;
+
+    /** Usuwa wiersz zestawienia, w którym nie pozostała żadna płatność. */
+    private static final String DELETE_EMPTY_SQL = """
+            DELETE FROM daily_revenue
+            WHERE revenue_date = ? AND stream = ? AND ref_id = ? AND sales_count <= 0
+            """;
+
+    /**
+     * Płatności strumieni do przebudowy zestawienia: data, identyfikator
+     * produktu lub trenera i kwota, w podanym przedziale dat.
+     */
+    private static final Map<Stream, String> REBUILD_SQL = Map.of(
+            Stream.PRODUCTS, """
+                    SELECT t.transaction_date AS paid_at, t.product_id AS ref_id, t.amount
+                    FROM transactions t
+                    WHERE t.transaction_date >= ? AND t.transaction_date < ?
+                    """,
+            Stream.MEMBERSHIPS, """
+                    SELECT mp.payment_date AS paid_at, 0 AS ref_id, mp.amount
+                    FROM membership_payments mp
+                    WHERE mp.payment_date >= ? AND mp.payment_date < ?
+                    """,
+            Stream.TRAININGS, """
+                    SELECT trp.payment_date AS paid_at, COALESCE(r.trainer_id, 0) AS ref_id, trp.amount
+                    FROM training_request_payments trp
+                    LEFT JOIN trainingrequests tr ON trp.training_request_id = tr.id
+                    LEFT JOIN reports r ON tr.report = r.id
+                    WHERE trp.payment_date >= ? AND trp.payment_date < ?
+                    """);
+
+    /** Wiersz zestawienia: dzień, strumień i produkt lub trener. */
+    private record Key(LocalDate date, Stream stream, int refId) {
+    }
+
+    /** Najwcześniejsza data przebudowy całego zestawienia. */
+    private static final LocalDate MIN_DATE = LocalDate.of(1970, 1, 1);
+
+    /** Najpóźniejsza data przebudowy całego zestawienia. */
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 30);
+
+    private RevenueRollup() {
+    }
+
+    /**
+     * Dolicza sprzedaż produktu do zestawienia.
+     * Należy wywołać na tym samym połączeniu i w tej samej transakcji co zapis sprzedaży.
+     *
+     * @param conn połączenie z bazą danych
+     * @param date data sprzedaży
+     * @param productId identyfikator produktu
+     * @param amount kwota sprzedaży
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordProductSale(Connection conn, LocalDateTime date, int productId, BigDecimal amount) throws SQLException {
+        record(conn, date.toLocalDate(), Stream.PRODUCTS, productId, amount);
+    }
+
+    /**
+     * Dolicza do zestawienia sprzedaż kilku produktów (np. całego koszyka)
+     * jednym zapytaniem wsadowym.
+     * Należy wywołać na tym samym połączeniu i w tej samej transakcji co zapis sprzedaży.
+     *
+     * @param conn połączenie z bazą danych
+     * @param date data sprzedaży
+     * @param sales liczba sprzedanych sztuk i łączna kwota według identyfikatora produktu
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordProductSales(Connection conn, LocalDateTime date, Map<Integer, Sales> sales) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_MANY_SQL)) {
+            for (Map.Entry<Integer, Sales> entry : sales.entrySet()) {
+                stmt.setDate(1, Date.valueOf(date.toLocalDate()));
+                stmt.setString(2, Stream.PRODUCTS.name());
+                stmt.setInt(3, entry.getKey());
+                stmt.setInt(4, entry.getValue().count());
+                stmt.setBigDecimal(5, entry.getValue().amount());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Dolicza płatność za karnet do zestawienia.
+     * Należy wywołać na tym samym połączeniu i w tej samej transakcji co zapis płatności.
+     *
+     * @param conn połączenie z bazą danych
+     * @param date data płatności
+     * @param amount kwota płatności
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordMembershipPayment(Connection conn, LocalDateTime date, BigDecimal amount) throws SQLException {
+        record(conn, date.toLocalDate(), Stream.MEMBERSHIPS, NO_REF, amount);
+    }
+
+    /**
+     * Dolicza płatność za trening do zestawienia, przypisując ją trenerowi treningu.
+     * Należy wywołać na tym samym połączeniu i w tej samej transakcji co zapis płatności.
+     *
+     * @param conn połączenie z bazą danych
+     * @param date data płatności
+     * @param trainingRequestId identyfikator treningu
+     * @param amount kwota płatności
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordTrainingPayment(Connection conn, LocalDateTime date, int trainingRequestId,
+                                             BigDecimal amount) throws SQLException {
+        int trainerId = NO_REF;
+        try (PreparedStatement stmt = conn.prepareStatement(TRAINER_OF_REQUEST_SQL)) {
+            stmt.setInt(1, trainingRequestId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    trainerId = rs.getInt("trainer_id");
+                }
+            }
+        }
+        record(conn, date.toLocalDate(), Stream.TRAININGS, trainerId, amount);
+    }
+
+    /**
+     * Odejmuje płatność za karnet od zestawienia, np. przed zmianą jej kwoty lub daty
+     * (nowe wartości dolicza {@link #recordMembershipPayment}).
+     * Należy wywołać na tym samym połączeniu i w tej samej transakcji co zmianę płatności.
+     *
+     * @param conn połączenie z bazą danych
+     * @param date dotychczasowa data płatności
+     * @param amount dotychczasowa kwota płatności
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void removeMembershipPayment(Connection conn, LocalDateTime date, BigDecimal amount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SUBTRACT_SQL)) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setDate(2, Date.valueOf(date.toLocalDate()));
+            stmt.setString(3, Stream.MEMBERSHIPS.name());
+            stmt.setInt(4, NO_REF);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_EMPTY_SQL)) {
+            stmt.setDate(1, Date.valueOf(date.toLocalDate()));
+            stmt.setString(2, Stream.MEMBERSHIPS.name());
+            stmt.setInt(3, NO_REF);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void record(Connection conn, LocalDate date, Stream stream, int refId,
+                               BigDecimal amount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            stmt.setDate(1, Date.valueOf(date));
+            stmt.setString(2, stream.name());
+            stmt.setInt(3, refId);
+            stmt.setBigDecimal(4, amount);
+            stmt.setBigDecimal(5, amount);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Zwraca przychody w podanym okresie w podziale na strumienie.
+     *
+     * @param startDate pierwszy dzień okresu
+     * @param endDate ostatni dzień okresu (włącznie)
+     * @return suma przychodów dla każdego strumienia (zero, gdy brak płatności)
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static Map<Stream, BigDecimal> revenueBetween(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return AsyncQueryExecutor.execute(conn -> revenueBetween(conn, startDate, endDate));
+    }
+
+    /**
+     * Zwraca przychody w podanym okresie w podziale na strumienie,
+     * korzystając z podanego połączenia.
+     *
+     * @param conn połączenie z bazą danych
+     * @param startDate pierwszy dzień okresu
+     * @param endDate ostatni dzień okresu (włącznie)
+     * @return suma przychodów dla każdego strumienia (zero, gdy brak płatności)
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static Map<Stream, BigDecimal> revenueBetween(Connection conn, LocalDate startDate,
+                                                         LocalDate endDate) throws SQLException {
+        Map<Stream, BigDecimal> revenue = new EnumMap<>(Stream.class);
+        for (Stream stream : Stream.values()) {
+            revenue.put(stream, BigDecimal.ZERO);
+        }
+
+        String sql = """
+                SELECT stream, SUM(amount) AS total
+                FROM daily_revenue
+                WHERE revenue_date >= ? AND revenue_date < ?
+                GROUP BY stream
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate.plusDays(1)));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    revenue.put(Stream.valueOf(rs.getString("stream")), rs.getBigDecimal("total"));
+                }
+            }
+        }
+        return revenue;
+    }
+
+    /**
+     * Sumuje przychody wszystkich strumieni.
+     *
+     * @param revenue przychody w podziale na strumienie
+     * @return łączny przychód
+     */
+    public static BigDecimal total(Map<Stream, BigDecimal> revenue) {
+        return revenue.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Przebudowuje zestawienie dla podanego okresu na podstawie płatności
+     * zapisanych w bazie. Wykonywane w jednej transakcji - w razie błędu
+     * zestawienie pozostaje bez zmian.
+     *
+     * @param startDate pierwszy dzień okresu
+     * @param endDate ostatni dzień okresu (włącznie)
+     * @return liczba utworzonych wierszy zestawienia
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static int rebuild(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return AsyncQueryExecutor.execute(conn -> rebuild(conn, startDate, endDate));
+    }
+
+    /**
+     * Przebudowuje zestawienie dla podanego okresu, korzystając z podanego
+     * połączenia (np. w migracji schematu). Płatności odczytywane są strumieniowo
+     * i sumowane według dnia lokalnego, tak jak przy doliczaniu. Po zakończeniu
+     * przywracany jest poprzedni tryb autocommit połączenia.
+     *
+     * @param conn połączenie z bazą danych
+     * @param startDate pierwszy dzień okresu
+     * @param endDate ostatni dzień okresu (włącznie)
+     * @return liczba utworzonych wierszy zestawienia
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    static int rebuild(Connection conn, LocalDate startDate, LocalDate endDate) throws SQLException {
+        Map<Key, Sales> rows = new LinkedHashMap<>();
+        for (Stream stream : Stream.values()) {
+            try (PreparedStatement stmt = conn.prepareStatement(REBUILD_SQL.get(stream),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Integer.MIN_VALUE - sterownik MySQL przesyła wiersze pojedynczo zamiast całego wyniku
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                stmt.setTimestamp(1, Timestamp.valueOf(startDate.atStartOfDay()));
+                stmt.setTimestamp(2, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Key key = new Key(rs.getTimestamp("paid_at").toLocalDateTime().toLocalDate(),
+                                stream, rs.getInt("ref_id"));
+                        rows.merge(key, new Sales(1, rs.getBigDecimal("amount")),
+                                (a, b) -> new Sales(a.count() + b.count(), a.amount().add(b.amount())));
+                    }
+                }
+            }
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM daily_revenue WHERE revenue_date >= ? AND revenue_date < ?")) {
+                stmt.setDate(1, Date.valueOf(startDate));
+                stmt.setDate(2, Date.valueOf(endDate.plusDays(1)));
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(UPSERT_MANY_SQL)) {
+                for (Map.Entry<Key, Sales> row : rows.entrySet()) {
+                    stmt.setDate(1, Date.valueOf(row.getKey().date()));
+                    stmt.setString(2, row.getKey().stream().name());
+                    stmt.setInt(3, row.getKey().refId());
+                    stmt.setInt(4, row.getValue().count());
+                    stmt.setBigDecimal(5, row.getValue().amount());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+            return rows.size();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Przebudowuje całe zestawienie przychodów.
+     *
+     * @return liczba utworzonych wierszy zestawienia
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static int rebuild() throws SQLException {
+        return AsyncQueryExecutor.execute(RevenueRollup::rebuild);
+    }
+
+    /**
+     * Przebudowuje całe zestawienie przychodów, korzystając z podanego połączenia.
+     *
+     * @param conn połączenie z bazą danych
+     * @return liczba utworzonych wierszy zestawienia
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    static int rebuild(Connection conn) throws SQLException {
+        return rebuild(conn, MIN_DATE, MAX_DATE);
+    }
+
+    /**
+     * Przebudowuje zestawienie przychodów z wiersza poleceń, np. po imporcie danych.
+     * Bez argumentów przebudowuje całe zestawienie, z dwoma argumentami
+     * ({@code RRRR-MM-DD RRRR-MM-DD}) - tylko podany okres.
+     *
+     * @param args opcjonalne daty początkowa i końcowa okresu
+     */
+    public static void main(String[] args) {
+        try {
+            long start = System.nanoTime();
+            int rows = args.length >= 2
+                    ? rebuild(LocalDate.parse(args[0]), LocalDate.parse(args[1]))
+                    : rebuild();
+            System.out.println("Przebudowano zestawienie przychodów: " + rows + " wierszy w "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (SQLException e) {
+            System.err.println("Błąd przebudowy zestawienia przychodów: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.silowniaprojekt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wersjonowane migracje schematu bazy danych dostarczane razem z aplikacją.
+ *
+ * Skrypty migracji znajdują się w zasobach {@code db/migration} obok tej klasy
+ * i mają nazwy w formacie {@code V<wersja>__<opis>.sql}. Zastosowane wersje
+ * zapisywane są w tabeli {@code schema_version}, więc każdy skrypt wykonywany
+ * jest w danej bazie tylko raz. Migracje uruchamiane są przy starcie aplikacji
+ * ({@link Main#init()}).
+ *
+ * Nowy skrypt należy dodać do {@link #MIGRATIONS} z kolejnym numerem wersji.
+ * Migracja, której nie da się wyrazić w SQL, ma skrypt z samym opisem
+ * i krok wykonywany w Javie po skrypcie ({@link #JAVA_STEPS}).
+ */
+public final class SchemaMigrations {
+
+    /** Skrypty migracji w kolejności wykonywania. */
+    private static final String[] MIGRATIONS = {
+            "V1__report_indexes.sql",
+            "V2__daily_revenue.sql",
+            "V3__dashboard_kpis.sql",
+            "V4__hourly_activity.sql",
+            "V5__client_activity_indexes.sql",
+            "V6__user_changes.sql",
+            "V7__daily_revenue_local_days.sql",
+            "V8__activity_log_time.sql"
+    };
+
+    /** Kroki migracji wykonywane w Javie po skrypcie o podanej nazwie. */
+    private static final Map<String, AsyncQueryExecutor.Query<?>> JAVA_STEPS = Map.of(
+            // Dni zestawienia przychodów liczone w strefie aplikacji, a nie bazy danych
+            "V7__daily_revenue_local_days.sql", RevenueRollup::rebuild
+    );
+
+    /** Katalog zasobów ze skryptami migracji (względem pakietu tej klasy). */
+    private static final String MIGRATION_DIR = "db/migration/";
+
+    /** Kod błędu MySQL: indeks o podanej nazwie już istnieje (ER_DUP_KEYNAME). */
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    /** Kod błędu MySQL: kolumna o podanej nazwie już istnieje (ER_DUP_FIELDNAME). */
+    private static final int ER_DUP_FIELDNAME = 1060;
+
+    /** Kod błędu MySQL: usuwany indeks lub kolumna nie istnieje (ER_CANT_DROP_FIELD_OR_KEY). */
+    private static final int ER_CANT_DROP_FIELD_OR_KEY = 1091;
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Wykonuje wszystkie migracje, które nie zostały jeszcze zastosowane w bazie.
+     *
+     * @return liczba zastosowanych migracji
+     * @throws SQLException gdy nie udało się połączyć z bazą lub wykonać migracji
+     */
+    public static int migrate() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("Brak połączenia z bazą danych");
+            }
+            createVersionTable(conn);
+            Set<Integer> applied = appliedVersions(conn);
+
+            int count = 0;
+            for (String script : MIGRATIONS) {
+                int version = versionOf(script);
+                if (applied.contains(version)) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                for (String sql : readStatements(script)) {
+                    execute(conn, sql);
+                }
+                AsyncQueryExecutor.Query<?> step = JAVA_STEPS.get(script);
+                if (step != null) {
+                    step.execute(conn);
+                }
+                recordVersion(conn, version, script);
+                count++;
+                System.out.println("Zastosowano migrację " + script + " w "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+            return count;
+        }
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        script VARCHAR(255) NOT NULL,
+                        applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """);
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    private static void recordVersion(Connection conn, int version, String script) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT IGNORE INTO schema_version (version, script) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, script);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Wykonuje pojedynczą instrukcję migracji. Istniejący już indeks lub kolumna
+     * o tej samej nazwie (np. utworzone ręcznie przed wprowadzeniem migracji)
+     * ani brak usuwanego indeksu (np. usuniętego ręcznie) nie jest błędem.
+     */
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_DUP_KEYNAME && e.getErrorCode() != ER_DUP_FIELDNAME
+                    && e.getErrorCode() != ER_CANT_DROP_FIELD_OR_KEY) {
+                throw e;
+            }
+            System.out.println("Pominięto istniejący element schematu: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Odczytuje wersję z nazwy skryptu w formacie {@code V<wersja>__<opis>.sql}.
+     */
+    static int versionOf(String script) {
+        int separator = script.indexOf("__");
+        if (!script.startsWith("V") || separator < 2) {
+            throw new IllegalArgumentException("Niepoprawna nazwa migracji: " + script);
+        }
+        return Integer.parseInt(script.substring(1, separator));
+    }
+
+    /**
+     * Wczytuje skrypt migracji i dzieli go na instrukcje rozdzielone średnikami.
+     * Linie zaczynające się od {@code --} są komentarzami.
+     */
+    static List<String> readStatements(String script) throws SQLException {
+        String content;
+        try (InputStream in = SchemaMigrations.class.getResourceAsStream(MIGRATION_DIR + script)) {
+            if (in == null) {
+                throw new SQLException("Nie znaleziono skryptu migracji: " + script);
+            }
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Błąd odczytu skryptu migracji " + script, e);
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : content.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.silowniaprojekt;
+
+import javafx.scene.Node;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Pamięć podręczna danych sekcji panelu.
+ *
+ * Dane sekcji ładowane są dopiero przy jej pierwszym wyświetleniu, a nie przy
+ * starcie panelu. Kolejne wyświetlenia korzystają z już załadowanych danych;
+ * jeśli są starsze niż okno ważności, sekcja jest odświeżana w tle (tabela
+ * pokazuje poprzednie dane do czasu nadejścia nowych).
+ *
+ * Okno ważności można zmienić właściwością systemową
+ * {@code silownia.section.staleness.seconds} (domyślnie 60 sekund).
+ *
+ * Metody klasy należy wywoływać z wątku JavaFX.
+ */
+public final class SectionCache {
+
+    /** Domyślne okno ważności danych sekcji. */
+    public static final Duration DEFAULT_STALENESS =
+            Duration.ofSeconds(Long.getLong("silownia.section.staleness.seconds", 60));
+
+    private final long stalenessNanos;
+    private final Map<Node, Entry> entries = new HashMap<>();
+
+    /**
+     * Tworzy pamięć podręczną z domyślnym oknem ważności.
+     */
+    public SectionCache() {
+        this(DEFAULT_STALENESS);
+    }
+
+    /**
+     * Tworzy pamięć podręczną z podanym oknem ważności.
+     *
+     * @param staleness czas, po którym dane sekcji uznawane są za nieaktualne
+     */
+    public SectionCache(Duration staleness) {
+        this.stalenessNanos = staleness.toNanos();
+    }
+
+    /**
+     * Rejestruje sekcję i metodę ładującą jej dane.
+     *
+     * @param section sekcja panelu
+     * @param loader metoda uruchamiająca ładowanie i zwracająca jego przyszłość
+     */
+    public void register(Node section, Supplier<CompletableFuture<?>> loader) {
+        entries.put(section, new Entry(loader));
+    }
+
+    /**
+     * Wywoływana przy wyświetleniu sekcji. Ładuje dane, jeśli nie zostały
+     * jeszcze załadowane lub są nieaktualne, a ładowanie nie jest w toku.
+     *
+     * @param section wyświetlana sekcja
+     */
+    public void show(Node section) {
+        Entry entry = entries.get(section);
+        if (entry == null || entry.isLoading()) {
+            return;
+        }
+        if (entry.loadedAt == 0 || System.nanoTime() - entry.loadedAt > stalenessNanos) {
+            entry.load();
+        }
+    }
+
+    /**
+     * Ładuje dane sekcji niezależnie od ich wieku (np. przy starcie panelu
+     * albo po zapisie zmieniającym dane sekcji).
+     *
+     * @param section sekcja panelu
+     * @return przyszłość ładowania; zakończona od razu dla niezarejestrowanej sekcji
+     */
+    public CompletableFuture<?> load(Node section) {
+        Entry entry = entries.get(section);
+        if (entry == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return entry.isLoading() ? entry.inFlight : entry.load();
+    }
+
+    /**
+     * Oznacza dane sekcji jako nieaktualne; zostaną ponownie załadowane
+     * przy najbliższym wyświetleniu sekcji.
+     *
+     * @param section sekcja panelu
+     */
+    public void invalidate(Node section) {
+        Entry entry = entries.get(section);
+        if (entry != null) {
+            entry.loadedAt = 0;
+        }
+    }
+
+    /** Stan ładowania pojedynczej sekcji. */
+    private static final class Entry {
+        final Supplier<CompletableFuture<?>> loader;
+        /** Czas (System.nanoTime) rozpoczęcia ostatniego udanego ładowania; 0 - brak danych. */
+        long loadedAt;
+        CompletableFuture<?> inFlight;
+
+        Entry(Supplier<CompletableFuture<?>> loader) {
+            this.loader = loader;
+        }
+
+        boolean isLoading() {
+            return inFlight != null && !inFlight.isDone();
+        }
+
+        CompletableFuture<?> load() {
+            long startedAt = System.nanoTime();
+            CompletableFuture<?> future = loader.get();
+            inFlight = future;
+            future.whenComplete((value, error) -> {
+                // Anulowane lub nieudane ładowanie nie odświeża znacznika - sekcja
+                // zostanie załadowana ponownie przy kolejnym wyświetleniu
+                if (error == null) {
+                    loadedAt = Math.max(startedAt, 1);
+                }
+            });
+            return future;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.silowniaprojekt;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Koszyk produktów sklepu w panelu klienta.
+ *
+ * Przechowuje pozycje (produkt, cena, liczba sztuk) do czasu złożenia
+ * zamówienia, które zapisywane jest w bazie danych jedną transakcją
+ * ({@link ProductSales#checkout}). Koszyk nie jest bezpieczny wątkowo -
+ * należy go używać z wątku JavaFX, a do zapisu w tle przekazywać
+ * kopię pozycji ({@link #items()}).
+ */
+public final class ShoppingCart {
+
+    /**
+     * Pozycja koszyka.
+     *
+     * @param productName nazwa produktu (kolumna {@code products.name})
+     * @param unitPrice cena jednej sztuki wyświetlana w sklepie; przed złożeniem
+     *                  zamówienia pozycje wyceniane są według katalogu
+     *                  ({@link ProductSales#quote})
+     * @param quantity liczba sztuk
+     */
+    public record Item(String productName, BigDecimal unitPrice, int quantity) {
+        /**
+         * Zwraca wartość pozycji.
+         *
+         * @return cena jednej sztuki pomnożona przez liczbę sztuk
+         */
+        public BigDecimal total() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    private final Map<String, Item> items = new LinkedHashMap<>();
+
+    /**
+     * Dodaje sztukę produktu do koszyka.
+     *
+     * @param productName nazwa produktu
+     * @param unitPrice cena jednej sztuki
+     */
+    public void add(String productName, BigDecimal unitPrice) {
+        items.merge(productName, new Item(productName, unitPrice, 1),
+                (current, added) -> new Item(productName, current.unitPrice(), current.quantity() + 1));
+    }
+
+    /**
+     * Zwraca pozycje koszyka w kolejności dodania.
+     *
+     * @return niemodyfikowalna kopia pozycji
+     */
+    public List<Item> items() {
+        return List.copyOf(items.values());
+    }
+
+    /**
+     * Zwraca łączną liczbę sztuk w koszyku.
+     *
+     * @return liczba sztuk
+     */
+    public int itemCount() {
+        return items.values().stream().mapToInt(Item::quantity).sum();
+    }
+
+    /**
+     * Zwraca łączną wartość koszyka.
+     *
+     * @return suma wartości pozycji
+     */
+    public BigDecimal total() {
+        return items.values().stream().map(Item::total).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Usuwa z koszyka zamówione pozycje (np. po złożeniu zamówienia).
+     * Sztuki dodane w czasie składania zamówienia pozostają w koszyku.
+     *
+     * @param ordered pozycje złożonego zamówienia
+     */
+    public void removeAll(List<Item> ordered) {
+        for (Item item : ordered) {
+            items.computeIfPresent(item.productName(), (name, current) -> current.quantity() > item.quantity()
+                    ? new Item(name, current.unitPrice(), current.quantity() - item.quantity())
+                    : null);
+        }
+    }
+
+    /**
+     * Sprawdza, czy koszyk jest pusty.
+     *
+     * @return true, jeśli w koszyku nie ma produktów
+     */
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.silowniaprojekt;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Przebieg treningowy do archiwum CDS (Class Data Sharing) w profilu {@code dist}.
+ *
+ * Uruchomiony z {@code -XX:ArchiveClassesAtExit} otwiera ekran logowania,
+ * a następnie kolejno buduje i wyświetla panele wszystkich ról, po czym kończy
+ * działanie - klasy wczytane w tym czasie trafiają do archiwum, które przy
+ * kolejnych startach aplikacji ({@code -XX:SharedArchiveFile}) nie muszą być
+ * ponownie wczytywane i weryfikowane.
+ *
+ * Z argumentem {@code --measure} kończy działanie zaraz po wyświetleniu ekranu
+ * logowania i wypisuje czas od uruchomienia procesu (zimny start).
+ */
+public class StartupTraining extends Application {
+
+    /** Czas wyświetlania każdego panelu w przebiegu treningowym (układ i renderowanie). */
+    private static final javafx.util.Duration STEP = javafx.util.Duration.millis(500);
+
+    private static boolean measureOnly;
+
+    /**
+     * Wyświetla ekran logowania, a w trybie treningowym również panele wszystkich ról.
+     *
+     * @param stage główne okno aplikacji
+     * @throws IOException w przypadku błędu ładowania pliku FXML
+     */
+    @Override
+    public void start(Stage stage) throws IOException {
+        Parent root = new FXMLLoader(getClass().getResource("login.fxml")).load();
+        Scene scene = new Scene(root, 400, 300);
+        scene.getStylesheets().add(getClass().getResource("login_styles.css").toExternalForm());
+        stage.setScene(scene);
+
+        // Pomiar po pierwszym ułożeniu sceny, czyli gdy ekran logowania jest gotowy do narysowania
+        Runnable loginShown = new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                System.out.println("Start do ekranu logowania: " + millisSinceProcessStart() + " ms");
+                if (measureOnly) {
+                    Platform.runLater(StartupTraining::finish);
+                } else {
+                    Platform.runLater(() -> showDashboard(stage, 0));
+                }
+            }
+        };
+        scene.addPostLayoutPulseListener(loginShown);
+        stage.show();
+    }
+
+    /**
+     * Wyświetla kolejny panel, a po {@link #STEP} przechodzi do następnego;
+     * po ostatnim kończy przebieg treningowy.
+     */
+    private static void showDashboard(Stage stage, int index) {
+        DashboardPreloader.Dashboard[] dashboards = DashboardPreloader.Dashboard.values();
+        if (index == dashboards.length) {
+            System.out.println("Panele otwarte po: " + millisSinceProcessStart() + " ms");
+            finish();
+            return;
+        }
+        try {
+            DashboardPreloader.Prepared prepared = DashboardPreloader.build(dashboards[index]);
+            stage.setScene(prepared.scene());
+            DashboardPreloader.dispose(prepared);
+        } catch (IOException e) {
+            System.err.println("Błąd przebiegu treningowego (" + dashboards[index] + "): " + e.getMessage());
+            e.printStackTrace();
+        }
+        PauseTransition pause = new PauseTransition(STEP);
+        pause.setOnFinished(event -> showDashboard(stage, index + 1));
+        pause.play();
+    }
+
+    /** Kończy proces; archiwum CDS zapisywane jest przy wyjściu z maszyny wirtualnej. */
+    private static void finish() {
+        AsyncQueryExecutor.shutdown();
+        DatabaseConnection.shutdown();
+        Platform.exit();
+        System.exit(0);
+    }
+
+    /** Zwraca czas od uruchomienia procesu w milisekundach (lub -1, gdy nieznany). */
+    private static long millisSinceProcessStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+
+    /**
+     * Uruchamia przebieg treningowy lub pomiar czasu startu ({@code --measure}).
+     *
+     * @param args argumenty wiersza poleceń
+     */
+    public static void main(String[] args) {
+        measureOnly = Arrays.asList(args).contains("--measure");
+        launch(args);
+    }
+}
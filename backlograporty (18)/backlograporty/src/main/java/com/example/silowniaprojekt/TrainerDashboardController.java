@@ -23,7 +23,12 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Kontroler panelu trenera siłowni.
@@ -109,10 +114,13 @@ public class TrainerDashboardController {
     @FXML private TextArea editTaskDescriptionArea; // Użyj TextArea zamiast TextField dla opisu
     @FXML private ComboBox<Priority> editTaskPriorityCombo; // Zakładam klasę Priority
     @FXML private ComboBox<Status> editTaskStatusCombo;     // Zakładam klasę Status
+    @FXML private Button updateTaskButton;
 
     private ObservableList<TrainerTask> trainerTasksList;
     private ObservableList<Priority> prioritiesList; // Lista priorytetów z bazy
     private ObservableList<Status> statusesList;
+    private final Map<Integer, Priority> prioritiesById = new HashMap<>(); // Pozycje prioritiesList według ID
+    private final Map<Integer, Status> statusesById = new HashMap<>();     // Pozycje statusesList według ID
 
 
 
@@ -131,6 +139,18 @@ public class TrainerDashboardController {
     private ObservableList<ReportEntry> allReportsList = FXCollections.observableArrayList();
     private ObservableList<Product> productList = FXCollections.observableArrayList();
 
+    // Zapytania w tle: słowniki panelu (anulowane przy wylogowaniu)
+    // oraz dane aktywnej sekcji (anulowane przy przejściu do innej sekcji)
+    private final QueryScope queries = new QueryScope();
+    private final QueryScope sectionQueries = new QueryScope();
+
+    // Zapisy wywołane przez trenera (nie są anulowane przy przejściu do innej sekcji)
+    private final QueryScope writes = new QueryScope();
+
+    // Dane sekcji ładowane przy pierwszym wyświetleniu sekcji i odświeżane w tle
+    // po upływie okna ważności
+    private final SectionCache sections = new SectionCache();
+
 
     /**
      * Inicjalizuje kontroler panelu trenera.
@@ -145,10 +165,31 @@ public class TrainerDashboardController {
         initializeReportsTable();
         initializeProductsTable();
         initializeIncomeTable(); // <-- DODAJ TĘ LINIĘ
+        registerSections();
 
         showDashboard(); // Domyślnie pokazujemy dashboard
     }
 
+    /**
+     * Rejestruje metody ładujące dane poszczególnych sekcji.
+     * Dane sekcji nie są ładowane w {@link #setTrainerData}, lecz przy pierwszym
+     * wyświetleniu sekcji; metody ładujące odczytują identyfikator trenera
+     * w chwili wywołania.
+     */
+    private void registerSections() {
+        sections.register(trainingPlansSection, () -> CompletableFuture.allOf(
+                loadAllTrainerReports(),
+                loadClientsForTrainingPlan()));
+        sections.register(scheduleSection, () -> loadTrainingSchedule().thenRun(() -> {
+            trainingScheduleTable.refresh(); // Wymuś odświeżenie
+            System.out.println("DEBUG [showSchedule]: Liczba wpisów w harmonogramie: " + trainingScheduleList.size());
+        }));
+        sections.register(incomeSection, this::loadIncomeReports);
+        sections.register(progressSection, this::loadTrainerTasks);
+        sections.register(reportsSection, this::loadAllReports);
+        sections.register(productsSection, this::loadProducts);
+    }
+
 
     // --- INITIALIZATION METHODS ---
     /**
@@ -206,10 +247,7 @@ public class TrainerDashboardController {
      * Metoda czyści listę przychodów przed załadowaniem nowych danych,
      * obsługuje połączenie z bazą danych oraz wszelkie wyjątki SQL.
      */
-    private void loadIncomeReports() {
-        incomeList.clear();
-        BigDecimal totalIncome = BigDecimal.ZERO;
-
+    private CompletableFuture<?> loadIncomeReports() {
         String sql = "SELECT tr_p.id AS payment_id, " + // <--- ZMIANA TUTAJ: tr_p.id zamiast tr_p.payment_id
                 "c.name AS client_name, " +
                 "tr.training_date, " +
@@ -226,42 +264,47 @@ public class TrainerDashboardController {
         System.out.println("DEBUG [loadIncomeReports]: SQL: " + sql);
         System.out.println("DEBUG [loadIncomeReports]: Trainer ID: " + trainerId);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        int trainerId = this.trainerId;
+        return sectionQueries.load(incomeTable, conn -> {
+            List<TrainerIncomeEntry> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, trainerId);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    // Konwersja Date na LocalDateTime (jeśli training_date jest typu DATE)
+                    LocalDate trainingDate = null;
+                    if (rs.getDate("training_date") != null) {
+                        trainingDate = rs.getDate("training_date").toLocalDate();
+                    }
+                    LocalDateTime trainingDateTime = (trainingDate != null) ? trainingDate.atStartOfDay() : null;
 
-            pstmt.setInt(1, trainerId);
-            ResultSet rs = pstmt.executeQuery();
 
-            int count = 0;
-            while (rs.next()) {
-                // Konwersja Date na LocalDateTime (jeśli training_date jest typu DATE)
-                LocalDate trainingDate = null;
-                if (rs.getDate("training_date") != null) {
-                    trainingDate = rs.getDate("training_date").toLocalDate();
+                    result.add(new TrainerIncomeEntry(
+                            rs.getInt("payment_id"), // Tutaj używamy aliasu 'payment_id'
+                            rs.getString("client_name"),
+                            trainingDateTime,
+                            rs.getTimestamp("payment_date"),
+                            rs.getBigDecimal("amount"),
+                            rs.getString("request_notes")
+                    ));
                 }
-                LocalDateTime trainingDateTime = (trainingDate != null) ? trainingDate.atStartOfDay() : null;
-
-
-                TrainerIncomeEntry entry = new TrainerIncomeEntry(
-                        rs.getInt("payment_id"), // Tutaj używamy aliasu 'payment_id'
-                        rs.getString("client_name"),
-                        trainingDateTime,
-                        rs.getTimestamp("payment_date"),
-                        rs.getBigDecimal("amount"),
-                        rs.getString("request_notes")
-                );
-                incomeList.add(entry);
+            }
+            System.out.println("DEBUG [loadIncomeReports]: Załadowano " + result.size() + " wpisów dochodów.");
+            return result;
+        }, entries -> {
+            incomeList.setAll(entries);
+            BigDecimal totalIncome = BigDecimal.ZERO;
+            for (TrainerIncomeEntry entry : entries) {
                 totalIncome = totalIncome.add(entry.getAmount());
-                count++;
             }
-            System.out.println("DEBUG [loadIncomeReports]: Załadowano " + count + " wpisów dochodów.");
-        } catch (SQLException e) {
+            totalIncomeLabel.setText(String.format("%.2f PLN", totalIncome));
+        }, e -> {
             System.err.println("BŁĄD SQL [loadIncomeReports]: " + e.getMessage());
             e.printStackTrace();
             showError("Błąd ładowania danych o dochodach: " + e.getMessage());
-        }
-
-        totalIncomeLabel.setText(String.format("%.2f PLN", totalIncome));
+        });
     }
 
 
@@ -285,23 +328,9 @@ public class TrainerDashboardController {
 
         // Dla priorytetu i statusu wyświetlamy nazwy, a nie ID
         taskPriorityColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(
-                        prioritiesList.stream()
-                                .filter(p -> p.getId() == cellData.getValue().getPriorityId())
-                                .map(Priority::getName)
-                                .findFirst()
-                                .orElse("Nieznany")
-                )
-        );
+                new SimpleStringProperty(ReferenceData.priorityName(cellData.getValue().getPriorityId())));
         taskStatusColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(
-                        statusesList.stream()
-                                .filter(s -> s.getId() == cellData.getValue().getStatusId())
-                                .map(Status::getName)
-                                .findFirst()
-                                .orElse("Nieznany")
-                )
-        );
+                new SimpleStringProperty(ReferenceData.statusName(cellData.getValue().getStatusId())));
 
         // Inicjalizacja ObservableList dla zadań i powiązanie z tabelą
         trainerTasksList = FXCollections.observableArrayList();
@@ -367,9 +396,9 @@ public class TrainerDashboardController {
 
     /**
      * Ustawia dane trenera w panelu.
-     * Inicjalizuje kontroler danymi trenera, ładuje jego klientów, 
-     * prośby o treningi, zadania i inne dane niezbędne do funkcjonowania
-     * panelu trenera.
+     * Inicjalizuje kontroler danymi trenera i ładuje słowniki priorytetów
+     * i statusów zadań. Dane poszczególnych sekcji (klienci, prośby o treningi,
+     * zadania itd.) ładowane są przy pierwszym wyświetleniu sekcji.
      * 
      * @param trainerId identyfikator trenera w bazie danych
      * @param trainerName imię i nazwisko trenera
@@ -378,67 +407,38 @@ public class TrainerDashboardController {
         this.trainerId = trainerId;
         this.trainerName = trainerName;
         System.out.println("TrainerDashboardController: setTrainerData called. Trainer ID: " + trainerId + ", Name: " + trainerName);
-        // Po ustawieniu danych trenera, załaduj odpowiednie dane dla widoków
-        loadAllTrainerReports(); // Dla sekcji "Ustal trening" (prośby od klientów)
-        loadClientsForTrainingPlan(); // Dla ComboBoxa w sekcji "Ustal trening"
-        loadAllReports(); // Dla sekcji "Raporty" (wszystkie raporty trenera)
-        loadProducts(); // Załaduj produkty przy starcie
-        loadTrainingSchedule(); // Ładuj harmonogram po ustawieniu ID trenera
-
         // NOWE: Wywołaj inicjalizację sekcji Postępy tutaj, po ustawieniu danych trenera
         // i po tym, jak FXMLLoader na pewno wstrzyknął wszystkie @FXML elementy
         initializeProgressSection(); // <-- DODAJ TĘ LINIĘ TUTAJ!
-        loadPrioritiesAndStatuses(); // Też tutaj, bo są potrzebne dla initializeProgressSection
-        loadTrainerTasks();          // I to też tutaj, aby dane były załadowane od razu
+        loadPrioritiesAndStatuses(); // Też tutaj, bo są potrzebne dla initializeProgressSection i zapisu planu
     }
 
     /**
-     * Ładuje listy priorytetów i statusów zadań z bazy danych.
-     * Pobiera dane z tabel 'priorities' i 'statuses', a następnie wypełnia nimi
-     * odpowiednie listy obserwowalne (prioritiesList i statusesList), które są
-     * używane w interfejsie użytkownika do wyboru priorytetu i statusu zadania.
-     * Metoda obsługuje połączenie z bazą danych oraz wszelkie wyjątki SQL.
+     * Wypełnia listy priorytetów i statusów zadań (prioritiesList i statusesList),
+     * używane w interfejsie użytkownika do wyboru priorytetu i statusu zadania,
+     * oraz ich indeksy według identyfikatora (prioritiesById i statusesById).
+     * Dane pochodzą ze wspólnych danych słownikowych ({@link ReferenceData}),
+     * wczytywanych z bazy danych raz dla całej aplikacji.
      * Rejestruje liczbę załadowanych elementów dla celów diagnostycznych.
      */
     private void loadPrioritiesAndStatuses() {
-        prioritiesList.clear();
-        statusesList.clear();
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            // Zmieniono 'task_priorities' na 'priorities' oraz nazwy kolumn
-            String sqlPriorities = "SELECT priority_id AS id, priority_name AS name FROM priorities ORDER BY priority_id";
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlPriorities);
-                 ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    // Pobieramy dane używając aliasów 'id' i 'name'
-                    prioritiesList.add(new Priority(rs.getInt("id"), rs.getString("name")));
-                }
-            }
-
-            // Zmieniono 'task_statuses' na 'statuses' oraz nazwy kolumn
-            String sqlStatuses = "SELECT status_id AS id, status_name AS name FROM statuses ORDER BY status_id";
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlStatuses);
-                 ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    // Pobieramy dane używając aliasów 'id' i 'name'
-                    statusesList.add(new Status(rs.getInt("id"), rs.getString("name")));
-                }
-            }
-            System.out.println("Loaded " + prioritiesList.size() + " priorities and " + statusesList.size() + " statuses.");
-
-        } catch (SQLException e) {
+        queries.track(null, ReferenceData.load(), data -> {
+            prioritiesList.setAll(data.priorities().entries().stream()
+                    .map(p -> new Priority(p.id(), p.name()))
+                    .toList());
+            statusesList.setAll(data.statuses().entries().stream()
+                    .map(s -> new Status(s.id(), s.name()))
+                    .toList());
+            prioritiesById.clear();
+            prioritiesList.forEach(p -> prioritiesById.put(p.getId(), p));
+            statusesById.clear();
+            statusesList.forEach(s -> statusesById.put(s.getId(), s));
+            tasksProgressTable.refresh(); // Kolumny priorytetu i statusu wyświetlają nazwy ze słowników
+            System.out.println("Loaded " + prioritiesList.size() + " priorities, " + statusesList.size() + " statuses.");
+        }, e -> {
             showError("Błąd ładowania priorytetów/statusów: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        });
     }
 
     /**
@@ -459,22 +459,9 @@ public class TrainerDashboardController {
         editTaskTrainingDateLabel.setText("Data treningu: " + task.getTrainingDate());
         editTaskDescriptionArea.setText(task.getTaskDescription());
 
-        // Wybierz priorytet w ComboBoxie na podstawie ID
-        editTaskPriorityCombo.getSelectionModel().select(
-                prioritiesList.stream()
-                        .filter(p -> p.getId() == task.getPriorityId())
-                        .findFirst()
-                        .orElse(null)
-        );
-
-        // Wybierz status w ComboBoxie na podstawie ID
-        statusesList.forEach(s -> System.out.println("Status: " + s.getName() + " ID: " + s.getId())); // Debugowanie
-        editTaskStatusCombo.getSelectionModel().select(
-                statusesList.stream()
-                        .filter(s -> s.getId() == task.getStatusId())
-                        .findFirst()
-                        .orElse(null)
-        );
+        // Wybierz priorytet i status w ComboBoxach na podstawie ID
+        editTaskPriorityCombo.getSelectionModel().select(prioritiesById.get(task.getPriorityId()));
+        editTaskStatusCombo.getSelectionModel().select(statusesById.get(task.getStatusId()));
     }
 
     /**
@@ -523,36 +510,27 @@ public class TrainerDashboardController {
             return;
         }
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "UPDATE trainer_tasks SET priority_id = ?, status_id = ? WHERE task_id = ?"; // Zmieniono WHERE id = ? na WHERE task_id = ?
+        String sql = "UPDATE trainer_tasks SET priority_id = ?, status_id = ? WHERE task_id = ?"; // Zmieniono WHERE id = ? na WHERE task_id = ?
+        int taskId = selectedTask.getId(); // Tutaj 'getId()' z TrainerTask zwróci już 'task_id'
+        writes.submit(updateTaskButton, conn -> {
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, newPriority.getId());
                 pstmt.setInt(2, newStatus.getId());
-                pstmt.setInt(3, selectedTask.getId()); // Tutaj 'getId()' z TrainerTask zwróci już 'task_id'
-
-                int affectedRows = pstmt.executeUpdate();
-                if (affectedRows > 0) {
-                    showAlert("Sukces", "Zadanie zaktualizowane pomyślnie.");
-                    loadTrainerTasks(); // Odśwież tabelę po aktualizacji
-                    clearTaskEditForm(); // Wyczyść formularz
-                } else {
-                    showError("Nie udało się zaktualizować zadania.");
-                }
+                pstmt.setInt(3, taskId);
+                return pstmt.executeUpdate() > 0;
             }
-        } catch (SQLException e) {
+        }, updated -> {
+            if (updated) {
+                showAlert("Sukces", "Zadanie zaktualizowane pomyślnie.");
+                loadTrainerTasks(); // Odśwież tabelę po aktualizacji
+                clearTaskEditForm(); // Wyczyść formularz
+            } else {
+                showError("Nie udało się zaktualizować zadania.");
+            }
+        }, e -> {
             showError("Błąd aktualizacji zadania: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        });
     }
 
 
@@ -565,24 +543,23 @@ public class TrainerDashboardController {
      * Metoda czyści listę zadań przed załadowaniem nowych danych,
      * obsługuje połączenie z bazą danych oraz wszelkie wyjątki SQL.
      */
-    private void loadTrainerTasks() {
-        trainerTasksList.clear();
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            String sql = "SELECT tt.task_id AS task_id, tt.training_request_id, tt.priority_id, tt.status_id, tt.task_description, " +
-                    "tr.training_date, u.id AS client_id, u.name AS client_name " +
-                    "FROM trainer_tasks tt " +
-                    "JOIN trainingrequests tr ON tt.training_request_id = tr.id " +
-                    "JOIN reports r ON tr.report = r.id " +
-                    "JOIN users u ON r.client_id = u.id " +
-                    "WHERE r.trainer_id = ? ORDER BY tr.training_date DESC, tt.task_id DESC"; // Tutaj też zmień tt.id na tt.task_id
+    private CompletableFuture<?> loadTrainerTasks() {
+        String sql = "SELECT tt.task_id AS task_id, tt.training_request_id, tt.priority_id, tt.status_id, tt.task_description, " +
+                "tr.training_date, u.id AS client_id, u.name AS client_name " +
+                "FROM trainer_tasks tt " +
+                "JOIN trainingrequests tr ON tt.training_request_id = tr.id " +
+                "JOIN reports r ON tr.report = r.id " +
+                "JOIN users u ON r.client_id = u.id " +
+                "WHERE r.trainer_id = ? ORDER BY tr.training_date DESC, tt.task_id DESC"; // Tutaj też zmień tt.id na tt.task_id
 
+        int trainerId = this.trainerId;
+        return sectionQueries.load(tasksProgressTable, conn -> {
+            List<TrainerTask> result = new ArrayList<>();
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, trainerId);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
-                        trainerTasksList.add(new TrainerTask(
+                        result.add(new TrainerTask(
                                 rs.getInt("task_id"), // Używasz aliasu 'task_id' z zapytania
                                 rs.getInt("training_request_id"),
                                 rs.getInt("client_id"),
@@ -595,32 +572,25 @@ public class TrainerDashboardController {
                     }
                 }
             }
-            System.out.println("Loaded " + trainerTasksList.size() + " trainer tasks for trainer ID: " + trainerId);
-        } catch (SQLException e) {
+            System.out.println("Loaded " + result.size() + " trainer tasks for trainer ID: " + trainerId);
+            return result;
+        }, trainerTasksList::setAll, e -> {
             showError("Błąd ładowania zadań trenera: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
+        });
     }
 
     /**
      * Wyświetla sekcję postępów zadań trenera.
-     * Ukrywa wszystkie inne sekcje, pokazuje sekcję postępów i odświeża
-     * dane o zadaniach trenera, aby zapewnić aktualność wyświetlanych informacji.
+     * Ukrywa wszystkie inne sekcje, pokazuje sekcję postępów i ładuje
+     * dane o zadaniach trenera przy pierwszym wyświetleniu lub gdy są nieaktualne.
      * Metoda wywoływana po kliknięciu odpowiedniego przycisku nawigacyjnego w interfejsie.
      */
     @FXML
     public void showProgress() {
         hideAllSections();
         progressSection.setVisible(true);
-        loadTrainerTasks(); // Odśwież dane za każdym razem, gdy przechodzisz do zakładki
+        sections.show(progressSection); // Odśwież dane, jeśli są nieaktualne
     }
 
     private void initializeTrainingPlans() { // Nazwa odzwierciedla "Ustal trening"
@@ -638,6 +608,7 @@ public class TrainerDashboardController {
             }
         });
 
+        UserDirectory.getInstance().bind(UserDirectory.CLIENT, clientsList, Client::new);
         planClientCombo.setItems(clientsList);
         planClientCombo.setConverter(new StringConverter<Client>() {
             @Override
@@ -687,8 +658,7 @@ public class TrainerDashboardController {
 
     // --- DATA LOADING METHODS ---
 
-    private void loadAllTrainerReports() {
-        pendingRequestsList.clear();
+    private CompletableFuture<?> loadAllTrainerReports() {
         // ZAPYTANIE SQL, które wybiera raporty, dla których NIE MA JESZCZE powiązanego wpisu w trainingrequests
         String sql = "SELECT r.id, r.client_id, u.name AS client_name, r.notes " +
                 "FROM reports r " +
@@ -698,27 +668,30 @@ public class TrainerDashboardController {
                 "ORDER BY r.id ASC";
 
         System.out.println("Loading pending reports for trainer ID: " + trainerId);
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, trainerId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                pendingRequestsList.add(new PendingTrainingRequest(
-                        rs.getInt("id"),
-                        rs.getInt("client_id"),
-                        rs.getString("client_name"),
-                        rs.getString("notes")
-                ));
+        int trainerId = this.trainerId;
+        return sectionQueries.load(pendingRequestsTable, conn -> {
+            List<PendingTrainingRequest> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, trainerId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    result.add(new PendingTrainingRequest(
+                            rs.getInt("id"),
+                            rs.getInt("client_id"),
+                            rs.getString("client_name"),
+                            rs.getString("notes")
+                    ));
+                }
             }
-            System.out.println("Loaded " + pendingRequestsList.size() + " pending reports for 'Ustal trening' (trainer ID: " + trainerId + ")");
-        } catch (SQLException e) {
+            System.out.println("Loaded " + result.size() + " pending reports for 'Ustal trening' (trainer ID: " + trainerId + ")");
+            return result;
+        }, pendingRequestsList::setAll, e -> {
             showError("Błąd ładowania próśb o trening (dla sekcji 'Ustal trening'): " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
-    private void loadAllReports() {
-        allReportsList.clear();
+    private CompletableFuture<?> loadAllReports() {
         System.out.println("Attempting to load all reports for trainer ID: " + trainerId);
         // To zapytanie pobiera wszystkie raporty, w tym te, dla których utworzono już plan treningowy
         String sql = "SELECT r.id, r.client_id, u.name AS client_name, r.notes, ut.name AS trainer_name " +
@@ -729,32 +702,33 @@ public class TrainerDashboardController {
                 "ORDER BY r.id ASC";
         System.out.println("SQL Query for All Reports: " + sql);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, trainerId);
-            System.out.println("Executing query for All Reports with trainerId: " + trainerId);
-            ResultSet rs = pstmt.executeQuery();
-            int count = 0;
-            while (rs.next()) {
-                allReportsList.add(new ReportEntry(
-                        rs.getInt("id"),
-                        rs.getInt("client_id"),
-                        rs.getString("client_name"),
-                        rs.getString("notes"),
-                        rs.getString("trainer_name")
-                ));
-                count++;
+        int trainerId = this.trainerId;
+        return sectionQueries.load(reportsTable, conn -> {
+            List<ReportEntry> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, trainerId);
+                System.out.println("Executing query for All Reports with trainerId: " + trainerId);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    result.add(new ReportEntry(
+                            rs.getInt("id"),
+                            rs.getInt("client_id"),
+                            rs.getString("client_name"),
+                            rs.getString("notes"),
+                            rs.getString("trainer_name")
+                    ));
+                }
             }
-            System.out.println("Loaded " + count + " reports for 'Wszystkie Raporty' (trainer ID: " + trainerId + ")");
-        } catch (SQLException e) {
+            System.out.println("Loaded " + result.size() + " reports for 'Wszystkie Raporty' (trainer ID: " + trainerId + ")");
+            return result;
+        }, allReportsList::setAll, e -> {
             System.err.println("SQL Exception in loadAllReports: " + e.getMessage());
             e.printStackTrace();
             showError("Błąd ładowania wszystkich raportów (dla sekcji 'Raporty'): " + e.getMessage());
-        }
+        });
     }
 
-    private void loadTrainingSchedule() {
-        trainingScheduleList.clear();
+    private CompletableFuture<List<TrainingScheduleEntry>> loadTrainingSchedule() {
         String sql = "SELECT tr.id, tr.training_date, tr.notes, u.name AS client_name " +
                 "FROM trainingrequests tr " +
                 "JOIN reports r ON tr.report = r.id " +
@@ -765,67 +739,68 @@ public class TrainerDashboardController {
         System.out.println("DEBUG [loadTrainingSchedule]: SQL: " + sql);
         System.out.println("DEBUG [loadTrainingSchedule]: Trainer ID: " + trainerId);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, trainerId);
-            ResultSet rs = pstmt.executeQuery();
-
-            int count = 0;
-            while (rs.next()) {
-                trainingScheduleList.add(new TrainingScheduleEntry(
-                        rs.getInt("id"),
-                        rs.getString("client_name"),
-                        rs.getDate("training_date").toLocalDate(),
-                        rs.getString("notes")
-                ));
-                count++;
+        int trainerId = this.trainerId;
+        return sectionQueries.load(trainingScheduleTable, conn -> {
+            List<TrainingScheduleEntry> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, trainerId);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    result.add(new TrainingScheduleEntry(
+                            rs.getInt("id"),
+                            rs.getString("client_name"),
+                            rs.getDate("training_date").toLocalDate(),
+                            rs.getString("notes")
+                    ));
+                }
             }
-            System.out.println("DEBUG [loadTrainingSchedule]: Załadowano " + count + " wpisów");
-        } catch (SQLException e) {
+            System.out.println("DEBUG [loadTrainingSchedule]: Załadowano " + result.size() + " wpisów");
+            return result;
+        }, trainingScheduleList::setAll, e -> {
             System.err.println("BŁĄD SQL [loadTrainingSchedule]: " + e.getMessage());
             e.printStackTrace();
             showError("Błąd ładowania harmonogramu: " + e.getMessage());
-        }
+        });
     }
 
 
-    private void loadClientsForTrainingPlan() {
-        clientsList.clear();
-        String sql = "SELECT id, name FROM users WHERE role = 'client'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                clientsList.add(new Client(rs.getInt("id"), rs.getString("name")));
-            }
-        } catch (SQLException e) {
+    /**
+     * Odświeża listę klientów do planu treningowego. Lista powiązana jest
+     * z katalogiem użytkowników, który pobiera tylko klientów zmienionych
+     * od ostatniego odświeżenia.
+     */
+    private CompletableFuture<?> loadClientsForTrainingPlan() {
+        return sectionQueries.track(null, UserDirectory.getInstance().refresh(), ignored -> { }, e -> {
             showError("Błąd ładowania klientów: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
 
-    private void loadProducts() {
-        productList.clear();
+    private CompletableFuture<?> loadProducts() {
         String sql = "SELECT id, name, price, stock FROM products ORDER BY name ASC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                productList.add(new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getBigDecimal("price"),
-                        rs.getInt("stock")
-                ));
+        return sectionQueries.load(productsTable, conn -> {
+            List<Product> result = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    result.add(new Product(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getBigDecimal("price"),
+                            rs.getInt("stock")
+                    ));
+                }
             }
-            System.out.println("Loaded " + productList.size() + " products.");
-        } catch (SQLException e) {
+            System.out.println("Loaded " + result.size() + " products.");
+            return result;
+        }, productList::setAll, e -> {
             System.err.println("Błąd ładowania produktów: " + e.getMessage());
             e.printStackTrace();
             showError("Błąd ładowania produktów: " + e.getMessage());
-        }
+        });
     }
 
     // --- UI Update & Form Management ---
@@ -867,6 +842,7 @@ public class TrainerDashboardController {
     // --- SECTION TOGGLE METHODS ---
 
     private void hideAllSections() {
+        sectionQueries.cancelAll();
         dashboardSection.setVisible(false);
         trainingPlansSection.setVisible(false);
         scheduleSection.setVisible(false);
@@ -891,37 +867,34 @@ public class TrainerDashboardController {
     public void showTrainingPlans() { // Nazwa metody odzwierciedla "Ustal trening"
         hideAllSections();
         trainingPlansSection.setVisible(true);
-        loadAllTrainerReports(); // Odśwież listę próśb za każdym razem, gdy przechodzisz do zakładki
-        loadClientsForTrainingPlan(); // Upewnij się, że combobox klientów jest aktualny
+        sections.show(trainingPlansSection); // Prośby i klienci, jeśli dane są nieaktualne
         clearSelectedRequest(); // Czyścimy formularz
     }
 
     /**
      * Wyświetla sekcję harmonogramu treningów trenera.
      * Ukrywa wszystkie inne sekcje, pokazuje sekcję harmonogramu
-     * i odświeża dane o zaplanowanych treningach z klientami.
+     * i ładuje dane o zaplanowanych treningach z klientami, jeśli są nieaktualne.
      * Pozwala na przeglądanie i zarządzanie terminami treningów.
      */
     @FXML
     public void showSchedule() {
         hideAllSections();
         scheduleSection.setVisible(true);
-        loadTrainingSchedule();
-        trainingScheduleTable.refresh(); // Wymuś odświeżenie
-        System.out.println("DEBUG [showSchedule]: Liczba wpisów w harmonogramie: " + trainingScheduleList.size());
+        sections.show(scheduleSection);
     }
 
     /**
      * Wyświetla sekcję przychodów trenera.
      * Ukrywa wszystkie inne sekcje, pokazuje sekcję przychodów
-     * i odświeża dane o przychodach trenera z przeprowadzonych treningów.
+     * i ładuje dane o przychodach trenera z przeprowadzonych treningów, jeśli są nieaktualne.
      * Prezentuje szczegółowe informacje o wszystkich płatnościach.
      */
     @FXML
     public void showIncome() {
         hideAllSections();
         incomeSection.setVisible(true);
-        loadIncomeReports(); // <-- DODAJ TĘ LINIĘ
+        sections.show(incomeSection);
     }
 
 
@@ -929,27 +902,27 @@ public class TrainerDashboardController {
     /**
      * Wyświetla sekcję raportów trenera.
      * Ukrywa wszystkie inne sekcje, pokazuje sekcję raportów
-     * i odświeża dane o raportach klientów przypisanych do trenera.
+     * i ładuje dane o raportach klientów przypisanych do trenera, jeśli są nieaktualne.
      * Umożliwia przeglądanie i analizę raportów treningowych.
      */
     @FXML
     public void showReports() {
         hideAllSections();
         reportsSection.setVisible(true);
-        loadAllReports(); // Ładuj dane specyficzne dla tabeli "Raporty"
+        sections.show(reportsSection); // Dane specyficzne dla tabeli "Raporty"
     }
 
     /**
      * Wyświetla sekcję produktów dostępnych w siłowni.
      * Ukrywa wszystkie inne sekcje, pokazuje sekcję produktów
-     * i odświeża listę dostępnych produktów, ich cen i stanów magazynowych.
+     * i ładuje listę dostępnych produktów, ich cen i stanów magazynowych, jeśli jest nieaktualna.
      * Pozwala trenerowi na przeglądanie asortymentu siłowni.
      */
     @FXML
     public void showProducts() {
         hideAllSections();
         productsSection.setVisible(true);
-        loadProducts(); // Odśwież dane produktów za każdym razem, gdy przechodzisz do zakładki
+        sections.show(productsSection);
     }
 
     // --- ACTION METHODS ---
@@ -992,18 +965,19 @@ public class TrainerDashboardController {
         // NOWE: Zapytanie do wstawienia zadania do tabeli trainer_tasks
         String sqlInsertTask = "INSERT INTO trainer_tasks (training_request_id, priority_id, status_id, task_description) VALUES (?, ?, ?, ?)";
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
+        String notes = exercisesNotes;
+        int reportId = selectedRequest.getId();
+        writes.submit(acceptRequestButton, conn -> {
+            // Niezatwierdzona transakcja (np. po błędzie) jest wycofywana przy zwrocie połączenia do puli
             conn.setAutoCommit(false); // Rozpocznij transakcję
 
             // 1. Wstawianie do trainingrequests
             int generatedTrainingRequestId = -1; // Zmienna do przechowania wygenerowanego ID
             // Użyj PreparedStatement.RETURN_GENERATED_KEYS, aby pobrać ID nowo wstawionego wiersza
             try (PreparedStatement pstmtInsert = conn.prepareStatement(sqlInsertTraining, PreparedStatement.RETURN_GENERATED_KEYS)) {
-                pstmtInsert.setInt(1, selectedRequest.getId());
+                pstmtInsert.setInt(1, reportId);
                 pstmtInsert.setDate(2, java.sql.Date.valueOf(trainingDate));
-                pstmtInsert.setString(3, exercisesNotes);
+                pstmtInsert.setString(3, notes);
 
                 int affectedRowsInsert = pstmtInsert.executeUpdate();
 
@@ -1017,26 +991,19 @@ public class TrainerDashboardController {
 
                     // 2. NOWE: Wstawianie do trainer_tasks
                     if (generatedTrainingRequestId != -1) {
-                        // Znajdź domyślny priorytet i status (np. "Pośrednie" i "do zrobienia")
-                        // WAŻNE: Upewnij się, że prioritiesList i statusesList są już załadowane
-                        // (np. w setTrainerData() lub initialize())
-                        int defaultPriorityId = prioritiesList.stream()
-                                .filter(p -> p.getName().equals("Pośrednie")) // Użyj "Pośrednie" lub "Ważne"
-                                .map(Priority::getId)
-                                .findFirst()
-                                .orElseThrow(() -> new SQLException("Default Priority 'Pośrednie' not found in loaded data. Ensure loadPrioritiesAndStatuses() is called."));
-
-                        int defaultStatusId = statusesList.stream()
-                                .filter(s -> s.getName().equals("do zrobienia"))
-                                .map(Status::getId)
-                                .findFirst()
-                                .orElseThrow(() -> new SQLException("Default Status 'do zrobienia' not found in loaded data. Ensure loadPrioritiesAndStatuses() is called."));
+                        // Domyślny priorytet i status ("Pośrednie" i "do zrobienia") z danych słownikowych
+                        ReferenceData.Snapshot referenceData = ReferenceData.current();
+                        if (referenceData == null) {
+                            throw new SQLException("Priorities and statuses are not loaded yet. Task not created.");
+                        }
+                        int defaultPriorityId = referenceData.priorities().idOf(ReferenceData.DEFAULT_PRIORITY);
+                        int defaultStatusId = referenceData.statuses().idOf(ReferenceData.DEFAULT_STATUS);
 
                         try (PreparedStatement pstmtInsertTask = conn.prepareStatement(sqlInsertTask)) {
                             pstmtInsertTask.setInt(1, generatedTrainingRequestId);
                             pstmtInsertTask.setInt(2, defaultPriorityId);
                             pstmtInsertTask.setInt(3, defaultStatusId);
-                            pstmtInsertTask.setString(4, exercisesNotes); // Opis zadania jako notatki z treningu
+                            pstmtInsertTask.setString(4, notes); // Opis zadania jako notatki z treningu
 
                             pstmtInsertTask.executeUpdate();
                         }
@@ -1045,40 +1012,29 @@ public class TrainerDashboardController {
                     }
 
                     conn.commit(); // Zatwierdź transakcję, jeśli wszystko poszło dobrze
-                    showAlert("Sukces", "Plan treningowy i zadanie postępu zostały zapisane dla klienta " + selectedRequest.getClientName() + ".");
-                    clearTrainingPlanForm();
-                    loadAllTrainerReports(); // Odśwież listę próśb
-                    clearSelectedRequest();
-                    loadAllReports(); // Odśwież ogólne raporty
-                    loadTrainingSchedule(); // Odśwież harmonogram
-                    loadTrainerTasks();     // NOWE: Odśwież listę zadań w sekcji Postępy
-                } else {
-                    conn.rollback(); // Wycofaj transakcję, jeśli trainingrequests się nie wstawilo
-                    showError("Nie udało się zapisać planu treningowego.");
+                    return true;
                 }
+                conn.rollback(); // Wycofaj transakcję, jeśli trainingrequests się nie wstawilo
+                return false;
             }
-        } catch (SQLException e) {
-            // Obsługa błędu transakcji
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Wycofaj transakcję w przypadku błędu
-                } catch (SQLException rollbackEx) {
-                    System.err.println("Błąd podczas wycofywania transakcji: " + rollbackEx.getMessage());
-                }
+        }, saved -> {
+            if (saved) {
+                showAlert("Sukces", "Plan treningowy i zadanie postępu zostały zapisane dla klienta " + selectedRequest.getClientName() + ".");
+                clearTrainingPlanForm();
+                loadAllTrainerReports(); // Odśwież listę próśb
+                clearSelectedRequest();
+                // Raporty, harmonogram i zadania w sekcji Postępy zostaną
+                // ponownie załadowane przy najbliższym wyświetleniu
+                sections.invalidate(reportsSection);
+                sections.invalidate(scheduleSection);
+                sections.invalidate(progressSection);
+            } else {
+                showError("Nie udało się zapisać planu treningowego.");
             }
+        }, e -> {
             showError("Błąd zapisu planu treningowego i zadania: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            // Zawsze przywróć auto-commit i zamknij połączenie
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException closeEx) {
-                    System.err.println("Błąd podczas zamykania połączenia: " + closeEx.getMessage());
-                }
-            }
-        }
+        });
     }
 
     @FXML
@@ -1116,20 +1072,23 @@ public class TrainerDashboardController {
             Optional<ButtonType> result = confirmAlert.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 String sql = "DELETE FROM products WHERE id = ?";
-                try (Connection conn = DatabaseConnection.getConnection();
-                     PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setInt(1, selectedProduct.getId());
-                    int affectedRows = pstmt.executeUpdate();
-                    if (affectedRows > 0) {
+                int productId = selectedProduct.getId();
+                writes.submit(null, conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setInt(1, productId);
+                        return pstmt.executeUpdate() > 0;
+                    }
+                }, deleted -> {
+                    if (deleted) {
                         showAlert("Sukces", "Produkt '" + selectedProduct.getName() + "' został usunięty.");
                         loadProducts(); // Odśwież listę po usunięciu
                     } else {
                         showError("Nie udało się usunąć produktu.");
                     }
-                } catch (SQLException e) {
+                }, e -> {
                     showError("Błąd usuwania produktu: " + e.getMessage());
                     e.printStackTrace();
-                }
+                });
             }
         } else {
             showAlert("Usuń Produkt", "Wybierz produkt z listy do usunięcia.");
@@ -1137,6 +1096,15 @@ public class TrainerDashboardController {
     }
 
 
+    /**
+     * Przerywa ładowanie danych panelu. Wywoływana przy wylogowaniu oraz przy
+     * porzuceniu panelu przygotowanego z wyprzedzeniem ({@link DashboardPreloader#dispose}).
+     */
+    void dispose() {
+        queries.cancelAll();
+        sectionQueries.cancelAll();
+    }
+
     // --- UTILITY METHODS ---
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -1161,6 +1129,7 @@ public class TrainerDashboardController {
      */
     @FXML
     public void logout() {
+        dispose();
         try {
             Stage stage = (Stage) dashboardSection.getScene().getWindow();
             FXMLLoader loader = new FXMLLoader(getClass().getResource("login.fxml"));
@@ -0,0 +1,364 @@
+package com.example.silowniaprojekt;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Wspólny dla całej aplikacji katalog użytkowników (identyfikator i nazwa według roli),
+ * z którego korzystają listy wyboru klientów i trenerów w panelach.
+ *
+ * Katalog wczytywany jest raz, a następnie odświeżany przyrostowo: każda zmiana
+ * w tabeli {@code users} (dodanie, edycja, usunięcie) zapisuje w tej samej transakcji
+ * znacznik w tabeli {@code user_changes} ({@link #recordChange}), a {@link #refresh()}
+ * pobiera tylko użytkowników ze znacznikami, których jeszcze nie odczytano.
+ * Gdy zmian nie ma, odświeżenie to jedno zapytanie, bez wczytywania użytkowników.
+ *
+ * Identyfikatory znaczników przydzielane są przy wstawieniu, a widoczne stają się
+ * dopiero po zatwierdzeniu transakcji - znacznik o niższym identyfikatorze może
+ * pojawić się po wyższym. Dlatego odświeżenie czyta znaczniki powyżej pierwszej
+ * luki w odczytanych identyfikatorach ({@link #marker}), pomijając już odczytane
+ * ({@link #pending}). Luka zamykana jest, gdy brakujący znacznik zostanie odczytany
+ * albo gdy od odczytania późniejszego minie {@link #GAP_TIMEOUT} (transakcja
+ * wycofana nie zwalnia przydzielonego identyfikatora).
+ *
+ * Listy powiązane przez {@link #bind} są aktualizowane po każdej zmianie
+ * użytkowników ich roli. Metody (poza {@link #recordChange}) należy wywoływać
+ * z wątku JavaFX.
+ */
+public final class UserDirectory {
+
+    /** Rola klienta w tabeli {@code users}. */
+    public static final String CLIENT = "client";
+
+    /** Rola trenera w tabeli {@code users}. */
+    public static final String TRAINER = "trainer";
+
+    /**
+     * Czas, po którym luka w identyfikatorach znaczników uznawana jest za trwałą
+     * (wycofana transakcja); dłuższy niż domyślny limit oczekiwania na blokadę.
+     */
+    private static final Duration GAP_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * Użytkownik w katalogu.
+     *
+     * @param id identyfikator użytkownika
+     * @param name nazwa użytkownika
+     * @param role rola użytkownika
+     */
+    public record Entry(int id, String name, String role) {
+        /**
+         * Zwraca nazwę użytkownika wyświetlaną w listach wyboru.
+         *
+         * @return nazwa użytkownika
+         */
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Wynik odświeżenia pobrany w tle.
+     *
+     * @param full true, jeśli wczytano cały katalog
+     * @param marker znacznik, do którego (włącznie) odczytano wszystkie zmiany
+     * @param changes identyfikatory nowo odczytanych znaczników zmian
+     * @param entries wczytani (zmienieni) użytkownicy
+     * @param removed identyfikatory usuniętych użytkowników
+     */
+    private record Update(boolean full, long marker, List<Long> changes, List<Entry> entries, Set<Integer> removed) {
+    }
+
+    /** Lista powiązana z rolą; słaba referencja pozwala zwolnić listę zamkniętego panelu. */
+    private record Binding<T>(String role, WeakReference<ObservableList<T>> target,
+                              BiFunction<Integer, String, T> factory) {
+        /** Przepisuje użytkowników roli do listy; zwraca false, gdy lista została zwolniona. */
+        boolean update(List<Entry> entries) {
+            ObservableList<T> list = target.get();
+            if (list == null) {
+                return false;
+            }
+            List<T> items = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                items.add(factory.apply(entry.id(), entry.name()));
+            }
+            list.setAll(items);
+            return true;
+        }
+    }
+
+    private static final UserDirectory INSTANCE = new UserDirectory();
+
+    private final Map<Integer, Entry> users = new HashMap<>();
+    private final Map<String, ObservableList<Entry>> byRole = new HashMap<>();
+    private final List<Binding<?>> bindings = new ArrayList<>();
+
+    /**
+     * Znacznik, do którego (włącznie) odczytano wszystkie zmiany, czyli pozycja
+     * przed pierwszą luką; -1, dopóki katalog nie został wczytany.
+     */
+    private long marker = -1;
+
+    /** Znaczniki odczytane powyżej {@link #marker} i czas ich odczytania ({@link System#nanoTime()}). */
+    private final NavigableMap<Long, Long> pending = new TreeMap<>();
+
+    /** Trwające odświeżenie. */
+    private CompletableFuture<Void> refreshing;
+
+    /** Odświeżenie zlecone w czasie trwającego; uruchamiane po jego zakończeniu. */
+    private CompletableFuture<Void> queued;
+
+    private UserDirectory() {
+    }
+
+    /**
+     * Zwraca wspólny katalog użytkowników aplikacji.
+     *
+     * @return katalog użytkowników
+     */
+    public static UserDirectory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Zwraca użytkowników roli w kolejności identyfikatorów. Lista jest
+     * aktualizowana przy każdym odświeżeniu katalogu.
+     *
+     * @param role rola użytkowników
+     * @return niemodyfikowalna lista użytkowników roli
+     */
+    public ObservableList<Entry> entries(String role) {
+        return FXCollections.unmodifiableObservableList(roleList(role));
+    }
+
+    /**
+     * Wiąże listę (np. elementy listy wyboru) z użytkownikami roli: lista
+     * wypełniana jest od razu oraz po każdej zmianie użytkowników tej roli.
+     *
+     * @param role rola użytkowników
+     * @param target lista do wypełniania
+     * @param factory tworzy element listy z identyfikatora i nazwy użytkownika
+     * @param <T> typ elementu listy
+     */
+    public <T> void bind(String role, ObservableList<T> target, BiFunction<Integer, String, T> factory) {
+        Binding<T> binding = new Binding<>(role, new WeakReference<>(target), factory);
+        bindings.add(binding);
+        if (marker >= 0) {
+            binding.update(roleList(role));
+        }
+    }
+
+    /**
+     * Odświeża katalog w tle: przy pierwszym wywołaniu wczytuje wszystkich
+     * użytkowników, później tylko zmienionych od ostatniego odświeżenia.
+     * Wywołanie w trakcie odświeżenia zleca kolejne po jego zakończeniu
+     * (wspólne dla wszystkich wywołań w tym czasie).
+     *
+     * @return przyszłość zakończona na wątku JavaFX po zastosowaniu zmian;
+     *         jej anulowanie nie przerywa odświeżenia
+     */
+    public CompletableFuture<Void> refresh() {
+        if (refreshing == null) {
+            return start().copy();
+        }
+        if (queued == null) {
+            queued = new CompletableFuture<>();
+        }
+        return queued.copy();
+    }
+
+    /** Uruchamia odświeżenie; po jego zakończeniu uruchamia odświeżenie zlecone w międzyczasie. */
+    private CompletableFuture<Void> start() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        refreshing = result;
+        long since = marker;
+        Set<Long> seen = Set.copyOf(pending.keySet());
+        AsyncQueryExecutor.supply(conn -> fetch(conn, since, seen)).whenComplete((update, error) -> Platform.runLater(() -> {
+            refreshing = null;
+            if (error != null) {
+                System.err.println("Błąd odświeżania katalogu użytkowników: " + error.getMessage());
+                result.completeExceptionally(error);
+            } else {
+                apply(update);
+                result.complete(null);
+            }
+            if (queued != null) {
+                CompletableFuture<Void> waiting = queued;
+                queued = null;
+                start().whenComplete((ignored, nextError) -> {
+                    if (nextError != null) {
+                        waiting.completeExceptionally(nextError);
+                    } else {
+                        waiting.complete(null);
+                    }
+                });
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Zapisuje znacznik zmiany użytkownika. Wywoływana na tym samym połączeniu
+     * (w tej samej transakcji) co zmiana w tabeli {@code users}; po zatwierdzeniu
+     * należy wywołać {@link #refresh()}.
+     *
+     * @param conn połączenie, na którym zmieniono użytkownika
+     * @param userId identyfikator zmienionego użytkownika
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void recordChange(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO user_changes (user_id) VALUES (?)")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Pobiera cały katalog ({@code since < 0}) lub użytkowników ze znacznikami
+     * powyżej {@code since}, z pominięciem już odczytanych ({@code seen}).
+     */
+    private static Update fetch(Connection conn, long since, Set<Long> seen) throws SQLException {
+        if (since < 0) {
+            // Znacznik odczytany przed użytkownikami, z zapasem na transakcje jeszcze niezatwierdzone -
+            // zmiany powyżej niego zostaną pobrane ponownie przy następnym odświeżeniu
+            long marker;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT COALESCE(MAX(id), 0) FROM user_changes WHERE changed_at < NOW() - INTERVAL ? SECOND")) {
+                stmt.setLong(1, GAP_TIMEOUT.toSeconds());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    marker = rs.getLong(1);
+                }
+            }
+            return new Update(true, marker, List.of(),
+                    queryUsers(conn, "SELECT id, name, role FROM users", List.of()), Set.of());
+        }
+
+        List<Long> changes = new ArrayList<>();
+        Set<Integer> changed = new LinkedHashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id, user_id FROM user_changes WHERE id > ? ORDER BY id")) {
+            stmt.setLong(1, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong("id");
+                    if (!seen.contains(id)) {
+                        changes.add(id);
+                        changed.add(rs.getInt("user_id"));
+                    }
+                }
+            }
+        }
+        if (changed.isEmpty()) {
+            return new Update(false, since, changes, List.of(), Set.of());
+        }
+
+        List<Integer> ids = new ArrayList<>(changed);
+        List<Entry> entries = queryUsers(conn, "SELECT id, name, role FROM users WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids);
+        Set<Integer> removed = new HashSet<>(changed);
+        entries.forEach(entry -> removed.remove(entry.id()));
+        return new Update(false, since, changes, entries, removed);
+    }
+
+    private static List<Entry> queryUsers(Connection conn, String sql, List<Integer> ids) throws SQLException {
+        List<Entry> result = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new Entry(rs.getInt("id"), rs.getString("name"), rs.getString("role")));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Stosuje pobrane zmiany i aktualizuje listy ról, których dotyczyły. */
+    private void apply(Update update) {
+        Set<String> changedRoles = new HashSet<>();
+        if (update.full()) {
+            users.values().forEach(entry -> changedRoles.add(entry.role()));
+            users.clear();
+        }
+        for (Integer id : update.removed()) {
+            Entry previous = users.remove(id);
+            if (previous != null) {
+                changedRoles.add(previous.role());
+            }
+        }
+        for (Entry entry : update.entries()) {
+            Entry previous = users.put(entry.id(), entry);
+            if (previous != null) {
+                changedRoles.add(previous.role());
+            }
+            changedRoles.add(entry.role());
+        }
+        boolean firstLoad = marker < 0;
+        if (update.full()) {
+            pending.clear();
+        }
+        marker = update.marker();
+        long now = System.nanoTime();
+        update.changes().forEach(id -> pending.put(id, now));
+        advanceMarker(now);
+
+        for (String role : changedRoles) {
+            roleList(role).setAll(users.values().stream()
+                    .filter(entry -> role.equals(entry.role()))
+                    .sorted(Comparator.comparingInt(Entry::id))
+                    .toList());
+        }
+        Iterator<Binding<?>> it = bindings.iterator();
+        while (it.hasNext()) {
+            Binding<?> binding = it.next();
+            if ((firstLoad || changedRoles.contains(binding.role())) && !binding.update(roleList(binding.role()))) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Przesuwa {@link #marker} przez odczytane znaczniki: do kolejnego identyfikatora
+     * albo przez lukę, jeśli znacznik nad nią odczytano dawniej niż {@link #GAP_TIMEOUT}.
+     */
+    private void advanceMarker(long now) {
+        while (!pending.isEmpty()) {
+            Map.Entry<Long, Long> first = pending.firstEntry();
+            if (first.getKey() != marker + 1 && now - first.getValue() < GAP_TIMEOUT.toNanos()) {
+                return;
+            }
+            marker = first.getKey();
+            pending.pollFirstEntry();
+        }
+    }
+
+    private ObservableList<Entry> roleList(String role) {
+        return byRole.computeIfAbsent(role, r -> FXCollections.observableArrayList());
+    }
+}
@@ -8,14 +8,9 @@ module com.example.silowniaprojekt {
     requires kernel;
     requires layout;
     requires java.desktop;
+    requires java.prefs;
     requires io;
 
-    // Dodanie wymaganych modułów JUnit dla testów
-    requires org.junit.jupiter.api;
-    requires org.apiguardian.api;
-    requires org.opentest4j;
-    requires org.junit.platform.commons;
-
     opens com.example.silowniaprojekt to javafx.fxml;
     exports com.example.silowniaprojekt;
 }
\ No newline at end of file
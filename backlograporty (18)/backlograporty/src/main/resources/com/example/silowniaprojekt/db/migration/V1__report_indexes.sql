@@ -0,0 +1,22 @@
+-- Indeksy pod raporty okresowe (ReportGenerator) oraz złączenia używane w panelach.
+-- Zakresy dat w raportach porównują samą kolumnę daty (półotwarty przedział),
+-- więc mogą korzystać z indeksów, których pierwszą kolumną jest data.
+
+-- Raporty transakcji i sprzedaży produktów: zakres dat + filtr/grupowanie po produkcie
+CREATE INDEX idx_transactions_date_product ON transactions (transaction_date, product_id);
+
+-- Raporty karnetów: zakres dat + klient
+CREATE INDEX idx_membership_payments_date_client ON membership_payments (payment_date, client_id);
+
+-- Klucze złączeń
+CREATE INDEX idx_transactions_client ON transactions (client_id);
+CREATE INDEX idx_transactions_product ON transactions (product_id);
+CREATE INDEX idx_membership_payments_client ON membership_payments (client_id);
+CREATE INDEX idx_reports_client ON reports (client_id);
+CREATE INDEX idx_reports_trainer ON reports (trainer_id);
+CREATE INDEX idx_trainingrequests_report ON trainingrequests (report);
+CREATE INDEX idx_trainer_tasks_training_request ON trainer_tasks (training_request_id);
+CREATE INDEX idx_training_request_payments_request ON training_request_payments (training_request_id);
+
+-- Listy klientów i trenerów (WHERE role = ...)
+CREATE INDEX idx_users_role ON users (role);
@@ -0,0 +1,15 @@
+-- Dzienne zestawienie przychodów (RevenueRollup): jeden wiersz na dzień, strumień
+-- przychodu i produkt/trenera. Aktualizowane przy zapisie płatności w panelu
+-- pracownika; raporty i wskaźniki sumują dni zamiast pojedynczych sprzedaży.
+-- ref_id: id produktu (PRODUCTS), id trenera (TRAININGS), 0 (MEMBERSHIPS).
+CREATE TABLE IF NOT EXISTS daily_revenue (
+    revenue_date DATE NOT NULL,
+    stream VARCHAR(16) NOT NULL,
+    ref_id INT NOT NULL,
+    sales_count INT NOT NULL,
+    amount DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (revenue_date, stream, ref_id)
+);
+
+-- Zestawienie wypełniane jest istniejącymi danymi w migracji V7 (RevenueRollup.rebuild),
+-- która liczy dni płatności w strefie czasowej aplikacji, tak jak raporty.
@@ -0,0 +1,16 @@
+-- Dane wskaźników panelu pracownika (DashboardKpis).
+
+-- Data rejestracji użytkownika. Istniejące konta pozostają bez daty (nie są
+-- liczone jako nowi klienci), nowe otrzymują ją automatycznie.
+ALTER TABLE users ADD COLUMN created_at TIMESTAMP NULL DEFAULT NULL;
+ALTER TABLE users MODIFY created_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Nowi klienci w okresie: WHERE role = 'client' AND created_at w zakresie
+CREATE INDEX idx_users_role_created ON users (role, created_at);
+
+-- Frekwencja: jeden wiersz na użytkownika i dzień, w którym się zalogował
+CREATE TABLE IF NOT EXISTS daily_user_activity (
+    activity_date DATE NOT NULL,
+    user_id INT NOT NULL,
+    PRIMARY KEY (activity_date, user_id)
+);
@@ -0,0 +1,9 @@
+-- Godzinowe zestawienie wpisów activity_logs (wykres aktywności panelu administratora).
+
+-- Jeden wiersz na pełną godzinę; licznik zwiększany w chwili zapisu wpisu
+-- dziennika aktywności, więc wykres nie odczytuje samego dziennika.
+CREATE TABLE IF NOT EXISTS hourly_activity (
+    bucket_start DATETIME NOT NULL,
+    event_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start)
+);
@@ -0,0 +1,12 @@
+-- Indeksy pod stronicowaną historię aktywności klienta (ClientActivityFeed).
+-- Każda gałąź zapytania odczytuje płatności jednego klienta od najnowszych,
+-- zaczynając za ostatnią wyświetloną pozycją, więc indeks (klient, data)
+-- pozwala pobrać stronę bez sortowania całej historii klienta.
+
+CREATE INDEX idx_transactions_client_date ON transactions (client_id, transaction_date);
+CREATE INDEX idx_membership_payments_client_date ON membership_payments (client_id, payment_date);
+
+-- Powyższe indeksy zaczynają się od client_id, więc obsługują też złączenia
+-- i klucze obce po kliencie; jednokolumnowe indeksy z V1 są zbędne.
+DROP INDEX idx_transactions_client ON transactions;
+DROP INDEX idx_membership_payments_client ON membership_payments;
@@ -0,0 +1,11 @@
+-- Znaczniki zmian tabeli users dla katalogu użytkowników (UserDirectory).
+
+-- Jeden wiersz na każde dodanie, edycję lub usunięcie użytkownika, zapisywany
+-- w tej samej transakcji co zmiana; katalog pobiera tylko użytkowników
+-- ze znacznikami nowszymi niż ostatnio odczytany.
+CREATE TABLE IF NOT EXISTS user_changes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id)
+);
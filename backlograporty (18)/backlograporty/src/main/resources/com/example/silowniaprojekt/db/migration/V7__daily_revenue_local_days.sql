@@ -0,0 +1,7 @@
+-- Przebudowa zestawienia przychodów (daily_revenue) według dnia lokalnego aplikacji.
+
+-- Wcześniejsze wypełnienie zestawienia grupowało płatności według DATE(kolumna),
+-- czyli dnia w strefie bazy danych (UTC), podczas gdy raporty i zapis płatności
+-- używają dnia w strefie aplikacji. Dzień płatności w strefie JVM nie jest
+-- dostępny w SQL, więc migrację wykonuje krok w Javie (SchemaMigrations.JAVA_STEPS),
+-- który przebudowuje całe zestawienie (RevenueRollup.rebuild).
@@ -0,0 +1,8 @@
+-- Czas wpisu dziennika aktywności (ActivityLog).
+
+-- Wpisy zapisywane są wsadowo w tle, więc czas zapisu wiersza może różnić się
+-- od czasu akcji (np. wpisy zapisane przy zamykaniu aplikacji lub ponowione
+-- po błędzie bazy danych). ActivityLog zapisuje czas akcji jawnie; istniejące
+-- wpisy pozostają bez czasu.
+ALTER TABLE activity_logs ADD COLUMN created_at TIMESTAMP NULL DEFAULT NULL;
+ALTER TABLE activity_logs MODIFY created_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,128 @@
+import com.example.silowniaprojekt.AsyncQueryExecutor;
+import com.example.silowniaprojekt.DatabaseConnection;
+import com.example.silowniaprojekt.ProductSales;
+import com.example.silowniaprojekt.ShoppingCart;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pomiar przepustowości zapisu zamówień z koszyka ({@link ProductSales#checkout})
+ * w porównaniu ze sprzedażą każdej sztuki osobno ({@link ProductSales#sell}),
+ * dla koszyków z 1, 10 i 50 produktami.
+ *
+ * Nie jest testem JUnit - uruchamiany ręcznie (metoda {@link #main(String[])})
+ * na bazie danych wskazanej przez {@link DatabaseConnection}. Tworzy klienta
+ * i produkty testowe, a po pomiarze usuwa je razem z zapisanymi sprzedażami.
+ */
+public class CheckoutBenchmark {
+
+    /** Rozmiary mierzonych koszyków. */
+    private static final int[] BASKETS = {1, 10, 50};
+
+    /** Liczba zamówień mierzonych dla każdego rozmiaru koszyka. */
+    private static final int ROUNDS = 50;
+
+    /** Liczba zamówień rozgrzewających (JIT, pula połączeń, bufor bazy) przed pomiarem. */
+    private static final int WARMUP_ROUNDS = 20;
+
+    /**
+     * Wykonuje pomiar i wypisuje tabelę wyników.
+     *
+     * @param args argumenty wiersza poleceń (nieużywane)
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    public static void main(String[] args) throws SQLException {
+        int maxBasket = BASKETS[BASKETS.length - 1];
+        int stock = (WARMUP_ROUNDS + 2 * ROUNDS * BASKETS.length) * 2;
+        String suffix = String.valueOf(System.nanoTime());
+        List<String> names = new ArrayList<>();
+        List<Integer> productIds = new ArrayList<>();
+        int clientId = -1;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            clientId = insert(conn, "INSERT INTO users (name, email, password, role) VALUES (?, ?, '-', 'client')",
+                    "Klient Testowy " + suffix, "koszyk" + suffix + "@test.com");
+            for (int i = 0; i < maxBasket; i++) {
+                String name = "Produkt Testowy " + suffix + " #" + i;
+                productIds.add(insert(conn, "INSERT INTO products (name, price, stock) VALUES (?, 1.00, " + stock + ")", name));
+                names.add(name);
+            }
+        }
+
+        try {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                checkout(clientId, names, maxBasket);
+                ProductSales.sell(clientId, productIds.get(0), BigDecimal.ONE, LocalDateTime.now());
+            }
+
+            System.out.println("Koszyk | zamówienie (śr. z " + ROUNDS + ") | sztuk/s | osobne sprzedaże | sztuk/s");
+            for (int size : BASKETS) {
+                long start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    checkout(clientId, names, size);
+                }
+                double checkoutMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+
+                start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < size; i++) {
+                        ProductSales.sell(clientId, productIds.get(i), BigDecimal.ONE, LocalDateTime.now());
+                    }
+                }
+                double sellMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+
+                System.out.printf("%6d | %19.2f ms | %7.0f | %13.2f ms | %7.0f%n",
+                        size, checkoutMillis, size * 1000 / checkoutMillis, sellMillis, size * 1000 / sellMillis);
+            }
+        } finally {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                for (int productId : productIds) {
+                    delete(conn, "DELETE FROM daily_revenue WHERE stream = 'PRODUCTS' AND ref_id = ?", productId);
+                    delete(conn, "DELETE FROM transactions WHERE product_id = ?", productId);
+                    delete(conn, "DELETE FROM products WHERE id = ?", productId);
+                }
+                delete(conn, "DELETE FROM users WHERE id = ?", clientId);
+            }
+            AsyncQueryExecutor.shutdown();
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    /** Zapisuje zamówienie z jedną sztuką każdego z pierwszych {@code size} produktów. */
+    private static void checkout(int clientId, List<String> names, int size) throws SQLException {
+        ShoppingCart cart = new ShoppingCart();
+        for (int i = 0; i < size; i++) {
+            cart.add(names.get(i), BigDecimal.ONE);
+        }
+        if (!ProductSales.checkout(clientId, cart.items(), LocalDateTime.now())) {
+            throw new SQLException("Zabrakło produktów testowych w magazynie");
+        }
+    }
+
+    private static int insert(Connection conn, String sql, String... values) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < values.length; i++) {
+                stmt.setString(i + 1, values[i]);
+            }
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static void delete(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        }
+    }
+}
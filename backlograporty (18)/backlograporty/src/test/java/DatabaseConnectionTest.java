@@ -3,7 +3,9 @@ import com.example.silowniaprojekt.DatabaseConnection;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +42,54 @@ public class DatabaseConnectionTest {
             fail("Wyjątek podczas sprawdzania stanu połączenia: " + ex.getMessage());
         }
     }
+
+    /**
+     * Testuje ponowne wykorzystanie połączeń przez pulę.
+     * 
+     * Sprawdza czy:
+     * 1. Zamknięte połączenie zgłasza stan zamknięty
+     * 2. Kolejne wywołanie getConnection zwraca to samo fizyczne połączenie
+     */
+    @Test
+    public void testGetConnection_reusesPooledConnection() throws SQLException {
+        Connection first = DatabaseConnection.getConnection();
+        assertNotNull(first, "Połączenie nie powinno być null.");
+        Connection physical = first.unwrap(Connection.class);
+        first.close();
+        assertTrue(first.isClosed(), "Zwrócone połączenie powinno być zamknięte.");
+
+        try (Connection second = DatabaseConnection.getConnection()) {
+            assertNotNull(second, "Połączenie nie powinno być null.");
+            assertSame(physical, second.unwrap(Connection.class),
+                    "Pula powinna ponownie wydać to samo fizyczne połączenie.");
+        }
+    }
+
+    /**
+     * Testuje zamykanie zapytań pozostawionych otwartych przy zwrocie połączenia do puli.
+     *
+     * Sprawdza czy:
+     * 1. Zapytanie zwraca pośrednika połączenia, a nie połączenie fizyczne
+     * 2. Po zwrocie połączenia fizyczne zapytanie i jego wynik są zamknięte
+     * 3. Zapytanie nie może zostać wykonane ponownie po zwrocie połączenia
+     */
+    @Test
+    public void testClose_closesStatementsLeftOpen() throws SQLException {
+        Connection connection = DatabaseConnection.getConnection();
+        assertNotNull(connection, "Połączenie nie powinno być null.");
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT 1");
+        assertSame(connection, stmt.getConnection(), "Zapytanie powinno zwracać połączenie z puli.");
+        assertSame(stmt, rs.getStatement(), "Wynik powinien zwracać zapytanie z puli.");
+        Statement physicalStmt = stmt.unwrap(Statement.class);
+        ResultSet physicalRs = rs.unwrap(ResultSet.class);
+
+        connection.close();
+
+        assertTrue(physicalStmt.isClosed(), "Zapytanie powinno zostać zamknięte przy zwrocie połączenia.");
+        assertTrue(physicalRs.isClosed(), "Wynik powinien zostać zamknięty przy zwrocie połączenia.");
+        assertTrue(stmt.isClosed(), "Zapytanie powinno zgłaszać stan zamknięty.");
+        assertThrows(SQLException.class, () -> stmt.executeQuery("SELECT 1"),
+                "Zapytanie nie powinno działać po zwrocie połączenia.");
+    }
 }
@@ -0,0 +1,175 @@
+import com.example.silowniaprojekt.DatabaseConnection;
+import com.example.silowniaprojekt.ProductSales;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Klasa testowa dla sprzedaży produktów ({@link ProductSales}).
+ * Sprawdza, czy równoczesna sprzedaż jednego produktu z wielu stanowisk
+ * nie prowadzi do sprzedaży ponad stan magazynowy.
+ *
+ * Test korzysta z rzeczywistej bazy danych: tworzy klienta i produkt testowy,
+ * a po zakończeniu usuwa je razem z zapisanymi sprzedażami.
+ */
+class ProductSalesTest {
+
+    /** Początkowy stan magazynowy produktu testowego. */
+    private static final int STOCK = 20;
+
+    /** Liczba wątków (stanowisk) sprzedających jednocześnie. */
+    private static final int THREADS = 16;
+
+    /** Liczba prób sprzedaży na wątek; łącznie więcej niż stan magazynowy. */
+    private static final int ATTEMPTS_PER_THREAD = 5;
+
+    private int clientId;
+    private int productId;
+
+    /**
+     * Tworzy klienta i produkt testowy o stanie {@link #STOCK}.
+     *
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            assertNotNull(conn, "Połączenie z bazą danych nie może być null.");
+            String suffix = String.valueOf(System.nanoTime());
+            clientId = insert(conn, "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, 'client')",
+                    "Klient Testowy " + suffix, "sprzedaz" + suffix + "@test.com", "-");
+            productId = insert(conn, "INSERT INTO products (name, price, stock) VALUES (?, 1.00, " + STOCK + ")",
+                    "Produkt Testowy " + suffix);
+        }
+    }
+
+    /**
+     * Usuwa dane testowe: sprzedaże, wiersze zestawienia przychodów, produkt i klienta.
+     *
+     * @throws SQLException w przypadku błędu bazy danych
+     */
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            delete(conn, "DELETE FROM daily_revenue WHERE stream = 'PRODUCTS' AND ref_id = ?", productId);
+            delete(conn, "DELETE FROM transactions WHERE product_id = ?", productId);
+            delete(conn, "DELETE FROM products WHERE id = ?", productId);
+            delete(conn, "DELETE FROM users WHERE id = ?", clientId);
+        }
+    }
+
+    /**
+     * Testuje równoczesną sprzedaż ostatnich sztuk produktu.
+     *
+     * Test:
+     * 1. Uruchamia {@link #THREADS} wątków, które startują jednocześnie (zatrzask)
+     *    i próbują sprzedać łącznie więcej sztuk, niż jest w magazynie
+     * 2. W trakcie sprzedaży odczytuje stan magazynowy
+     * 3. Sprawdza, że stan nigdy nie był ujemny, liczba udanych sprzedaży
+     *    jest równa początkowemu stanowi, a każda z nich ma zapisaną transakcję
+     *
+     * @throws Exception w przypadku błędu bazy danych lub przerwania wątków
+     */
+    @Test
+    void testSell_concurrentSales_neverOversells() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (ProductSales.sell(clientId, productId, BigDecimal.ONE, LocalDateTime.now())) {
+                            sold.incrementAndGet();
+                        } else {
+                            refused.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            int minStock = STOCK;
+            while (!workers.stream().allMatch(Future::isDone)) {
+                minStock = Math.min(minStock, stock());
+                Thread.sleep(5);
+            }
+            for (Future<?> worker : workers) {
+                worker.get(); // Zgłasza błąd sprzedaży (np. po wyczerpaniu ponowień)
+            }
+
+            assertTrue(minStock >= 0, "Stan magazynowy nie powinien być ujemny w trakcie sprzedaży.");
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Wątki sprzedaży powinny się zakończyć.");
+        }
+
+        assertEquals(STOCK, sold.get(), "Liczba udanych sprzedaży powinna być równa początkowemu stanowi.");
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - STOCK, refused.get(),
+                "Pozostałe próby powinny zostać odrzucone z powodu braku towaru.");
+        assertEquals(0, stock(), "Cały stan magazynowy powinien zostać sprzedany.");
+        assertEquals(STOCK, transactionCount(), "Każda sprzedaż powinna mieć zapisaną transakcję.");
+    }
+
+    private int stock() throws SQLException {
+        return queryInt("SELECT stock FROM products WHERE id = ?");
+    }
+
+    private int transactionCount() throws SQLException {
+        return queryInt("SELECT COUNT(*) FROM transactions WHERE product_id = ?");
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, productId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next(), "Produkt testowy powinien istnieć.");
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static int insert(Connection conn, String sql, String... values) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < values.length; i++) {
+                stmt.setString(i + 1, values[i]);
+            }
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                assertTrue(keys.next(), "Baza danych powinna zwrócić wygenerowany identyfikator.");
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static void delete(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        }
+    }
+}